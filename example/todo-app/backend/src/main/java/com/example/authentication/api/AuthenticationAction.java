@@ -4,6 +4,8 @@ import com.example.authentication.application.AccountRegistrationResult;
 import com.example.authentication.application.AccountRegistrationService;
 import com.example.authentication.application.AuthenticationResult;
 import com.example.authentication.application.AuthenticationService;
+import com.example.authentication.application.password.PasswordHasherBusyException;
+import com.example.system.nablarch.handler.AnonymousAccess;
 import nablarch.common.web.session.SessionUtil;
 import nablarch.core.repository.di.config.externalize.annotation.SystemRepositoryComponent;
 import nablarch.core.validation.ee.ValidatorUtil;
@@ -33,11 +35,17 @@ public class AuthenticationAction {
 
     @Path("/signup")
     @POST
+    @AnonymousAccess
     @Consumes(MediaType.APPLICATION_JSON)
     public void signup(SignupRequest requestBody) {
         ValidatorUtil.validate(requestBody);
 
-        AccountRegistrationResult result = registrationService.register(requestBody.userName, requestBody.password);
+        AccountRegistrationResult result;
+        try {
+            result = registrationService.register(requestBody.userName, requestBody.password);
+        } catch (PasswordHasherBusyException e) {
+            throw serviceUnavailable(e);
+        }
         if (result == AccountRegistrationResult.NAME_CONFLICT) {
             throw new HttpErrorResponse(HttpResponse.Status.CONFLICT.getStatusCode());
         }
@@ -53,11 +61,17 @@ public class AuthenticationAction {
 
     @Path("/login")
     @POST
+    @AnonymousAccess
     @Consumes(MediaType.APPLICATION_JSON)
     public void login(ExecutionContext executionContext, LoginRequest requestBody) {
         ValidatorUtil.validate(requestBody);
 
-        AuthenticationResult result = authenticationService.authenticate(requestBody.userName, requestBody.password);
+        AuthenticationResult result;
+        try {
+            result = authenticationService.authenticate(requestBody.userName, requestBody.password);
+        } catch (PasswordHasherBusyException e) {
+            throw serviceUnavailable(e);
+        }
         if (result.isFailed()) {
             throw new HttpErrorResponse(HttpResponse.Status.UNAUTHORIZED.getStatusCode());
         }
@@ -71,6 +85,12 @@ public class AuthenticationAction {
         SessionUtil.invalidate(executionContext);
     }
 
+    private static HttpErrorResponse serviceUnavailable(PasswordHasherBusyException e) {
+        HttpResponse response = new HttpResponse(HttpResponse.Status.SERVICE_UNAVAILABLE.getStatusCode());
+        response.setHeader("Retry-After", "1");
+        return new HttpErrorResponse(response, e);
+    }
+
     public static class LoginRequest {
         @NotNull
         public String userName;
@@ -2,7 +2,10 @@ package com.example.authentication.application;
 
 import com.example.authentication.application.entity.AccountEntity;
 import com.example.authentication.application.entity.UserProfileEntity;
+import com.example.authentication.application.password.PasswordHasher;
 import nablarch.common.dao.UniversalDao;
+import nablarch.core.db.statement.exception.DuplicateStatementException;
+import nablarch.core.repository.di.config.externalize.annotation.ComponentRef;
 import nablarch.core.repository.di.config.externalize.annotation.SystemRepositoryComponent;
 
 import java.util.Map;
@@ -11,13 +14,24 @@ import java.util.UUID;
 @SystemRepositoryComponent
 public class AccountRegistrationService {
 
+    private final PasswordHasher passwordHasher;
+
+    public AccountRegistrationService(@ComponentRef("passwordHasher") PasswordHasher passwordHasher) {
+        this.passwordHasher = passwordHasher;
+    }
+
     public AccountRegistrationResult register(String userName, String password) {
         if (existsAccount(userName)) {
             return AccountRegistrationResult.NAME_CONFLICT;
         }
         String userId = generateUserId();
         insertAccount(userId, password);
-        insertUserProfile(userId, userName);
+        try {
+            insertUserProfile(userId, userName);
+        } catch (DuplicateStatementException e) {
+            // 同じ名前で同時に登録された場合は、ユーザー名の一意制約違反で検出する
+            return AccountRegistrationResult.NAME_CONFLICT;
+        }
         return AccountRegistrationResult.SUCCESS;
     }
 
@@ -32,7 +46,7 @@ public class AccountRegistrationService {
     private void insertAccount(String userId, String password) {
         AccountEntity accountEntity = new AccountEntity();
         accountEntity.setUserId(userId);
-        accountEntity.setPassword(password);
+        accountEntity.setPassword(passwordHasher.hash(password));
         UniversalDao.insert(accountEntity);
     }
 
@@ -1,8 +1,11 @@
 package com.example.authentication.application;
 
 import com.example.authentication.application.entity.AccountEntity;
+import com.example.authentication.application.password.PasswordHasher;
+import com.example.authentication.application.password.PasswordHasherBusyException;
 import nablarch.common.dao.NoDataException;
 import nablarch.common.dao.UniversalDao;
+import nablarch.core.repository.di.config.externalize.annotation.ComponentRef;
 import nablarch.core.repository.di.config.externalize.annotation.SystemRepositoryComponent;
 
 import java.util.Map;
@@ -10,17 +13,38 @@ import java.util.Map;
 @SystemRepositoryComponent
 public class AuthenticationService {
 
+    private final PasswordHasher passwordHasher;
+
+    public AuthenticationService(@ComponentRef("passwordHasher") PasswordHasher passwordHasher) {
+        this.passwordHasher = passwordHasher;
+    }
+
     public AuthenticationResult authenticate(String userName, String password) {
         AccountEntity accountEntity = findAccount(userName);
         if (accountEntity == null) {
+            // ユーザー名が存在するかどうかを応答時間から推測されないよう、存在する場合と同じハッシュ計算を行う
+            passwordHasher.matchesDummy(password);
             return AuthenticationResult.nameNotFound();
         }
-        if (!password.equals(accountEntity.getPassword())) {
+        if (!passwordHasher.matches(password, accountEntity.getPassword())) {
             return AuthenticationResult.passwordMismatch();
         }
+        if (passwordHasher.needsRehash(accountEntity.getPassword())) {
+            rehash(accountEntity, password);
+        }
         return AuthenticationResult.success(accountEntity.getUserId());
     }
 
+    private void rehash(AccountEntity accountEntity, String password) {
+        try {
+            accountEntity.setPassword(passwordHasher.hash(password));
+        } catch (PasswordHasherBusyException e) {
+            // 再ハッシュは次回のログイン時に行えばよいため、混み合っている場合は見送る
+            return;
+        }
+        UniversalDao.update(accountEntity);
+    }
+
     private AccountEntity findAccount(String userName) {
         Map<String, String> condition = Map.of("userName", userName);
         try {
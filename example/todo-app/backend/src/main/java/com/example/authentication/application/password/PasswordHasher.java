@@ -0,0 +1,136 @@
+package com.example.authentication.application.password;
+
+import nablarch.core.repository.disposal.Disposable;
+import nablarch.core.repository.initialization.Initializable;
+
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * パスワードのハッシュ計算を、リクエストを処理するスレッドとは別の専用スレッドで行う。
+ *
+ * ハッシュ計算はCPUを多く使うため、同時に計算するスレッド数（デフォルトはCPUコア数）と待ち行列の長さに上限を設ける。
+ * 待ち行列があふれた場合や、結果を待つ時間が上限を超えた場合は、{@link PasswordHasherBusyException}を送出する。
+ * これにより、ログインが集中してもToDoの操作など他のリクエストに使うCPUが枯渇しないようにする。
+ */
+public class PasswordHasher implements Initializable, Disposable {
+
+    private Pbkdf2PasswordEncoder passwordEncoder = new Pbkdf2PasswordEncoder();
+
+    private int threads;
+
+    private int queueCapacity = 64;
+
+    private long timeoutMillis = 5000;
+
+    private ThreadPoolExecutor executor;
+
+    /** {@link #matchesDummy}で照合に使うハッシュ。最初の照合時に作成する */
+    private volatile String dummyEncodedPassword;
+
+    public void setPasswordEncoder(Pbkdf2PasswordEncoder passwordEncoder) {
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    /**
+     * ハッシュ計算を行うスレッド数を設定する。0以下の場合はCPUコア数とする。
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * 計算を待つことができるリクエスト数を設定する。0の場合は待たせずに拒否する。
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public void initialize() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, queue,
+                new HasherThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        executor.prestartAllCoreThreads();
+    }
+
+    @Override
+    public void dispose() {
+        executor.shutdownNow();
+    }
+
+    public String hash(String password) {
+        return execute(() -> passwordEncoder.encode(password));
+    }
+
+    public boolean matches(String password, String encodedPassword) {
+        return execute(() -> passwordEncoder.matches(password, encodedPassword));
+    }
+
+    /**
+     * どのパスワードとも一致しないハッシュと照合し、{@link #matches}と同じ計算を行う。
+     *
+     * 存在しないユーザー名でのログインにも、存在する場合と同じ時間をかけるために使う。
+     * これにより、応答時間の違いからユーザー名が登録済みかどうかを推測されないようにする。
+     */
+    public void matchesDummy(String password) {
+        execute(() -> passwordEncoder.matches(password, dummyEncodedPassword()));
+    }
+
+    private String dummyEncodedPassword() {
+        // 同時に作成しても、どちらのハッシュを使っても結果は変わらないため、排他はしない
+        String encoded = dummyEncodedPassword;
+        if (encoded == null) {
+            encoded = passwordEncoder.encode(UUID.randomUUID().toString());
+            dummyEncodedPassword = encoded;
+        }
+        return encoded;
+    }
+
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.needsRehash(encodedPassword);
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new PasswordHasherBusyException("password hashing queue is full.", e);
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new PasswordHasherBusyException("password hashing timed out. timeoutMillis = " + timeoutMillis, e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHasherBusyException("interrupted while waiting for password hashing.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static class HasherThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hasher-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.authentication.application.password;
+
+/**
+ * パスワードのハッシュ計算が混み合っていて、受け付けられなかったことを表す例外。
+ */
+public class PasswordHasherBusyException extends RuntimeException {
+
+    public PasswordHasherBusyException(String message) {
+        super(message);
+    }
+
+    public PasswordHasherBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.authentication.application.password;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * PBKDF2(HMAC-SHA256)でパスワードをハッシュ化する。
+ *
+ * ハッシュ値は{@code pbkdf2-sha256$反復回数$ソルト$ハッシュ}の形式で、ソルトとハッシュはBase64でエンコードする。
+ * コストパラメータを変更しても、変更前のハッシュ値はそのまま照合できる。
+ * この形式になっていない値は、ハッシュ化する前に登録された平文のパスワードとして照合する。
+ */
+public class Pbkdf2PasswordEncoder {
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+
+    private static final String PREFIX = "pbkdf2-sha256";
+
+    private static final String SEPARATOR = "$";
+
+    private final SecureRandom random = new SecureRandom();
+
+    private int iterations = 310000;
+
+    private int saltLength = 16;
+
+    private int keyLength = 32;
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    public void setSaltLength(int saltLength) {
+        this.saltLength = saltLength;
+    }
+
+    public void setKeyLength(int keyLength) {
+        this.keyLength = keyLength;
+    }
+
+    public String encode(String password) {
+        byte[] salt = new byte[saltLength];
+        random.nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, iterations, keyLength);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + SEPARATOR + iterations + SEPARATOR + encoder.encodeToString(salt) + SEPARATOR + encoder.encodeToString(hash);
+    }
+
+    public boolean matches(String password, String encodedPassword) {
+        if (!isEncoded(encodedPassword)) {
+            return MessageDigest.isEqual(
+                    password.getBytes(StandardCharsets.UTF_8), encodedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+        EncodedPassword encoded = EncodedPassword.parse(encodedPassword);
+        if (encoded == null) {
+            return false;
+        }
+        byte[] hash = pbkdf2(password, encoded.salt, encoded.iterations, encoded.hash.length);
+        return MessageDigest.isEqual(hash, encoded.hash);
+    }
+
+    /**
+     * ハッシュ値が現在のコストパラメータで作られたものでなければ{@code true}を返す。
+     */
+    public boolean needsRehash(String encodedPassword) {
+        if (!isEncoded(encodedPassword)) {
+            return true;
+        }
+        EncodedPassword encoded = EncodedPassword.parse(encodedPassword);
+        return encoded == null
+                || encoded.iterations != iterations
+                || encoded.salt.length != saltLength
+                || encoded.hash.length != keyLength;
+    }
+
+    private static boolean isEncoded(String encodedPassword) {
+        return encodedPassword.startsWith(PREFIX + SEPARATOR);
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations, int keyLength) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, keyLength * 8);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static class EncodedPassword {
+
+        private final int iterations;
+
+        private final byte[] salt;
+
+        private final byte[] hash;
+
+        private EncodedPassword(int iterations, byte[] salt, byte[] hash) {
+            this.iterations = iterations;
+            this.salt = salt;
+            this.hash = hash;
+        }
+
+        static EncodedPassword parse(String encodedPassword) {
+            String[] parts = encodedPassword.split("\\" + SEPARATOR);
+            if (parts.length != 4) {
+                return null;
+            }
+            try {
+                Base64.Decoder decoder = Base64.getDecoder();
+                return new EncodedPassword(Integer.parseInt(parts[1]), decoder.decode(parts[2]), decoder.decode(parts[3]));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.presentation.restapi.system;
 
+import com.example.system.nablarch.handler.AnonymousAccess;
+import com.example.system.nablarch.handler.HmacCsrfTokenVerificationHandler;
 import nablarch.common.web.csrf.CsrfTokenUtil;
+import nablarch.core.repository.di.config.externalize.annotation.ComponentRef;
 import nablarch.core.repository.di.config.externalize.annotation.SystemRepositoryComponent;
 import nablarch.fw.ExecutionContext;
 
@@ -13,10 +16,17 @@ import javax.ws.rs.core.MediaType;
 @Path("/csrf_token")
 public class CsrfTokenAction {
 
+    private final HmacCsrfTokenVerificationHandler csrfTokenVerificationHandler;
+
+    public CsrfTokenAction(@ComponentRef("csrfTokenVerificationHandler") HmacCsrfTokenVerificationHandler csrfTokenVerificationHandler) {
+        this.csrfTokenVerificationHandler = csrfTokenVerificationHandler;
+    }
+
     @GET
+    @AnonymousAccess
     @Produces(MediaType.APPLICATION_JSON)
     public CsrfTokenResponse get(ExecutionContext context) {
-        String csrfToken = CsrfTokenUtil.getCsrfToken(context);
+        String csrfToken = csrfTokenVerificationHandler.getCsrfToken(context);
         String headerName = CsrfTokenUtil.getHeaderName();
         String parameterName = CsrfTokenUtil.getParameterName();
         return new CsrfTokenResponse(csrfToken, headerName, parameterName);
@@ -0,0 +1,91 @@
+package com.example.presentation.restapi.system;
+
+import com.example.system.metrics.ConnectionPoolMetrics;
+import com.example.system.metrics.RequestMetrics;
+import com.example.system.metrics.SqlMetrics;
+import com.example.system.nablarch.handler.AnonymousAccess;
+import com.example.todo.application.TodoRepository;
+import com.example.todo.infrastructure.CachingTodoRepository;
+import nablarch.core.repository.di.config.externalize.annotation.ComponentRef;
+import nablarch.core.repository.di.config.externalize.annotation.ConfigValue;
+import nablarch.core.repository.di.config.externalize.annotation.SystemRepositoryComponent;
+import nablarch.fw.web.HttpErrorResponse;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpResponse;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ルートごと、エンティティとSQL IDごとのメトリクスと、コネクションプール（更新用と参照用）、ToDo一覧のキャッシュのメトリクスを
+ * Prometheusのテキスト形式で返す。
+ * ToDo一覧のキャッシュのメトリクスは、todoRepositoryが{@link CachingTodoRepository}の場合だけ返す。
+ *
+ * Prometheusからはログインできないため、ログインの代わりにAuthorizationヘッダのBearerトークンで認証する。
+ * トークン（metrics.bearerToken）を設定していない場合は、常に401を返す。
+ */
+@SystemRepositoryComponent
+@Path("/metrics")
+public class MetricsAction {
+
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final RequestMetrics requestMetrics;
+
+    private final SqlMetrics sqlMetrics;
+
+    private final List<ConnectionPoolMetrics> connectionPoolMetrics;
+
+    private final TodoRepository todoRepository;
+
+    private final byte[] bearerToken;
+
+    public MetricsAction(@ComponentRef("requestMetrics") RequestMetrics requestMetrics,
+                         @ComponentRef("sqlMetrics") SqlMetrics sqlMetrics,
+                         @ComponentRef("connectionPoolMetrics") ConnectionPoolMetrics connectionPoolMetrics,
+                         @ComponentRef("replicaConnectionPoolMetrics") ConnectionPoolMetrics replicaConnectionPoolMetrics,
+                         @ComponentRef("todoRepository") TodoRepository todoRepository,
+                         @ConfigValue("${metrics.bearerToken}") String bearerToken) {
+        this.requestMetrics = requestMetrics;
+        this.sqlMetrics = sqlMetrics;
+        this.connectionPoolMetrics = Arrays.asList(connectionPoolMetrics, replicaConnectionPoolMetrics);
+        this.todoRepository = todoRepository;
+        this.bearerToken = bearerToken != null ? bearerToken.trim().getBytes(StandardCharsets.UTF_8) : new byte[0];
+    }
+
+    @GET
+    @AnonymousAccess
+    public HttpResponse get(HttpRequest request) {
+        if (!authenticated(request.getHeader("Authorization"))) {
+            HttpResponse unauthorized = new HttpResponse(HttpResponse.Status.UNAUTHORIZED.getStatusCode());
+            unauthorized.setHeader("WWW-Authenticate", "Bearer");
+            throw new HttpErrorResponse(unauthorized);
+        }
+        HttpResponse response = new HttpResponse(HttpResponse.Status.OK.getStatusCode());
+        response.setContentType(CONTENT_TYPE);
+        StringBuilder metrics = new StringBuilder();
+        requestMetrics.writeTo(metrics);
+        sqlMetrics.writeTo(metrics);
+        ConnectionPoolMetrics.writeTo(metrics, connectionPoolMetrics);
+        if (todoRepository instanceof CachingTodoRepository) {
+            ((CachingTodoRepository) todoRepository).writeTo(metrics);
+        }
+        response.write(metrics);
+        return response;
+    }
+
+    private boolean authenticated(String authorization) {
+        if (bearerToken.length == 0 || authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+            return false;
+        }
+        // 一致するまでの時間からトークンを推測されないよう、比較にかかる時間が内容によらない方法で比較する
+        byte[] token = authorization.substring(BEARER_PREFIX.length()).trim().getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(token, bearerToken);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.system.metrics;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * HikariCPのコネクションプールの状態と、コネクションの取得時間、使用時間、作成時間、取得のタイムアウト数を集計する。
+ *
+ * HikariDataSourceのmetricsTrackerFactoryプロパティに設定して使う。
+ * 1つのインスタンスは1つのコネクションプールだけを集計するため、コネクションプールごとにインスタンスを作成すること。
+ * 接続数などの状態は、HikariCPが1秒ごとに更新する値を出力する。
+ */
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+    private final LatencyHistogram acquireTime = new LatencyHistogram();
+
+    private final LatencyHistogram usageTime = new LatencyHistogram();
+
+    private final LatencyHistogram creationTime = new LatencyHistogram();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    private volatile String poolName;
+
+    private volatile PoolStats poolStats;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolName = poolName;
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                creationTime.record(TimeUnit.MILLISECONDS.toMicros(connectionCreatedMillis));
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireTime.record(TimeUnit.NANOSECONDS.toMicros(elapsedAcquiredNanos));
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageTime.record(TimeUnit.MILLISECONDS.toMicros(elapsedBorrowedMillis));
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    public LatencyHistogram acquireTime() {
+        return acquireTime;
+    }
+
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * 複数のコネクションプールのメトリクスを、poolラベルで区別して書き出す。
+     * 同じ名前のメトリクスはまとめて書き出す必要があるため、プールごとではなくメトリクスごとに全てのプールの値を書き出す。
+     * まだ開始していない（コネクションを取得していない）プールは書き出さない。
+     */
+    public static void writeTo(StringBuilder out, List<ConnectionPoolMetrics> pools) {
+        List<ConnectionPoolMetrics> started = new ArrayList<>();
+        List<PoolStats> stats = new ArrayList<>();
+        List<String[]> labels = new ArrayList<>();
+        for (ConnectionPoolMetrics pool : pools) {
+            PoolStats poolStats = pool.poolStats;
+            if (poolStats != null) {
+                started.add(pool);
+                stats.add(poolStats);
+                labels.add(new String[] {"pool", pool.poolName});
+            }
+        }
+        if (started.isEmpty()) {
+            return;
+        }
+        PrometheusText text = new PrometheusText(out);
+
+        gauge(text, "hikaricp_active_connections", "Connections in use.", labels, stats, PoolStats::getActiveConnections);
+        gauge(text, "hikaricp_idle_connections", "Connections waiting in the pool.", labels, stats, PoolStats::getIdleConnections);
+        gauge(text, "hikaricp_pending_threads", "Threads waiting for a connection.", labels, stats, PoolStats::getPendingThreads);
+        gauge(text, "hikaricp_connections", "Connections in the pool.", labels, stats, PoolStats::getTotalConnections);
+        gauge(text, "hikaricp_max_connections", "Maximum pool size.", labels, stats, PoolStats::getMaxConnections);
+        gauge(text, "hikaricp_min_connections", "Minimum idle connections.", labels, stats, PoolStats::getMinConnections);
+
+        summary(text, "hikaricp_connection_acquire_seconds", "Time to acquire a connection since startup.", labels, started, pool -> pool.acquireTime);
+        summary(text, "hikaricp_connection_usage_seconds", "Time a connection was borrowed since startup.", labels, started, pool -> pool.usageTime);
+        summary(text, "hikaricp_connection_creation_seconds", "Time to create a connection since startup.", labels, started, pool -> pool.creationTime);
+
+        text.header("hikaricp_connection_timeout_total", "counter", "Connection acquisitions that timed out.");
+        for (int i = 0; i < started.size(); i++) {
+            text.sample("hikaricp_connection_timeout_total", labels.get(i), String.valueOf(started.get(i).timeouts()));
+        }
+    }
+
+    private static void gauge(PrometheusText text, String name, String help, List<String[]> labels,
+                              List<PoolStats> stats, ToIntFunction<PoolStats> value) {
+        text.header(name, "gauge", help);
+        for (int i = 0; i < stats.size(); i++) {
+            text.sample(name, labels.get(i), String.valueOf(value.applyAsInt(stats.get(i))));
+        }
+    }
+
+    private static void summary(PrometheusText text, String name, String help, List<String[]> labels,
+                                List<ConnectionPoolMetrics> pools, Function<ConnectionPoolMetrics, LatencyHistogram> histogram) {
+        List<LatencyHistogram.Snapshot> snapshots = new ArrayList<>();
+        for (ConnectionPoolMetrics pool : pools) {
+            snapshots.add(histogram.apply(pool).snapshot());
+        }
+        text.header(name, "summary", help);
+        for (int i = 0; i < pools.size(); i++) {
+            text.summary(name, labels.get(i), snapshots.get(i), RequestMetrics.QUANTILES);
+        }
+        text.header(name + "_max", "gauge", "Maximum of " + name + ".");
+        for (int i = 0; i < pools.size(); i++) {
+            text.sample(name + "_max", labels.get(i), PrometheusText.seconds(snapshots.get(i).max()));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.system.metrics;
+
+/**
+ * Prometheusのテキスト形式でメトリクスを書き出す。
+ *
+ * ラベルは名前と値を交互に並べて指定する。
+ */
+public class PrometheusText {
+
+    private final StringBuilder out;
+
+    public PrometheusText(StringBuilder out) {
+        this.out = out;
+    }
+
+    public void header(String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    public void sample(String name, String[] labels, String value) {
+        sample(name, labels, null, null, value);
+    }
+
+    void sample(String name, String[] labels, String extraLabel, String extraValue, String value) {
+        out.append(name);
+        if (labels.length == 0 && extraLabel == null) {
+            out.append(' ').append(value).append('\n');
+            return;
+        }
+        out.append('{');
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+        }
+        if (extraLabel != null) {
+            out.append(',').append(extraLabel).append("=\"").append(escape(extraValue)).append('"');
+        }
+        out.append("} ").append(value).append('\n');
+    }
+
+    /**
+     * {@link LatencyHistogram}の内容を、分位数と件数、合計を持つsummaryの標本として書き出す。
+     */
+    void summary(String name, String[] labels, LatencyHistogram.Snapshot snapshot, double[] quantiles) {
+        for (double quantile : quantiles) {
+            long micros = snapshot.valueAtQuantile(quantile);
+            sample(name, labels, "quantile", String.valueOf(quantile), micros < 0 ? "NaN" : seconds(micros));
+        }
+        sample(name + "_count", labels, String.valueOf(snapshot.count()));
+        sample(name + "_sum", labels, seconds(snapshot.sum()));
+    }
+
+    static String seconds(long micros) {
+        return String.valueOf(micros / 1_000_000.0);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.system.metrics;
+
+import com.example.system.nablarch.handler.ResourceRoute;
+import com.example.system.nablarch.handler.RouteMatcher;
+import nablarch.core.repository.initialization.Initializable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JAX-RSのルートごとの{@link RouteMetrics}をまとめ、Prometheusのテキスト形式で出力する。
+ *
+ * ルートは起動時にbasePackage配下のリソースメソッドから作る。
+ * どのルートにも一致しないリクエストは、routeラベルが"UNMATCHED"のメトリクスにまとめる。
+ */
+public class RequestMetrics implements Initializable {
+
+    static final String UNMATCHED = "UNMATCHED";
+
+    static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    private String basePackage;
+
+    private String applicationPath;
+
+    private RouteMatcher<RouteMetrics> routes;
+
+    private final List<RouteMetrics> all = new ArrayList<>();
+
+    private final RouteMetrics unmatched = new RouteMetrics("", UNMATCHED);
+
+    public void setBasePackage(String basePackage) {
+        this.basePackage = basePackage;
+    }
+
+    public void setApplicationPath(String applicationPath) {
+        this.applicationPath = applicationPath;
+    }
+
+    @Override
+    public void initialize() {
+        RouteMatcher.Builder<RouteMetrics> builder = new RouteMatcher.Builder<>();
+        all.clear();
+        for (ResourceRoute route : ResourceRoute.find(basePackage, applicationPath)) {
+            RouteMetrics metrics = new RouteMetrics(route.httpMethod(), route.path());
+            builder.add(route.httpMethod(), route.path(), metrics);
+            all.add(metrics);
+        }
+        all.add(unmatched);
+        routes = builder.build();
+    }
+
+    public RouteMetrics route(String httpMethod, String path) {
+        RouteMetrics metrics = routes.find(httpMethod, path);
+        return metrics != null ? metrics : unmatched;
+    }
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder();
+        writeTo(out);
+        return out.toString();
+    }
+
+    public void writeTo(StringBuilder out) {
+        PrometheusText text = new PrometheusText(out);
+        List<String[]> labels = new ArrayList<>(all.size());
+        List<LatencyHistogram.Snapshot> snapshots = new ArrayList<>(all.size());
+        for (RouteMetrics metrics : all) {
+            labels.add(new String[]{"method", metrics.httpMethod(), "route", metrics.route()});
+            snapshots.add(metrics.latency().snapshot());
+        }
+
+        text.header("http_server_requests_seconds", "summary", "Request latency per route since startup.");
+        for (int i = 0; i < all.size(); i++) {
+            text.summary("http_server_requests_seconds", labels.get(i), snapshots.get(i), QUANTILES);
+        }
+
+        text.header("http_server_requests_seconds_max", "gauge", "Maximum request latency per route since startup.");
+        for (int i = 0; i < all.size(); i++) {
+            text.sample("http_server_requests_seconds_max", labels.get(i), PrometheusText.seconds(snapshots.get(i).max()));
+        }
+
+        text.header("http_server_request_errors_total", "counter", "Requests answered with 4xx or 5xx per route.");
+        for (int i = 0; i < all.size(); i++) {
+            RouteMetrics metrics = all.get(i);
+            text.sample("http_server_request_errors_total", labels.get(i), "class", "4xx", String.valueOf(metrics.clientErrors()));
+            text.sample("http_server_request_errors_total", labels.get(i), "class", "5xx", String.valueOf(metrics.serverErrors()));
+        }
+
+        text.header("http_server_requests_in_flight", "gauge", "Requests currently being processed per route.");
+        for (int i = 0; i < all.size(); i++) {
+            text.sample("http_server_requests_in_flight", labels.get(i), String.valueOf(all.get(i).inFlight()));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.system.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ルートごとのリクエスト数、処理時間、エラー数、処理中のリクエスト数。
+ */
+public class RouteMetrics {
+
+    private final String httpMethod;
+
+    private final String route;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final LongAdder clientErrors = new LongAdder();
+
+    private final LongAdder serverErrors = new LongAdder();
+
+    private final LongAdder inFlight = new LongAdder();
+
+    public RouteMetrics(String httpMethod, String route) {
+        this.httpMethod = httpMethod;
+        this.route = route;
+    }
+
+    public void start() {
+        inFlight.increment();
+    }
+
+    public void end(long elapsedNanos, int statusCode) {
+        inFlight.decrement();
+        latency.record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        if (statusCode >= 500) {
+            serverErrors.increment();
+        } else if (statusCode >= 400) {
+            clientErrors.increment();
+        }
+    }
+
+    public String httpMethod() {
+        return httpMethod;
+    }
+
+    public String route() {
+        return route;
+    }
+
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    public long clientErrors() {
+        return clientErrors.sum();
+    }
+
+    public long serverErrors() {
+        return serverErrors.sum();
+    }
+
+    public long inFlight() {
+        return inFlight.sum();
+    }
+}
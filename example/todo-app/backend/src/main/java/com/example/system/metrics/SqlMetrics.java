@@ -0,0 +1,225 @@
+package com.example.system.metrics;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SQLの実行をエンティティとSQL IDの組み合わせごとに集計し、Prometheusのテキスト形式で出力する。
+ *
+ * {@link #beginRequest()}から{@link #endRequest(String, String)}までの間は、リクエスト内で実行したSQLの数と時間も集計する。
+ * SQLの数がstatementThresholdを超えたリクエスト（N+1問題の疑いがある）や、
+ * SQLの時間の合計がrequestTimeThresholdMillisを超えたリクエストは、最も多く実行したSQLとともにPERFORMANCEログに出力する。
+ * 1回の実行がslowStatementThresholdMillisを超えたSQLも同様に出力する。
+ *
+ * 集計先の検索と記録ではロックもオブジェクト生成も行わない。
+ */
+public class SqlMetrics {
+
+    private static final Logger logger = LoggerManager.get("PERFORMANCE");
+
+    private int statementThreshold = 30;
+
+    private long requestTimeThresholdNanos = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private long slowStatementThresholdNanos = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private final ClassValue<ConcurrentMap<String, StatementMetrics>> statements = new ClassValue<ConcurrentMap<String, StatementMetrics>>() {
+        @Override
+        protected ConcurrentMap<String, StatementMetrics> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final List<StatementMetrics> all = new CopyOnWriteArrayList<>();
+
+    private final ThreadLocal<RequestStatistics> requestStatistics = ThreadLocal.withInitial(RequestStatistics::new);
+
+    private final LongAdder tooManyStatementsRequests = new LongAdder();
+
+    private final LongAdder tooSlowRequests = new LongAdder();
+
+    public void setStatementThreshold(int statementThreshold) {
+        this.statementThreshold = statementThreshold;
+    }
+
+    public void setRequestTimeThresholdMillis(long requestTimeThresholdMillis) {
+        this.requestTimeThresholdNanos = TimeUnit.MILLISECONDS.toNanos(requestTimeThresholdMillis);
+    }
+
+    public void setSlowStatementThresholdMillis(long slowStatementThresholdMillis) {
+        this.slowStatementThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowStatementThresholdMillis);
+    }
+
+    public StatementMetrics statement(Class<?> entityClass, String sqlId) {
+        ConcurrentMap<String, StatementMetrics> bySqlId = statements.get(entityClass);
+        StatementMetrics metrics = bySqlId.get(sqlId);
+        if (metrics != null) {
+            return metrics;
+        }
+        return bySqlId.computeIfAbsent(sqlId, key -> {
+            StatementMetrics created = new StatementMetrics(entityClass.getSimpleName(), key);
+            all.add(created);
+            return created;
+        });
+    }
+
+    public void record(StatementMetrics statement, long elapsedNanos, long rows, boolean failed) {
+        boolean slow = elapsedNanos > slowStatementThresholdNanos;
+        statement.record(elapsedNanos, rows, failed, slow);
+        if (slow) {
+            logger.logWarn(String.format("Slow statement. statement=[%s] elapsedMillis=[%d] rows=[%d]",
+                    statement, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), rows));
+        }
+        RequestStatistics statistics = requestStatistics.get();
+        if (statistics.active) {
+            statistics.add(statement, elapsedNanos);
+        }
+    }
+
+    public void beginRequest() {
+        requestStatistics.get().begin();
+    }
+
+    public void endRequest(String httpMethod, String path) {
+        RequestStatistics statistics = requestStatistics.get();
+        statistics.active = false;
+        boolean tooManyStatements = statistics.statementCount > statementThreshold;
+        boolean tooSlow = statistics.elapsedNanos > requestTimeThresholdNanos;
+        if (tooManyStatements) {
+            tooManyStatementsRequests.increment();
+        }
+        if (tooSlow) {
+            tooSlowRequests.increment();
+        }
+        if (tooManyStatements || tooSlow) {
+            logger.logWarn(String.format(
+                    "Request exceeded the statement thresholds. path=[%s] method=[%s] statements=[%d] elapsedMillis=[%d]"
+                            + " mostFrequent=[%s] mostFrequentCount=[%d]",
+                    path, httpMethod, statistics.statementCount, TimeUnit.NANOSECONDS.toMillis(statistics.elapsedNanos),
+                    statistics.mostFrequent(), statistics.mostFrequentCount()));
+        }
+    }
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder();
+        writeTo(out);
+        return out.toString();
+    }
+
+    public void writeTo(StringBuilder out) {
+        PrometheusText text = new PrometheusText(out);
+        List<StatementMetrics> statements = new ArrayList<>(all);
+        List<String[]> labels = new ArrayList<>(statements.size());
+        List<LatencyHistogram.Snapshot> snapshots = new ArrayList<>(statements.size());
+        for (StatementMetrics metrics : statements) {
+            labels.add(new String[]{"entity", metrics.entity(), "sql_id", metrics.sqlId()});
+            snapshots.add(metrics.latency().snapshot());
+        }
+
+        text.header("db_statement_seconds", "summary", "Statement latency per entity and SQL ID since startup.");
+        for (int i = 0; i < statements.size(); i++) {
+            text.summary("db_statement_seconds", labels.get(i), snapshots.get(i), RequestMetrics.QUANTILES);
+        }
+
+        text.header("db_statement_seconds_max", "gauge", "Maximum statement latency per entity and SQL ID since startup.");
+        for (int i = 0; i < statements.size(); i++) {
+            text.sample("db_statement_seconds_max", labels.get(i), PrometheusText.seconds(snapshots.get(i).max()));
+        }
+
+        text.header("db_statement_rows_total", "counter", "Rows fetched or affected per entity and SQL ID.");
+        for (int i = 0; i < statements.size(); i++) {
+            text.sample("db_statement_rows_total", labels.get(i), String.valueOf(statements.get(i).rows()));
+        }
+
+        text.header("db_statement_errors_total", "counter", "Statements that threw an exception per entity and SQL ID.");
+        for (int i = 0; i < statements.size(); i++) {
+            text.sample("db_statement_errors_total", labels.get(i), String.valueOf(statements.get(i).errors()));
+        }
+
+        text.header("db_statement_slow_total", "counter", "Statements slower than the slow statement threshold.");
+        for (int i = 0; i < statements.size(); i++) {
+            text.sample("db_statement_slow_total", labels.get(i), String.valueOf(statements.get(i).slowExecutions()));
+        }
+
+        text.header("db_requests_flagged_total", "counter", "Requests that exceeded the statement count or time threshold.");
+        text.sample("db_requests_flagged_total", new String[]{"reason", "statements"}, String.valueOf(tooManyStatementsRequests.sum()));
+        text.sample("db_requests_flagged_total", new String[]{"reason", "time"}, String.valueOf(tooSlowRequests.sum()));
+    }
+
+    /**
+     * 1リクエスト内で実行したSQLの集計。スレッドごとに1つを使い回す。
+     *
+     * SQLごとの実行回数は、種類が{@link #MAX_DISTINCT}を超えた分は数えない。
+     */
+    private static final class RequestStatistics {
+
+        private static final int MAX_DISTINCT = 32;
+
+        private final StatementMetrics[] statements = new StatementMetrics[MAX_DISTINCT];
+
+        private final int[] counts = new int[MAX_DISTINCT];
+
+        private int distinct;
+
+        private boolean active;
+
+        private int statementCount;
+
+        private long elapsedNanos;
+
+        void begin() {
+            for (int i = 0; i < distinct; i++) {
+                statements[i] = null;
+                counts[i] = 0;
+            }
+            distinct = 0;
+            statementCount = 0;
+            elapsedNanos = 0;
+            active = true;
+        }
+
+        void add(StatementMetrics statement, long elapsed) {
+            statementCount++;
+            elapsedNanos += elapsed;
+            for (int i = 0; i < distinct; i++) {
+                if (statements[i] == statement) {
+                    counts[i]++;
+                    return;
+                }
+            }
+            if (distinct < MAX_DISTINCT) {
+                statements[distinct] = statement;
+                counts[distinct] = 1;
+                distinct++;
+            }
+        }
+
+        StatementMetrics mostFrequent() {
+            int index = mostFrequentIndex();
+            return index >= 0 ? statements[index] : null;
+        }
+
+        int mostFrequentCount() {
+            int index = mostFrequentIndex();
+            return index >= 0 ? counts[index] : 0;
+        }
+
+        private int mostFrequentIndex() {
+            int index = -1;
+            for (int i = 0; i < distinct; i++) {
+                if (index < 0 || counts[i] > counts[index]) {
+                    index = i;
+                }
+            }
+            return index;
+        }
+    }
+}
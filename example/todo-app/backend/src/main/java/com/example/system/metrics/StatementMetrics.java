@@ -0,0 +1,69 @@
+package com.example.system.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * エンティティとSQL IDの組み合わせごとの実行回数、処理時間、行数、エラー数、遅いSQLの数。
+ *
+ * SQL IDはSQLファイルに定義したID。ユニバーサルDAOが自動で作るSQLは"findById"や"insert"のように操作の名前で表す。
+ */
+public class StatementMetrics {
+
+    private final String entity;
+
+    private final String sqlId;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final LongAdder rows = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder slowExecutions = new LongAdder();
+
+    public StatementMetrics(String entity, String sqlId) {
+        this.entity = entity;
+        this.sqlId = sqlId;
+    }
+
+    void record(long elapsedNanos, long rowCount, boolean failed, boolean slow) {
+        latency.record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        rows.add(rowCount);
+        if (failed) {
+            errors.increment();
+        }
+        if (slow) {
+            slowExecutions.increment();
+        }
+    }
+
+    public String entity() {
+        return entity;
+    }
+
+    public String sqlId() {
+        return sqlId;
+    }
+
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    public long rows() {
+        return rows.sum();
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    public long slowExecutions() {
+        return slowExecutions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return entity + "#" + sqlId;
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.system.nablarch;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.jaxrs.ResponseFinisher;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * リクエストのAccept-Encodingに応じて、レスポンスのボディをgzipまたはdeflateで圧縮する{@link ResponseFinisher}。
+ *
+ * 次のレスポンスは圧縮しない。
+ * <ul>
+ *   <li>ボディがminimumSizeバイト未満（空のボディを含む）のレスポンス、204、304のレスポンス</li>
+ *   <li>Content-TypeがcontentTypesのいずれでも始まらないレスポンス</li>
+ *   <li>ボディがファイルやストリームのレスポンス（大きさが分からないため）</li>
+ *   <li>Content-Encodingが設定済みのレスポンス</li>
+ * </ul>
+ *
+ * {@link Deflater}はネイティブのメモリを確保するため、レスポンスごとに作らずpoolSize個まで使い回す。
+ * 圧縮するとボディが変わるため、強いETagは弱いETagに変える。
+ */
+public class CompressionResponseFinisher implements ResponseFinisher {
+
+    private static final Logger logger = LoggerManager.get(CompressionResponseFinisher.class);
+
+    private static final String GZIP = "gzip";
+
+    private static final String DEFLATE = "deflate";
+
+    /** gzipのヘッダ（圧縮方式deflate、フラグ・更新日時なし、OS不明） */
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private int minimumSize = 1024;
+
+    private int level = Deflater.DEFAULT_COMPRESSION;
+
+    private List<String> contentTypes = List.of("application/json", "text/");
+
+    private BlockingQueue<Deflater> gzipDeflaters = new ArrayBlockingQueue<>(16);
+
+    private BlockingQueue<Deflater> zlibDeflaters = new ArrayBlockingQueue<>(16);
+
+    public void setMinimumSize(int minimumSize) {
+        this.minimumSize = minimumSize;
+    }
+
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    public void setContentTypes(List<String> contentTypes) {
+        this.contentTypes = contentTypes;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.gzipDeflaters = new ArrayBlockingQueue<>(poolSize);
+        this.zlibDeflaters = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    @Override
+    public void finish(HttpRequest request, HttpResponse response, ExecutionContext context) {
+        int status = response.getStatusCode();
+        if (status == HttpResponse.Status.NO_CONTENT.getStatusCode()
+                || status == HttpResponse.Status.NOT_MODIFIED.getStatusCode()
+                || response.getHeader("Content-Encoding") != null) {
+            return;
+        }
+        // 大きさが分からないボディ（ファイル、ストリーム）はnull
+        String contentLength = response.getContentLength();
+        if (contentLength == null || Long.parseLong(contentLength) < minimumSize || !isCompressible(response.getHeader("Content-Type"))) {
+            return;
+        }
+        addVary(response);
+        String encoding = selectEncoding(request.getHeader("Accept-Encoding"));
+        if (encoding == null) {
+            return;
+        }
+
+        byte[] body;
+        try (InputStream in = response.getBodyStream()) {
+            body = in.readAllBytes();
+        } catch (IOException e) {
+            // メモリ上のボディの読み込みでは発生しない
+            logger.logWarn("failed to read response body.", e);
+            return;
+        }
+        byte[] compressed = GZIP.equals(encoding) ? gzip(body) : deflate(body);
+
+        response.setBodyStream(new ByteArrayInputStream(compressed));
+        response.getHeaderMap().remove("Content-Length");
+        response.setHeader("Content-Encoding", encoding);
+        String etag = response.getHeader("ETag");
+        if (etag != null && !etag.startsWith("W/")) {
+            response.setHeader("ETag", "W/" + etag);
+        }
+    }
+
+    private boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String lowerCase = contentType.toLowerCase(Locale.ROOT);
+        return contentTypes.stream().anyMatch(lowerCase::startsWith);
+    }
+
+    private static void addVary(HttpResponse response) {
+        String vary = response.getHeader("Vary");
+        response.setHeader("Vary", vary == null ? "Accept-Encoding" : vary + ", Accept-Encoding");
+    }
+
+    /**
+     * Accept-Encodingから使用する圧縮方式を選ぶ。gzipとdeflateの両方を受け付ける場合はgzipを優先する。
+     *
+     * @return gzip、deflate、圧縮しない場合はnull
+     */
+    static String selectEncoding(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        boolean gzip = false;
+        boolean deflate = false;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (isZeroQuality(parts)) {
+                continue;
+            }
+            if (GZIP.equals(coding) || "*".equals(coding)) {
+                gzip = true;
+            } else if (DEFLATE.equals(coding)) {
+                deflate = true;
+            }
+        }
+        return gzip ? GZIP : deflate ? DEFLATE : null;
+    }
+
+    private static boolean isZeroQuality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) <= 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + GZIP_HEADER.length + 8);
+        out.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+        compress(gzipDeflaters, true, body, out);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        writeIntLittleEndian(out, (int) crc.getValue());
+        writeIntLittleEndian(out, body.length);
+        return out.toByteArray();
+    }
+
+    byte[] deflate(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 8);
+        compress(zlibDeflaters, false, body, out);
+        return out.toByteArray();
+    }
+
+    private void compress(BlockingQueue<Deflater> pool, boolean nowrap, byte[] body, ByteArrayOutputStream out) {
+        Deflater deflater = pool.poll();
+        if (deflater == null) {
+            deflater = new Deflater(level, nowrap);
+        }
+        try {
+            deflater.setInput(body);
+            deflater.finish();
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                out.write(buffer, 0, length);
+            }
+        } finally {
+            deflater.reset();
+            if (!pool.offer(deflater)) {
+                deflater.end();
+            }
+        }
+    }
+
+    private static void writeIntLittleEndian(ByteArrayOutputStream out, int value) {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+}
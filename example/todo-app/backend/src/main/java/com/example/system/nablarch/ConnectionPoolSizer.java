@@ -0,0 +1,180 @@
+package com.example.system.nablarch;
+
+import com.example.system.metrics.ConnectionPoolMetrics;
+import com.example.system.metrics.LatencyHistogram;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+import nablarch.core.repository.disposal.Disposable;
+import nablarch.core.repository.initialization.Initializable;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * コネクションの取得待ちの状況に応じて、HikariCPのコネクションプールの最大サイズを増減する。
+ *
+ * intervalMillisごとに、前回からのコネクション取得時間のp99と、その時点で取得を待っているスレッド数を調べる。
+ * プールが最大サイズまで使われていて、取得を待つスレッドがいるか、p99がacquireThresholdMillisを超えている場合は、
+ * 最大サイズをstepだけ増やす（maxPoolSizeまで）。
+ * 取得待ちがなく、p99が閾値を下回り、使用中のコネクションが最大サイズよりstep以上少ない状態が
+ * shrinkAfterIntervals回続いた場合は、最大サイズをstepだけ減らす（minPoolSizeまで）。
+ *
+ * 増やした分のコネクションはHikariCPが取得待ちに応じて作成する。
+ * 最小アイドル数はminPoolSizeにするため、減らした分のコネクションは、HikariCPがidleTimeoutを過ぎたアイドルのコネクションから閉じる。
+ * enabledがfalseの場合は何もしない。
+ */
+public class ConnectionPoolSizer implements Initializable, Disposable {
+
+    private static final Logger logger = LoggerManager.get("PERFORMANCE");
+
+    private DataSource dataSource;
+
+    private ConnectionPoolMetrics connectionPoolMetrics;
+
+    private boolean enabled;
+
+    private int minPoolSize = 5;
+
+    private int maxPoolSize = 20;
+
+    private int step = 2;
+
+    private long intervalMillis = 5000;
+
+    private long acquireThresholdMillis = 50;
+
+    private int shrinkAfterIntervals = 12;
+
+    private ScheduledExecutorService scheduler;
+
+    private LatencyHistogram.Snapshot previous;
+
+    private int calmIntervals;
+
+    public void setDataSource(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public void setConnectionPoolMetrics(ConnectionPoolMetrics connectionPoolMetrics) {
+        this.connectionPoolMetrics = connectionPoolMetrics;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setMinPoolSize(int minPoolSize) {
+        this.minPoolSize = minPoolSize;
+    }
+
+    public void setMaxPoolSize(int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public void setStep(int step) {
+        this.step = step;
+    }
+
+    public void setIntervalMillis(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+    }
+
+    public void setAcquireThresholdMillis(long acquireThresholdMillis) {
+        this.acquireThresholdMillis = acquireThresholdMillis;
+    }
+
+    public void setShrinkAfterIntervals(int shrinkAfterIntervals) {
+        this.shrinkAfterIntervals = shrinkAfterIntervals;
+    }
+
+    @Override
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+        HikariConfigMXBean config = hikariDataSource().getHikariConfigMXBean();
+        config.setMinimumIdle(minPoolSize);
+        config.setMaximumPoolSize(Math.max(minPoolSize, Math.min(maxPoolSize, config.getMaximumPoolSize())));
+        previous = connectionPoolMetrics.acquireTime().snapshot();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-sizer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::adjustSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void dispose() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void adjustSafely() {
+        try {
+            adjust();
+        } catch (RuntimeException e) {
+            logger.logWarn("Failed to adjust the connection pool size.", e);
+        }
+    }
+
+    /**
+     * 前回からの取得時間と現在の取得待ちに応じて、最大サイズを増減する。
+     *
+     * @return 調整後の最大サイズ
+     */
+    synchronized int adjust() {
+        HikariDataSource hikariDataSource = hikariDataSource();
+        HikariConfigMXBean config = hikariDataSource.getHikariConfigMXBean();
+        HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+        int current = config.getMaximumPoolSize();
+        if (pool == null) {
+            return current;
+        }
+
+        LatencyHistogram.Snapshot snapshot = connectionPoolMetrics.acquireTime().snapshot();
+        LatencyHistogram.Snapshot interval = snapshot.minus(previous);
+        previous = snapshot;
+        long p99Micros = interval.valueAtQuantile(0.99);
+        boolean slowAcquire = p99Micros > TimeUnit.MILLISECONDS.toMicros(acquireThresholdMillis);
+        int waiting = pool.getThreadsAwaitingConnection();
+        int active = pool.getActiveConnections();
+
+        int next = current;
+        if ((waiting > 0 || slowAcquire) && pool.getTotalConnections() >= current) {
+            calmIntervals = 0;
+            next = Math.min(maxPoolSize, current + step);
+        } else if (waiting == 0 && !slowAcquire && active + step <= current) {
+            calmIntervals++;
+            if (calmIntervals >= shrinkAfterIntervals) {
+                calmIntervals = 0;
+                next = Math.max(minPoolSize, current - step);
+            }
+        } else {
+            calmIntervals = 0;
+        }
+
+        if (next != current) {
+            config.setMaximumPoolSize(next);
+            logger.logInfo(String.format(
+                    "Connection pool resized. maximumPoolSize=[%d -> %d] waiting=[%d] active=[%d] acquireP99Millis=[%.3f]",
+                    current, next, waiting, active, Math.max(p99Micros, 0) / 1000.0));
+        }
+        return next;
+    }
+
+    private HikariDataSource hikariDataSource() {
+        try {
+            return dataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException e) {
+            throw new IllegalStateException("dataSource is not a HikariDataSource.", e);
+        }
+    }
+}
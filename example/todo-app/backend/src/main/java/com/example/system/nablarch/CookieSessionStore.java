@@ -0,0 +1,256 @@
+package com.example.system.nablarch;
+
+import nablarch.common.web.session.EncodeException;
+import nablarch.common.web.session.SessionEntry;
+import nablarch.common.web.session.SessionStore;
+import nablarch.core.date.SystemTimeUtil;
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.servlet.ServletExecutionContext;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.servlet.http.Cookie;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * セッションの内容を、AES-GCMで暗号化したクッキーに保存するセッションストア。
+ *
+ * サーバー側には何も保存しないため、バックエンドをスティッキーセッションなしで増やせる。
+ * クッキーには有効期限とセッションIDを一緒に暗号化して入れ、読み込み時に改ざん、期限切れ、
+ * セッションIDの不一致を検出した場合は、セッションの内容がないものとして扱う。
+ *
+ * 鍵はkeysにBase64で指定する（AESの鍵なので16、24、32バイトのいずれか）。
+ * 暗号化には先頭の鍵を使い、復号には全ての鍵を使うため、新しい鍵を先頭に追加すれば、
+ * 古い鍵で暗号化したクッキーも有効期限までは読み込める（次に保存するときに新しい鍵で暗号化し直す）。
+ *
+ * 保存のたびにクッキーを発行し直すと、リクエストごとに暗号化とSet-Cookieが必要になるため、
+ * 内容が変わらず、有効期限までの残りが半分以上あり、現在の鍵で暗号化されている場合は発行し直さない。
+ *
+ * 有効期限はこのストアで判定するため、SessionStoreHandlerには{@link StoreManagedExpiration}を設定すること。
+ */
+public class CookieSessionStore extends SessionStore {
+
+    private static final Logger logger = LoggerManager.get(CookieSessionStore.class);
+
+    /** ブラウザが保存できるクッキーの大きさの目安 */
+    private static final int MAX_COOKIE_LENGTH = 4096;
+
+    private static final byte VERSION = 1;
+
+    private static final int KEY_ID_LENGTH = 4;
+
+    private static final int HEADER_LENGTH = 1 + KEY_ID_LENGTH;
+
+    private static final int IV_LENGTH = 12;
+
+    private static final int TAG_BITS = 128;
+
+    private static final String LOADED_KEY = CookieSessionStore.class.getName() + ".loaded";
+
+    private static final String DELETED_KEY = CookieSessionStore.class.getName() + ".deleted";
+
+    private final SecureRandom random = new SecureRandom();
+
+    private String cookieName = "NABLARCH_SESSION";
+
+    private String cookiePath = "/";
+
+    private boolean cookieSecure;
+
+    private SecretKeyRing keys;
+
+    public CookieSessionStore() {
+        super("cookie");
+    }
+
+    public void setCookieName(String cookieName) {
+        this.cookieName = cookieName;
+    }
+
+    public void setCookiePath(String cookiePath) {
+        this.cookiePath = cookiePath;
+    }
+
+    public void setCookieSecure(boolean cookieSecure) {
+        this.cookieSecure = cookieSecure;
+    }
+
+    /**
+     * 鍵を設定する。
+     *
+     * @param keys Base64で表した鍵。先頭の鍵で暗号化する
+     */
+    public void setKeys(List<String> keys) {
+        this.keys = new SecretKeyRing(keys, "AES", length -> length == 16 || length == 24 || length == 32, "16, 24 or 32 bytes");
+    }
+
+    @Override
+    public List<SessionEntry> load(String sessionId, ExecutionContext executionContext) {
+        String value = Cookies.find((ServletExecutionContext) executionContext, cookieName);
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        Loaded loaded = unseal(sessionId, value, SystemTimeUtil.getDate().getTime());
+        if (loaded == null) {
+            return Collections.emptyList();
+        }
+        executionContext.setRequestScopedVar(LOADED_KEY, loaded);
+        return decode(loaded.entries);
+    }
+
+    @Override
+    public void save(String sessionId, List<SessionEntry> entries, ExecutionContext executionContext) {
+        long now = SystemTimeUtil.getDate().getTime();
+        byte[] encoded = encode(entries);
+        Loaded loaded = executionContext.getRequestScopedVar(LOADED_KEY);
+        if (loaded != null && loaded.keyId == keys.current().id() && loaded.sessionId.equals(sessionId)
+                && loaded.expiresAt - now > getExpiresMilliSeconds() / 2 && Arrays.equals(loaded.entries, encoded)) {
+            return;
+        }
+        String value = seal(sessionId, encoded, now + getExpiresMilliSeconds());
+        if (value.length() > MAX_COOKIE_LENGTH) {
+            logger.logWarn("session cookie is too large. the browser may discard it. length=[" + value.length() + "]");
+        }
+        addCookie((ServletExecutionContext) executionContext, value, (int) (getExpiresMilliSeconds() / 1000));
+    }
+
+    @Override
+    public void delete(String sessionId, ExecutionContext executionContext) {
+        expireCookie((ServletExecutionContext) executionContext);
+    }
+
+    @Override
+    public void invalidate(String sessionId, ExecutionContext executionContext) {
+        expireCookie((ServletExecutionContext) executionContext);
+    }
+
+    /**
+     * セッションの内容を暗号化してクッキーの値にする。
+     */
+    String seal(String sessionId, byte[] entries, long expiresAt) {
+        ByteArrayOutputStream plain = new ByteArrayOutputStream(entries.length + 64);
+        try (DataOutputStream out = new DataOutputStream(plain)) {
+            out.writeLong(expiresAt);
+            out.writeUTF(sessionId);
+            out.write(entries);
+        } catch (IOException e) {
+            throw new EncodeException(e);
+        }
+
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        ByteBuffer sealed = ByteBuffer.allocate(HEADER_LENGTH + IV_LENGTH + plain.size() + TAG_BITS / 8);
+        SecretKeyRing.Key key = keys.current();
+        sealed.put(VERSION).putInt(key.id()).put(iv);
+        try {
+            Cipher cipher = cipher(Cipher.ENCRYPT_MODE, key, iv);
+            cipher.updateAAD(sealed.array(), 0, HEADER_LENGTH);
+            cipher.doFinal(ByteBuffer.wrap(plain.toByteArray()), sealed);
+        } catch (GeneralSecurityException e) {
+            throw new EncodeException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sealed.array());
+    }
+
+    /**
+     * クッキーの値を復号する。
+     *
+     * @return 復号した内容。改ざん、未知の鍵、期限切れ、セッションIDの不一致の場合はnull
+     */
+    Loaded unseal(String sessionId, String value, long now) {
+        byte[] sealed;
+        try {
+            sealed = Base64.getUrlDecoder().decode(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (sealed.length < HEADER_LENGTH + IV_LENGTH + TAG_BITS / 8 || sealed[0] != VERSION) {
+            return null;
+        }
+        int keyId = ByteBuffer.wrap(sealed, 1, KEY_ID_LENGTH).getInt();
+        SecretKeyRing.Key key = keys.get(keyId);
+        if (key == null) {
+            return null;
+        }
+        byte[] plain;
+        try {
+            Cipher cipher = cipher(Cipher.DECRYPT_MODE, key, Arrays.copyOfRange(sealed, HEADER_LENGTH, HEADER_LENGTH + IV_LENGTH));
+            cipher.updateAAD(sealed, 0, HEADER_LENGTH);
+            plain = cipher.doFinal(sealed, HEADER_LENGTH + IV_LENGTH, sealed.length - HEADER_LENGTH - IV_LENGTH);
+        } catch (GeneralSecurityException e) {
+            logger.logDebug("session cookie is invalid. " + e);
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(plain))) {
+            long expiresAt = in.readLong();
+            String sessionIdInCookie = in.readUTF();
+            if (expiresAt < now || !sessionIdInCookie.equals(sessionId)) {
+                return null;
+            }
+            byte[] entries = new byte[in.available()];
+            in.readFully(entries);
+            return new Loaded(keyId, sessionIdInCookie, expiresAt, entries);
+        } catch (IOException e) {
+            throw new EncodeException(e);
+        }
+    }
+
+    private static Cipher cipher(int mode, SecretKeyRing.Key key, byte[] iv) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(mode, key.spec(), new GCMParameterSpec(TAG_BITS, iv));
+        return cipher;
+    }
+
+    private void expireCookie(ServletExecutionContext context) {
+        // 削除のSet-Cookieは、クッキーを受け取ったリクエストで1回だけ返す
+        if (context.getRequestScopedVar(DELETED_KEY) != null || Cookies.find(context, cookieName) == null) {
+            return;
+        }
+        context.setRequestScopedVar(DELETED_KEY, Boolean.TRUE);
+        context.getRequestScopeMap().remove(LOADED_KEY);
+        addCookie(context, "", 0);
+    }
+
+    private void addCookie(ServletExecutionContext context, String value, int maxAge) {
+        Cookie cookie = new Cookie(cookieName, value);
+        cookie.setPath(cookiePath);
+        cookie.setMaxAge(maxAge);
+        cookie.setHttpOnly(true);
+        cookie.setSecure(cookieSecure);
+        context.getServletResponse().addCookie(cookie);
+    }
+
+    /**
+     * 復号したクッキーの内容。
+     */
+    static final class Loaded {
+
+        final int keyId;
+
+        final String sessionId;
+
+        final long expiresAt;
+
+        final byte[] entries;
+
+        Loaded(int keyId, String sessionId, long expiresAt, byte[] entries) {
+            this.keyId = keyId;
+            this.sessionId = sessionId;
+            this.expiresAt = expiresAt;
+            this.entries = entries;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.system.nablarch;
+
+import nablarch.fw.web.servlet.ServletExecutionContext;
+
+import javax.servlet.http.Cookie;
+
+/**
+ * リクエストのクッキーを扱うユーティリティ。
+ */
+public final class Cookies {
+
+    private Cookies() {
+    }
+
+    /**
+     * リクエストから指定した名前のクッキーの値を取得する。
+     *
+     * @return クッキーの値。ない場合はnull
+     */
+    public static String find(ServletExecutionContext context, String name) {
+        Cookie[] cookies = context.getServletRequest().getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (name.equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+}
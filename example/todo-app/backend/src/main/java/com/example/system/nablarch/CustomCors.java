@@ -3,9 +3,47 @@ package com.example.system.nablarch;
 import nablarch.fw.ExecutionContext;
 import nablarch.fw.jaxrs.cors.BasicCors;
 import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpResponse;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * プリフライトリクエストの判定と、CORSのレスポンスヘッダの設定を行う{@link BasicCors}。
+ *
+ * プリフライトリクエストは、更新系のリクエストの前にほぼ毎回送られるため、次のようにして処理を軽くする。
+ * <ul>
+ *   <li>Access-Control-Request-Headersがないリクエストもプリフライトリクエストとして扱う（カスタムヘッダを送らない場合にブラウザは付けない）</li>
+ *   <li>許可するオリジンごとに、返すヘッダを設定時に作成しておき、リクエストごとにはオリジンで引くだけにする</li>
+ *   <li>maxAgeを設定し、ブラウザにプリフライトの結果をキャッシュさせる</li>
+ * </ul>
+ * プリフライトリクエストは、セッションやデータベースを使うハンドラより前のCorsPreflightRequestHandlerで応答する。
+ */
 public class CustomCors extends BasicCors {
 
+    private List<String> allowOrigins = Collections.emptyList();
+
+    private List<String> allowMethods = Arrays.asList("OPTIONS", "GET", "POST", "PUT", "DELETE", "PATCH");
+
+    private List<String> allowHeaders = Arrays.asList("Content-Type", "X-CSRF-TOKEN");
+
+    private List<String> exposeHeaders = Collections.emptyList();
+
+    private long maxAge = -1L;
+
+    private boolean allowCredentials = true;
+
+    /** 許可するオリジンごとの、プリフライトリクエストに返すヘッダ */
+    private Map<String, Map<String, String>> preflightHeaders = Collections.emptyMap();
+
+    /** 許可するオリジンごとの、プリフライトリクエスト以外のレスポンスに付けるヘッダ */
+    private Map<String, Map<String, String>> responseHeaders = Collections.emptyMap();
+
     @Override
     public boolean isPreflightRequest(HttpRequest request, ExecutionContext context) {
         return request.getMethod().equals("OPTIONS") &&
@@ -14,8 +52,114 @@ public class CustomCors extends BasicCors {
 
     }
 
+    @Override
+    public HttpResponse createPreflightResponse(HttpRequest request, ExecutionContext context) {
+        HttpResponse response = new HttpResponse(HttpResponse.Status.NO_CONTENT.getStatusCode());
+        // 許可しないオリジンには、CORSのヘッダを返さずにブラウザで拒否させる
+        Map<String, String> headers = lookup(preflightHeaders, request);
+        if (headers != null) {
+            headers.forEach(response::setHeader);
+        }
+        return response;
+    }
+
+    @Override
+    public void postProcess(HttpRequest request, HttpResponse response, ExecutionContext context) {
+        Map<String, String> headers = lookup(responseHeaders, request);
+        if (headers != null) {
+            headers.forEach(response::setHeader);
+        }
+    }
+
+    private static Map<String, String> lookup(Map<String, Map<String, String>> headersByOrigin, HttpRequest request) {
+        // 不変のMapはnullのキーで検索できないため、Originがないリクエストは先に除く
+        String origin = request.getHeader(Headers.ORIGIN);
+        return origin != null ? headersByOrigin.get(origin) : null;
+    }
+
+    @Override
+    public void setAllowOrigins(List<String> allowOrigins) {
+        super.setAllowOrigins(allowOrigins);
+        this.allowOrigins = allowOrigins;
+        prepareHeaders();
+    }
+
+    @Override
+    public void setAllowMethods(List<String> allowMethods) {
+        super.setAllowMethods(allowMethods);
+        this.allowMethods = allowMethods;
+        prepareHeaders();
+    }
+
+    @Override
+    public void setAllowHeaders(List<String> allowHeaders) {
+        super.setAllowHeaders(allowHeaders);
+        this.allowHeaders = allowHeaders;
+        prepareHeaders();
+    }
+
+    @Override
+    public void setMaxAge(long maxAge) {
+        super.setMaxAge(maxAge);
+        this.maxAge = maxAge;
+        prepareHeaders();
+    }
+
+    @Override
+    public void setAllowCredentials(boolean allowCredentials) {
+        super.setAllowCredentials(allowCredentials);
+        this.allowCredentials = allowCredentials;
+        prepareHeaders();
+    }
+
+    public void setExposeHeaders(List<String> exposeHeaders) {
+        this.exposeHeaders = exposeHeaders;
+        prepareHeaders();
+    }
+
+    /**
+     * 設定値から、オリジンごとに返すヘッダを作成する。設定はコンポーネントの生成時にしか変わらないため、設定のたびに作り直す。
+     */
+    private void prepareHeaders() {
+        preflightHeaders = allowOrigins.stream().distinct()
+                .collect(Collectors.toUnmodifiableMap(Function.identity(), this::createPreflightHeaders));
+        responseHeaders = allowOrigins.stream().distinct()
+                .collect(Collectors.toUnmodifiableMap(Function.identity(), this::createResponseHeaders));
+    }
+
+    private Map<String, String> createPreflightHeaders(String origin) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put(Headers.ACCESS_CONTROL_ALLOW_METHODS, String.join(", ", allowMethods));
+        headers.put(Headers.ACCESS_CONTROL_ALLOW_HEADERS, String.join(", ", allowHeaders));
+        if (maxAge >= 0) {
+            headers.put(Headers.ACCESS_CONTROL_MAX_AGE, String.valueOf(maxAge));
+        }
+        headers.putAll(createResponseHeaders(origin));
+        return Collections.unmodifiableMap(headers);
+    }
+
+    private Map<String, String> createResponseHeaders(String origin) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put(Headers.ACCESS_CONTROL_ALLOW_ORIGIN, origin);
+        headers.put(Headers.VARY, Headers.ORIGIN);
+        if (allowCredentials) {
+            headers.put(Headers.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
+        }
+        if (!exposeHeaders.isEmpty()) {
+            headers.put(Headers.ACCESS_CONTROL_EXPOSE_HEADERS, String.join(", ", exposeHeaders));
+        }
+        return Collections.unmodifiableMap(headers);
+    }
+
     private static final class Headers {
         static final String ORIGIN = "Origin";
+        static final String VARY = "Vary";
         static final String ACCESS_CONTROL_REQUEST_METHOD = "Access-Control-Request-Method";
+        static final String ACCESS_CONTROL_ALLOW_ORIGIN = "Access-Control-Allow-Origin";
+        static final String ACCESS_CONTROL_ALLOW_METHODS = "Access-Control-Allow-Methods";
+        static final String ACCESS_CONTROL_ALLOW_HEADERS = "Access-Control-Allow-Headers";
+        static final String ACCESS_CONTROL_ALLOW_CREDENTIALS = "Access-Control-Allow-Credentials";
+        static final String ACCESS_CONTROL_MAX_AGE = "Access-Control-Max-Age";
+        static final String ACCESS_CONTROL_EXPOSE_HEADERS = "Access-Control-Expose-Headers";
     }
 }
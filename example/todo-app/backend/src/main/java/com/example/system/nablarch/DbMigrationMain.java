@@ -0,0 +1,40 @@
+package com.example.system.nablarch;
+
+import nablarch.core.repository.SystemRepository;
+import nablarch.core.repository.di.DiContainer;
+import nablarch.core.repository.di.config.externalize.ExternalizedComponentDefinitionLoader;
+import nablarch.core.repository.di.config.externalize.SystemPropertyExternalizedLoader;
+import nablarch.core.repository.di.config.xml.XmlComponentDefinitionLoader;
+
+/**
+ * マイグレーションだけを行って終了する。
+ *
+ * バックエンドを複数台で起動する場合に、デプロイの前にこのクラスで1回だけマイグレーションを行い、
+ * バックエンドはflyway.enabledをfalseにして起動することで、起動のたびにFlywayのロックを待たないようにする。
+ * flyway.enabledの値に関わらずマイグレーションを行う（参照用データベースはnablarch.db.replica.migrateがtrueの場合のみ）。
+ */
+public final class DbMigrationMain {
+
+    private DbMigrationMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        // アノテーションを付けたコンポーネント（アクションなど）は不要なため、システムプロパティによる設定値の上書きだけを行う
+        SystemRepository.load(new DiContainer(new XmlComponentDefinitionLoader("db-migration-boot.xml")) {
+            @Override
+            protected ExternalizedComponentDefinitionLoader loadExternalizedComponentDefinitionLoader() {
+                return new SystemPropertyExternalizedLoader();
+            }
+        });
+        FlywayExecutor dbMigration = SystemRepository.get("dbMigration");
+        dbMigration.migrate();
+        FlywayExecutor replicaDbMigration = SystemRepository.get("replicaDbMigration");
+        if (replicaDbMigration.isEnabled()) {
+            replicaDbMigration.migrate();
+        }
+        for (String name : new String[] {"dataSource", "replicaDataSource"}) {
+            AutoCloseable dataSource = SystemRepository.get(name);
+            dataSource.close();
+        }
+    }
+}
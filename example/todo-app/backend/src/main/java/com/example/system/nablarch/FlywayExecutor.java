@@ -1,5 +1,7 @@
 package com.example.system.nablarch;
 
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
 import nablarch.core.repository.initialization.Initializable;
 import org.flywaydb.core.Flyway;
 import org.flywaydb.core.api.Location;
@@ -18,15 +20,27 @@ import java.util.Arrays;
  * Flywayはデータベースのロックを利用することで並列実行時に競合が起きないようになっている。
  * https://flywaydb.org/documentation/faq#parallel
  * そのため、バックエンドがスケールアウトしたとしても安全にマイグレーションが行える。
+ *
+ * fastStartがtrueの場合は、{@link MigrationManifest}とスキーマ履歴テーブルを比較し、
+ * 適用していないマイグレーションがなければFlywayを実行しない（cleanBeforeMigrateがtrueの場合は常に実行する）。
+ * 起動時のマイグレーションを行わず、{@link DbMigrationMain}で事前にマイグレーションしておくこともできる。
  */
 public class FlywayExecutor implements Initializable {
 
+    private static final Logger logger = LoggerManager.get(FlywayExecutor.class);
+
     private DataSource dataSource;
 
     private String[] locations;
 
     private boolean cleanBeforeMigrate;
 
+    private boolean enabled = true;
+
+    private boolean fastStart;
+
+    private String manifest = "db/migration-manifest.properties";
+
     public DataSource getDataSource() {
         return dataSource;
     }
@@ -51,11 +65,62 @@ public class FlywayExecutor implements Initializable {
         this.cleanBeforeMigrate = cleanBeforeMigrate;
     }
 
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 起動時にマイグレーションを行うかを設定する。デフォルトはtrue。
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isFastStart() {
+        return fastStart;
+    }
+
+    /**
+     * マニフェストとスキーマ履歴テーブルが一致する場合に、Flywayの実行を省略するかを設定する。デフォルトはfalse。
+     */
+    public void setFastStart(boolean fastStart) {
+        this.fastStart = fastStart;
+    }
+
+    public String getManifest() {
+        return manifest;
+    }
+
+    /**
+     * マニフェストのリソース名を設定する。デフォルトはdb/migration-manifest.properties。
+     */
+    public void setManifest(String manifest) {
+        this.manifest = manifest;
+    }
+
     @Override
     public void initialize() {
+        if (enabled) {
+            migrate();
+        }
+    }
+
+    /**
+     * 設定に従ってマイグレーションを行う。
+     */
+    public void migrate() {
+        if (!cleanBeforeMigrate && fastStart && isUpToDate()) {
+            logger.logInfo("Skipped database migration because schema history matches manifest. manifest=[" + manifest + "]");
+            return;
+        }
         migrate(cleanBeforeMigrate);
     }
 
+    private boolean isUpToDate() {
+        MigrationManifest migrationManifest = MigrationManifest.load(manifest);
+        return migrationManifest != null && migrationManifest.isApplied(dataSource);
+    }
+
     public void migrate(boolean forceCleanBeforeMigrate) {
         ClassicConfiguration configuration = new ClassicConfiguration();
         configuration.setDataSource(dataSource);
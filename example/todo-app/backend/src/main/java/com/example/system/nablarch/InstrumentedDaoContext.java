@@ -0,0 +1,160 @@
+package com.example.system.nablarch;
+
+import com.example.system.metrics.SqlMetrics;
+import com.example.system.metrics.StatementMetrics;
+import nablarch.common.dao.DaoContext;
+import nablarch.common.dao.EntityList;
+import nablarch.common.dao.NoDataException;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * SQLの実行時間、行数、エラーの有無を{@link SqlMetrics}に記録し、処理を委譲先に任せる{@link DaoContext}。
+ *
+ * 行数は、検索では取得した行数、更新では更新した行数（一括処理ではエンティティの数）とする。
+ * 遅延ロード（{@link #defer()}）の検索では、行を読み込む前に処理が戻るため、行数は0として記録する。
+ * {@link NoDataException}はデータがなかったことを表すため、エラーとしては記録しない。
+ */
+public class InstrumentedDaoContext implements DaoContext {
+
+    private final DaoContext delegate;
+
+    private final SqlMetrics sqlMetrics;
+
+    private boolean deferred;
+
+    public InstrumentedDaoContext(DaoContext delegate, SqlMetrics sqlMetrics) {
+        this.delegate = delegate;
+        this.sqlMetrics = sqlMetrics;
+    }
+
+    @Override
+    public <T> T findById(Class<T> entityClass, Object... id) {
+        return measure(entityClass, "findById", () -> delegate.findById(entityClass, id), result -> 1, true);
+    }
+
+    @Override
+    public <T> EntityList<T> findAll(Class<T> entityClass) {
+        return measure(entityClass, "findAll", () -> delegate.findAll(entityClass), this::rows, false);
+    }
+
+    @Override
+    public <T> EntityList<T> findAllBySqlFile(Class<T> entityClass, String sqlId, Object params) {
+        return measure(entityClass, sqlId, () -> delegate.findAllBySqlFile(entityClass, sqlId, params), this::rows, false);
+    }
+
+    @Override
+    public <T> EntityList<T> findAllBySqlFile(Class<T> entityClass, String sqlId) {
+        return measure(entityClass, sqlId, () -> delegate.findAllBySqlFile(entityClass, sqlId), this::rows, false);
+    }
+
+    @Override
+    public <T> T findBySqlFile(Class<T> entityClass, String sqlId, Object params) {
+        return measure(entityClass, sqlId, () -> delegate.findBySqlFile(entityClass, sqlId, params), result -> 1, true);
+    }
+
+    @Override
+    public <T> long countBySqlFile(Class<T> entityClass, String sqlId, Object params) {
+        return measure(entityClass, sqlId, () -> delegate.countBySqlFile(entityClass, sqlId, params), result -> 1, false);
+    }
+
+    @Override
+    public <T> int update(T entity) {
+        return measure(entity.getClass(), "update", () -> delegate.update(entity), Integer::longValue, false);
+    }
+
+    @Override
+    public <T> void batchUpdate(List<T> entities) {
+        measureBatch(entities, "batchUpdate", () -> delegate.batchUpdate(entities));
+    }
+
+    @Override
+    public <T> void insert(T entity) {
+        measure(entity.getClass(), "insert", () -> {
+            delegate.insert(entity);
+            return null;
+        }, result -> 1, false);
+    }
+
+    @Override
+    public <T> void batchInsert(List<T> entities) {
+        measureBatch(entities, "batchInsert", () -> delegate.batchInsert(entities));
+    }
+
+    @Override
+    public <T> int delete(T entity) {
+        return measure(entity.getClass(), "delete", () -> delegate.delete(entity), Integer::longValue, false);
+    }
+
+    @Override
+    public <T> void batchDelete(List<T> entities) {
+        measureBatch(entities, "batchDelete", () -> delegate.batchDelete(entities));
+    }
+
+    @Override
+    public DaoContext page(long page) {
+        delegate.page(page);
+        return this;
+    }
+
+    @Override
+    public DaoContext per(long per) {
+        delegate.per(per);
+        return this;
+    }
+
+    @Override
+    public DaoContext defer() {
+        delegate.defer();
+        deferred = true;
+        return this;
+    }
+
+    /**
+     * 委譲先の処理を実行し、実行時間、行数、エラーの有無を記録する。
+     *
+     * @param entityClass エンティティのクラス
+     * @param sqlId SQL ID（SQLファイルを使わない処理ではメソッド名）
+     * @param call 委譲先の処理
+     * @param rows 処理の結果から行数を求める関数
+     * @param noDataIsSuccess {@link NoDataException}をエラーとして記録しない場合はtrue
+     * @return 委譲先の処理の結果
+     */
+    private <R> R measure(Class<?> entityClass, String sqlId, Supplier<R> call, ToLongFunction<R> rows, boolean noDataIsSuccess) {
+        StatementMetrics statement = sqlMetrics.statement(entityClass, sqlId);
+        long start = System.nanoTime();
+        long count = 0;
+        boolean failed = true;
+        try {
+            R result = call.get();
+            count = rows.applyAsLong(result);
+            failed = false;
+            return result;
+        } catch (NoDataException e) {
+            failed = !noDataIsSuccess;
+            throw e;
+        } finally {
+            sqlMetrics.record(statement, System.nanoTime() - start, count, failed);
+        }
+    }
+
+    /**
+     * 一括処理を実行して記録する。エンティティがない場合はSQLを実行しないため記録しない。
+     */
+    private <T> void measureBatch(List<T> entities, String sqlId, Runnable call) {
+        if (entities.isEmpty()) {
+            call.run();
+            return;
+        }
+        measure(entities.get(0).getClass(), sqlId, () -> {
+            call.run();
+            return null;
+        }, result -> entities.size(), false);
+    }
+
+    private long rows(EntityList<?> result) {
+        return deferred ? 0 : result.size();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.system.nablarch;
+
+import com.example.system.metrics.SqlMetrics;
+import nablarch.common.dao.BasicDaoContextFactory;
+import nablarch.common.dao.DaoContext;
+
+/**
+ * ユニバーサルDAOが実行するSQLを{@link SqlMetrics}に記録する{@link DaoContext}を作る。
+ *
+ * ユニバーサルDAOは"daoContextFactory"という名前のコンポーネントを使うため、その名前で定義すること。
+ */
+public class InstrumentedDaoContextFactory extends BasicDaoContextFactory {
+
+    private SqlMetrics sqlMetrics;
+
+    public void setSqlMetrics(SqlMetrics sqlMetrics) {
+        this.sqlMetrics = sqlMetrics;
+    }
+
+    @Override
+    public DaoContext create() {
+        return new InstrumentedDaoContext(super.create(), sqlMetrics);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.system.nablarch;
+
+import nablarch.core.db.connection.ConnectionFactory;
+import nablarch.core.db.connection.TransactionManagerConnection;
+
+/**
+ * データベースを使うまでコネクションプールから接続を借りない{@link LazyTransactionManagerConnection}を作る。
+ *
+ * DbConnectionManagementHandlerに設定すると、データベースを使わないリクエスト
+ * （CSRFトークンの取得、ログアウト、ログインチェックでの拒否など）では接続を取得しない。
+ * トランザクションの開始も遅らせるため、TransactionManagementHandlerには{@link LazyTransactionFactory}を設定すること。
+ */
+public class LazyConnectionFactory implements ConnectionFactory {
+
+    private ConnectionFactory connectionFactory;
+
+    public void setConnectionFactory(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    public TransactionManagerConnection getConnection(String connectionName) {
+        return new LazyTransactionManagerConnection(connectionFactory, connectionName);
+    }
+}
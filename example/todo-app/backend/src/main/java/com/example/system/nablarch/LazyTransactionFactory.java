@@ -0,0 +1,84 @@
+package com.example.system.nablarch;
+
+import nablarch.core.db.connection.AppDbConnection;
+import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.transaction.Transaction;
+import nablarch.core.transaction.TransactionFactory;
+
+/**
+ * データベース接続が{@link LazyTransactionManagerConnection}で、まだ取得していない場合に、
+ * 取得するまでトランザクションの開始を遅らせる{@link Transaction}を作る。
+ *
+ * 開始していないトランザクションのコミットとロールバックは何もしない。
+ */
+public class LazyTransactionFactory implements TransactionFactory {
+
+    private TransactionFactory transactionFactory;
+
+    public void setTransactionFactory(TransactionFactory transactionFactory) {
+        this.transactionFactory = transactionFactory;
+    }
+
+    @Override
+    public Transaction getTransaction(String connectionName) {
+        return new LazyTransaction(connectionName, transactionFactory.getTransaction(connectionName));
+    }
+
+    private static class LazyTransaction implements Transaction {
+
+        private final String connectionName;
+
+        private final Transaction delegate;
+
+        private LazyTransactionManagerConnection pending;
+
+        private boolean begun;
+
+        LazyTransaction(String connectionName, Transaction delegate) {
+            this.connectionName = connectionName;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void begin() {
+            AppDbConnection connection = DbConnectionContext.getConnection(connectionName);
+            if (connection instanceof LazyTransactionManagerConnection
+                    && !((LazyTransactionManagerConnection) connection).isAcquired()) {
+                pending = (LazyTransactionManagerConnection) connection;
+                pending.beginOnAcquire(this::beginNow);
+                return;
+            }
+            beginNow();
+        }
+
+        private void beginNow() {
+            pending = null;
+            delegate.begin();
+            begun = true;
+        }
+
+        @Override
+        public void commit() {
+            if (begun) {
+                delegate.commit();
+            }
+            end();
+        }
+
+        @Override
+        public void rollback() {
+            if (begun) {
+                delegate.rollback();
+            }
+            end();
+        }
+
+        private void end() {
+            begun = false;
+            if (pending != null) {
+                pending.beginOnAcquire(null);
+                pending = null;
+            }
+        }
+    }
+}
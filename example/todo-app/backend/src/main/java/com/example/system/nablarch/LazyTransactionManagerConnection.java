@@ -0,0 +1,207 @@
+package com.example.system.nablarch;
+
+import nablarch.core.db.connection.ConnectionFactory;
+import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.db.dialect.Dialect;
+import nablarch.core.db.statement.ParameterizedSqlPStatement;
+import nablarch.core.db.statement.SelectOption;
+import nablarch.core.db.statement.SqlCStatement;
+import nablarch.core.db.statement.SqlPStatement;
+import nablarch.core.db.statement.SqlStatement;
+import nablarch.core.db.transaction.JdbcTransactionTimeoutHandler;
+
+import java.sql.Connection;
+
+/**
+ * 最初に使われたときに委譲先のファクトリからデータベース接続を取得する{@link TransactionManagerConnection}。
+ *
+ * 取得するまでは、コミット、ロールバック、終了処理は何もしない。
+ * {@link #beginOnAcquire(Runnable)}で指定した処理（トランザクションの開始）は、取得した直後に実行する。
+ */
+public class LazyTransactionManagerConnection implements TransactionManagerConnection {
+
+    private final ConnectionFactory connectionFactory;
+
+    private final String connectionName;
+
+    private TransactionManagerConnection delegate;
+
+    private Runnable beginAction;
+
+    public LazyTransactionManagerConnection(ConnectionFactory connectionFactory, String connectionName) {
+        this.connectionFactory = connectionFactory;
+        this.connectionName = connectionName;
+    }
+
+    public boolean isAcquired() {
+        return delegate != null;
+    }
+
+    /**
+     * データベース接続を取得した直後に実行する処理を設定する。
+     *
+     * @param beginAction 実行する処理。nullの場合は設定を解除する
+     */
+    public void beginOnAcquire(Runnable beginAction) {
+        this.beginAction = beginAction;
+    }
+
+    private TransactionManagerConnection delegate() {
+        if (delegate == null) {
+            delegate = connectionFactory.getConnection(connectionName);
+            Runnable action = beginAction;
+            beginAction = null;
+            if (action != null) {
+                action.run();
+            }
+        }
+        return delegate;
+    }
+
+    @Override
+    public void initialize() {
+        delegate().initialize();
+    }
+
+    @Override
+    public void commit() {
+        if (delegate != null) {
+            delegate.commit();
+        }
+    }
+
+    @Override
+    public void rollback() {
+        if (delegate != null) {
+            delegate.rollback();
+        }
+    }
+
+    @Override
+    public void terminate() {
+        beginAction = null;
+        if (delegate != null) {
+            delegate.terminate();
+        }
+    }
+
+    @Override
+    public void setIsolationLevel(int level) {
+        delegate().setIsolationLevel(level);
+    }
+
+    @Override
+    public void setJdbcTransactionTimeoutHandler(JdbcTransactionTimeoutHandler jdbcTransactionTimeoutHandler) {
+        delegate().setJdbcTransactionTimeoutHandler(jdbcTransactionTimeoutHandler);
+    }
+
+    @Override
+    public Connection getConnection() {
+        return delegate().getConnection();
+    }
+
+    @Override
+    public Dialect getDialect() {
+        return delegate().getDialect();
+    }
+
+    @Override
+    public void removeStatement(SqlStatement statement) {
+        delegate().removeStatement(statement);
+    }
+
+    @Override
+    public SqlPStatement prepareStatement(String sql) {
+        return delegate().prepareStatement(sql);
+    }
+
+    @Override
+    public SqlPStatement prepareStatement(String sql, SelectOption selectOption) {
+        return delegate().prepareStatement(sql, selectOption);
+    }
+
+    @Override
+    public SqlPStatement prepareStatement(String sql, int autoGeneratedKeys) {
+        return delegate().prepareStatement(sql, autoGeneratedKeys);
+    }
+
+    @Override
+    public SqlPStatement prepareStatement(String sql, int[] columnIndexes) {
+        return delegate().prepareStatement(sql, columnIndexes);
+    }
+
+    @Override
+    public SqlPStatement prepareStatement(String sql, String[] columnNames) {
+        return delegate().prepareStatement(sql, columnNames);
+    }
+
+    @Override
+    public SqlPStatement prepareStatementBySqlId(String sqlId) {
+        return delegate().prepareStatementBySqlId(sqlId);
+    }
+
+    @Override
+    public SqlPStatement prepareStatementBySqlId(String sqlId, SelectOption selectOption) {
+        return delegate().prepareStatementBySqlId(sqlId, selectOption);
+    }
+
+    @Override
+    public ParameterizedSqlPStatement prepareParameterizedSqlStatement(String sql) {
+        return delegate().prepareParameterizedSqlStatement(sql);
+    }
+
+    @Override
+    public ParameterizedSqlPStatement prepareParameterizedSqlStatement(String sql, SelectOption selectOption) {
+        return delegate().prepareParameterizedSqlStatement(sql, selectOption);
+    }
+
+    @Override
+    public ParameterizedSqlPStatement prepareParameterizedSqlStatementBySqlId(String sqlId) {
+        return delegate().prepareParameterizedSqlStatementBySqlId(sqlId);
+    }
+
+    @Override
+    public ParameterizedSqlPStatement prepareParameterizedSqlStatementBySqlId(String sqlId, SelectOption selectOption) {
+        return delegate().prepareParameterizedSqlStatementBySqlId(sqlId, selectOption);
+    }
+
+    @Override
+    public ParameterizedSqlPStatement prepareParameterizedSqlStatement(String sql, Object condition) {
+        return delegate().prepareParameterizedSqlStatement(sql, condition);
+    }
+
+    @Override
+    public ParameterizedSqlPStatement prepareParameterizedSqlStatement(String sql, Object condition, SelectOption selectOption) {
+        return delegate().prepareParameterizedSqlStatement(sql, condition, selectOption);
+    }
+
+    @Override
+    public ParameterizedSqlPStatement prepareParameterizedSqlStatementBySqlId(String sqlId, Object condition) {
+        return delegate().prepareParameterizedSqlStatementBySqlId(sqlId, condition);
+    }
+
+    @Override
+    public ParameterizedSqlPStatement prepareParameterizedSqlStatementBySqlId(String sqlId, Object condition, SelectOption selectOption) {
+        return delegate().prepareParameterizedSqlStatementBySqlId(sqlId, condition, selectOption);
+    }
+
+    @Override
+    public ParameterizedSqlPStatement prepareParameterizedCountSqlStatementBySqlId(String sqlId, Object condition) {
+        return delegate().prepareParameterizedCountSqlStatementBySqlId(sqlId, condition);
+    }
+
+    @Override
+    public SqlPStatement prepareCountStatementBySqlId(String sqlId) {
+        return delegate().prepareCountStatementBySqlId(sqlId);
+    }
+
+    @Override
+    public SqlCStatement prepareCall(String sql) {
+        return delegate().prepareCall(sql);
+    }
+
+    @Override
+    public SqlCStatement prepareCallBySqlId(String sqlId) {
+        return delegate().prepareCallBySqlId(sqlId);
+    }
+}
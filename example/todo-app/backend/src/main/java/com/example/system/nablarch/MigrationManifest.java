@@ -0,0 +1,158 @@
+package com.example.system.nablarch;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * マイグレーション用のSQLファイルのバージョンとチェックサムの一覧（マニフェスト）。
+ *
+ * Flywayと同じ方法で計算したチェックサムを、src/main/resources/db/migration-manifest.propertiesに出力しておき、
+ * 起動時にFlywayのスキーマ履歴テーブルと1回の問い合わせで比較する。
+ * 一致する場合は適用していないマイグレーションがないため、Flywayによるファイルの走査とロックの取得を省略できる。
+ *
+ * マイグレーション用のSQLファイルを追加、変更した場合は、{@link #main}でマニフェストを作り直すこと
+ * （作り直していない場合はMigrationManifestTestが失敗する）。
+ * 繰り返し実行するマイグレーション（R__）は履歴のバージョンがないため比較できず、マニフェストには含められない。
+ */
+public class MigrationManifest {
+
+    private static final Pattern VERSIONED_MIGRATION = Pattern.compile("V([0-9_.]+)__.+\\.sql");
+
+    private static final String SCHEMA_HISTORY_QUERY =
+            "SELECT version, checksum FROM flyway_schema_history WHERE version IS NOT NULL AND success";
+
+    private final Map<String, Integer> checksums;
+
+    public MigrationManifest(Map<String, Integer> checksums) {
+        this.checksums = Collections.unmodifiableMap(new TreeMap<>(checksums));
+    }
+
+    public Map<String, Integer> getChecksums() {
+        return checksums;
+    }
+
+    /**
+     * クラスパスからマニフェストを読み込む。
+     *
+     * @param resourceName マニフェストのリソース名
+     * @return マニフェスト。見つからない場合はnull
+     */
+    public static MigrationManifest load(String resourceName) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        try (InputStream in = classLoader.getResourceAsStream(resourceName)) {
+            if (in == null) {
+                return null;
+            }
+            Properties properties = new Properties();
+            properties.load(in);
+            Map<String, Integer> checksums = new HashMap<>();
+            properties.stringPropertyNames().forEach(version -> checksums.put(version, Integer.valueOf(properties.getProperty(version))));
+            return new MigrationManifest(checksums);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * ディレクトリ内のマイグレーション用のSQLファイルからマニフェストを作成する。
+     */
+    public static MigrationManifest scan(Path directory) throws IOException {
+        Map<String, Integer> checksums = new HashMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String fileName = file.getFileName().toString();
+                if (fileName.startsWith("R__")) {
+                    throw new IllegalStateException("repeatable migration is not supported. file=[" + file + "]");
+                }
+                Matcher matcher = VERSIONED_MIGRATION.matcher(fileName);
+                if (matcher.matches()) {
+                    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                        checksums.put(matcher.group(1).replace('_', '.'), checksum(reader));
+                    }
+                }
+            }
+        }
+        return new MigrationManifest(checksums);
+    }
+
+    /**
+     * Flywayと同じ方法でチェックサムを計算する（BOMと改行を除いた各行をUTF-8でCRC32に加える）。
+     */
+    static int checksum(Reader reader) throws IOException {
+        CRC32 crc32 = new CRC32();
+        BufferedReader bufferedReader = new BufferedReader(reader);
+        String line = bufferedReader.readLine();
+        if (line != null && line.startsWith("\uFEFF")) {
+            line = line.substring(1);
+        }
+        while (line != null) {
+            crc32.update(line.getBytes(StandardCharsets.UTF_8));
+            line = bufferedReader.readLine();
+        }
+        return (int) crc32.getValue();
+    }
+
+    /**
+     * スキーマ履歴テーブルに記録されたバージョンとチェックサムが、マニフェストと一致するかを判定する。
+     * スキーマ履歴テーブルがない場合は一致しないものとする。
+     *
+     * @param dataSource データソース
+     * @return 一致する場合はtrue
+     */
+    public boolean isApplied(DataSource dataSource) {
+        Map<String, Integer> applied = new HashMap<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SCHEMA_HISTORY_QUERY);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                int checksum = resultSet.getInt(2);
+                applied.put(resultSet.getString(1), resultSet.wasNull() ? null : checksum);
+            }
+        } catch (SQLException e) {
+            return false;
+        }
+        return applied.equals(checksums);
+    }
+
+    private void write(Writer writer) throws IOException {
+        writer.write("# MigrationManifestで作成したファイルのため、直接編集しないこと\n");
+        for (Map.Entry<String, Integer> entry : checksums.entrySet()) {
+            writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+        }
+    }
+
+    /**
+     * マニフェストを作成する。backendディレクトリで実行する。
+     *
+     * @param args 1つ目はSQLファイルのディレクトリ、2つ目は出力するファイル（省略時はsrc/main/resources配下）
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "src/main/resources/db/migration");
+        Path output = Paths.get(args.length > 1 ? args[1] : "src/main/resources/db/migration-manifest.properties");
+        try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            scan(directory).write(writer);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.system.nablarch;
+
+import nablarch.common.web.session.SessionEntry;
+import nablarch.common.web.session.SessionStore;
+import nablarch.core.date.SystemTimeUtil;
+import nablarch.core.db.connection.AppDbConnection;
+import nablarch.core.db.statement.SqlPStatement;
+import nablarch.core.db.statement.SqlResultSet;
+import nablarch.core.db.statement.SqlRow;
+import nablarch.core.db.transaction.SimpleDbTransactionExecutor;
+import nablarch.core.db.transaction.SimpleDbTransactionManager;
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+import nablarch.core.repository.disposal.Disposable;
+import nablarch.core.repository.initialization.Initializable;
+import nablarch.fw.ExecutionContext;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * セッションの内容をデータベース（user_sessionテーブル）に保存し、プロセス内にもキャッシュするセッションストア。
+ *
+ * 標準のDbStoreはリクエストごとにセッションの読み込みと有効期限の更新を行うが、このストアでは次のようにデータベースへのアクセスを減らす。
+ * <ul>
+ *   <li>読み込み：データベースから読み込むか保存してからfreshMillisの間は、キャッシュした内容を使う</li>
+ *   <li>保存：内容が変わっていない場合、有効期限の延長はtouchIntervalMillisに1回だけ行う</li>
+ *   <li>期限切れの削除：cleanupIntervalMillisごとにバックグラウンドで、cleanupBatchSize件ずつ削除する</li>
+ * </ul>
+ * キャッシュはmaximumSize件までとし、超えた場合は最も長く参照されていないセッションから破棄する。
+ *
+ * 他のバックエンドでの変更（ログアウトなど）は、キャッシュしている間（最大freshMillis）は反映されない。
+ * また、有効期限の延長をまとめるため、実際の有効期限はexpiresより最大でtouchIntervalMillis短くなる。
+ * 有効期限はこのストアで判定するため、SessionStoreHandlerには{@link StoreManagedExpiration}を設定すること。
+ *
+ * SessionManagerは、使っていないストアの読み込みと削除も毎回呼び出すため、
+ * このストアを使わない場合はenabledをfalseにして、データベースにアクセスしないようにする。
+ */
+public class NearCachedDbStore extends SessionStore implements Initializable, Disposable {
+
+    private static final Logger logger = LoggerManager.get(NearCachedDbStore.class);
+
+    private static final String SELECT_SQL =
+            "SELECT session_object, expiration_datetime FROM user_session WHERE session_id = ? AND expiration_datetime >= ?";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO user_session (session_id, session_object, expiration_datetime) VALUES (?, ?, ?)"
+                    + " ON CONFLICT (session_id) DO UPDATE SET session_object = EXCLUDED.session_object,"
+                    + " expiration_datetime = EXCLUDED.expiration_datetime";
+
+    private static final String TOUCH_SQL =
+            "UPDATE user_session SET expiration_datetime = ? WHERE session_id = ?";
+
+    private static final String DELETE_SQL =
+            "DELETE FROM user_session WHERE session_id = ?";
+
+    private static final String DELETE_EXPIRED_SQL =
+            "DELETE FROM user_session WHERE session_id IN"
+                    + " (SELECT session_id FROM user_session WHERE expiration_datetime < ? LIMIT ?)";
+
+    private SimpleDbTransactionManager dbManager;
+
+    private boolean enabled = true;
+
+    private int maximumSize = 10000;
+
+    private long freshMillis = 5000;
+
+    private long touchIntervalMillis = 60000;
+
+    private long cleanupIntervalMillis = 60000;
+
+    private int cleanupBatchSize = 500;
+
+    private final Map<String, Cached> cache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                    return size() > maximumSize;
+                }
+            });
+
+    private ScheduledExecutorService scheduler;
+
+    public NearCachedDbStore() {
+        super("db");
+    }
+
+    public void setDbManager(SimpleDbTransactionManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setMaximumSize(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public void setFreshMillis(long freshMillis) {
+        this.freshMillis = freshMillis;
+    }
+
+    public void setTouchIntervalMillis(long touchIntervalMillis) {
+        this.touchIntervalMillis = touchIntervalMillis;
+    }
+
+    public void setCleanupIntervalMillis(long cleanupIntervalMillis) {
+        this.cleanupIntervalMillis = cleanupIntervalMillis;
+    }
+
+    public void setCleanupBatchSize(int cleanupBatchSize) {
+        this.cleanupBatchSize = cleanupBatchSize;
+    }
+
+    @Override
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::cleanupSafely, cleanupIntervalMillis, cleanupIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void dispose() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public List<SessionEntry> load(String sessionId, ExecutionContext executionContext) {
+        if (!enabled) {
+            return Collections.emptyList();
+        }
+        long now = SystemTimeUtil.getDate().getTime();
+        Cached cached = cache.get(sessionId);
+        if (cached != null && now - cached.verifiedAt < freshMillis && now <= cached.expiresAt) {
+            return decode(cached.entries);
+        }
+
+        SqlResultSet rows = new SimpleDbTransactionExecutor<SqlResultSet>(dbManager) {
+            @Override
+            public SqlResultSet execute(AppDbConnection connection) {
+                SqlPStatement statement = connection.prepareStatement(SELECT_SQL);
+                statement.setString(1, sessionId);
+                statement.setTimestamp(2, new Timestamp(now));
+                return statement.retrieve();
+            }
+        }.doTransaction();
+        if (rows.isEmpty()) {
+            cache.remove(sessionId);
+            return Collections.emptyList();
+        }
+        SqlRow row = rows.get(0);
+        byte[] entries = row.getBytes("session_object");
+        long expiresAt = row.getTimestamp("expiration_datetime").getTime();
+        cache.put(sessionId, new Cached(entries, expiresAt, now, expiresAt - getExpiresMilliSeconds()));
+        return decode(entries);
+    }
+
+    @Override
+    public void save(String sessionId, List<SessionEntry> entries, ExecutionContext executionContext) {
+        if (!enabled) {
+            return;
+        }
+        long now = SystemTimeUtil.getDate().getTime();
+        long expiresAt = now + getExpiresMilliSeconds();
+        byte[] encoded = encode(entries);
+        Cached cached = cache.get(sessionId);
+
+        if (cached != null && Arrays.equals(cached.entries, encoded)) {
+            if (now - cached.touchedAt < touchIntervalMillis) {
+                return;
+            }
+            int updated = new SimpleDbTransactionExecutor<Integer>(dbManager) {
+                @Override
+                public Integer execute(AppDbConnection connection) {
+                    SqlPStatement statement = connection.prepareStatement(TOUCH_SQL);
+                    statement.setTimestamp(1, new Timestamp(expiresAt));
+                    statement.setString(2, sessionId);
+                    return statement.executeUpdate();
+                }
+            }.doTransaction();
+            if (updated == 0) {
+                // 他のバックエンドで破棄されたか、期限切れで削除された
+                cache.remove(sessionId);
+                return;
+            }
+            cache.put(sessionId, new Cached(encoded, expiresAt, now, now));
+            return;
+        }
+
+        new SimpleDbTransactionExecutor<Void>(dbManager) {
+            @Override
+            public Void execute(AppDbConnection connection) {
+                SqlPStatement statement = connection.prepareStatement(UPSERT_SQL);
+                statement.setString(1, sessionId);
+                statement.setBytes(2, encoded);
+                statement.setTimestamp(3, new Timestamp(expiresAt));
+                statement.executeUpdate();
+                return null;
+            }
+        }.doTransaction();
+        cache.put(sessionId, new Cached(encoded, expiresAt, now, now));
+    }
+
+    @Override
+    public void delete(String sessionId, ExecutionContext executionContext) {
+        if (!enabled) {
+            return;
+        }
+        cache.remove(sessionId);
+        new SimpleDbTransactionExecutor<Void>(dbManager) {
+            @Override
+            public Void execute(AppDbConnection connection) {
+                SqlPStatement statement = connection.prepareStatement(DELETE_SQL);
+                statement.setString(1, sessionId);
+                statement.executeUpdate();
+                return null;
+            }
+        }.doTransaction();
+    }
+
+    @Override
+    public void invalidate(String sessionId, ExecutionContext executionContext) {
+        delete(sessionId, executionContext);
+    }
+
+    private void cleanupSafely() {
+        try {
+            cleanup();
+        } catch (RuntimeException e) {
+            logger.logWarn("Failed to delete expired sessions.", e);
+        }
+    }
+
+    /**
+     * 期限切れのセッションを、cleanupBatchSize件ずつトランザクションを分けて削除する。
+     *
+     * @return 削除した件数
+     */
+    int cleanup() {
+        long now = SystemTimeUtil.getDate().getTime();
+        synchronized (cache) {
+            cache.values().removeIf(cached -> cached.expiresAt < now);
+        }
+        int total = 0;
+        int deleted;
+        do {
+            deleted = new SimpleDbTransactionExecutor<Integer>(dbManager) {
+                @Override
+                public Integer execute(AppDbConnection connection) {
+                    SqlPStatement statement = connection.prepareStatement(DELETE_EXPIRED_SQL);
+                    statement.setTimestamp(1, new Timestamp(now));
+                    statement.setInt(2, cleanupBatchSize);
+                    return statement.executeUpdate();
+                }
+            }.doTransaction();
+            total += deleted;
+        } while (deleted == cleanupBatchSize);
+        if (total > 0) {
+            logger.logDebug("Deleted expired sessions. count=[" + total + "]");
+        }
+        return total;
+    }
+
+    private static final class Cached {
+
+        final byte[] entries;
+
+        /** データベースに保存した有効期限 */
+        final long expiresAt;
+
+        /** データベースの内容と一致していることを確認した日時 */
+        final long verifiedAt;
+
+        /** データベースの有効期限を延長した日時 */
+        final long touchedAt;
+
+        Cached(byte[] entries, long expiresAt, long verifiedAt, long touchedAt) {
+            this.entries = entries;
+            this.expiresAt = expiresAt;
+            this.verifiedAt = verifiedAt;
+            this.touchedAt = touchedAt;
+        }
+    }
+}
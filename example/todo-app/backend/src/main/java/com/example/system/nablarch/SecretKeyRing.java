@@ -0,0 +1,89 @@
+package com.example.system.nablarch;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Base64で指定した複数の鍵。
+ *
+ * 先頭の鍵を新しく暗号化や署名を行うための現在の鍵とし、全ての鍵を鍵のIDで引けるようにする。
+ * 鍵のIDは鍵のSHA-256の先頭4バイトで、どの鍵を使ったかを値に記録するために使う。
+ * 新しい鍵を先頭に追加すれば、古い鍵を使った値も、鍵を削除するまでは読み込める。
+ */
+public final class SecretKeyRing {
+
+    private final Key current;
+
+    private final Map<Integer, Key> keys;
+
+    /**
+     * @param encodedKeys Base64で表した鍵。先頭の鍵を現在の鍵とする
+     * @param algorithm 鍵のアルゴリズム
+     * @param validLength 鍵の長さ（バイト数）が正しいかを判定する条件
+     * @param lengthRequirement 鍵の長さが正しくない場合に、例外のメッセージに含める条件の説明
+     */
+    public SecretKeyRing(List<String> encodedKeys, String algorithm, IntPredicate validLength, String lengthRequirement) {
+        if (encodedKeys.isEmpty()) {
+            throw new IllegalArgumentException("keys must not be empty.");
+        }
+        Map<Integer, Key> map = new HashMap<>();
+        Key first = null;
+        for (String encoded : encodedKeys) {
+            byte[] bytes = Base64.getDecoder().decode(encoded.trim());
+            if (!validLength.test(bytes.length)) {
+                throw new IllegalArgumentException("key must be " + lengthRequirement + ". length=[" + bytes.length + "]");
+            }
+            Key key = new Key(bytes, algorithm);
+            if (map.putIfAbsent(key.id, key) != null) {
+                throw new IllegalArgumentException("duplicate key. id=[" + key.id + "]");
+            }
+            if (first == null) {
+                first = key;
+            }
+        }
+        this.current = first;
+        this.keys = map;
+    }
+
+    public Key current() {
+        return current;
+    }
+
+    /**
+     * @return IDに対応する鍵。ない場合はnull
+     */
+    public Key get(int id) {
+        return keys.get(id);
+    }
+
+    public static final class Key {
+
+        private final int id;
+
+        private final SecretKeySpec spec;
+
+        Key(byte[] key, String algorithm) {
+            try {
+                this.id = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(key)).getInt();
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+            this.spec = new SecretKeySpec(key, algorithm);
+        }
+
+        public int id() {
+            return id;
+        }
+
+        public SecretKeySpec spec() {
+            return spec;
+        }
+    }
+}
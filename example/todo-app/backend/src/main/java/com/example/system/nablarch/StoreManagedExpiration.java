@@ -0,0 +1,27 @@
+package com.example.system.nablarch;
+
+import nablarch.common.web.session.Expiration;
+import nablarch.fw.ExecutionContext;
+
+/**
+ * 有効期限の判定をセッションストアに任せる{@link Expiration}。
+ *
+ * デフォルトのHttpSessionManagedExpirationは有効期限をHTTPセッションに保存するため、
+ * {@link CookieSessionStore}のようにサーバー側に状態を持たないストアでは、代わりにこれを使う。
+ */
+public class StoreManagedExpiration implements Expiration {
+
+    @Override
+    public boolean isExpired(String sessionId, long currentDateTime, ExecutionContext context) {
+        return false;
+    }
+
+    @Override
+    public void saveExpirationDateTime(String sessionId, long expirationDateTime, ExecutionContext context) {
+    }
+
+    @Override
+    public boolean isDeterminable(String sessionId, ExecutionContext context) {
+        return true;
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.system.nablarch;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+import nablarch.fw.web.servlet.WebFrontController;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.sql.Driver;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * enabledがtrueの場合に、リクエストごとのハンドラキューを仮想スレッドで実行する{@link WebFrontController}。
+ *
+ * サーブレットの非同期処理を開始してJettyのスレッドをすぐに返し、ハンドラキューは仮想スレッドで最後まで実行する。
+ * JDBCやコネクションの取得を待つ間は仮想スレッドだけが止まるため、同時に処理できるリクエスト数がJettyのスレッド数に制限されない。
+ * ハンドラキューは1つの仮想スレッドで実行するため、ThreadContextやデータベース接続などのスレッドローカルな状態は
+ * 同期処理の場合と同じくハンドラキューの中で設定され、ExecutionContextも仮想スレッドで作成する。
+ * 作成元のスレッドから引き継ぐのは、コンテキストクラスローダーだけにする。
+ * Jettyのスレッドがフィルタから戻った後はリクエストからコンテキストパスなどを取得できないため、非同期処理の開始前に取得しておく。
+ * 同じ理由でHTTPセッションは使えないため、セッションストアにはHTTPセッションを使うもの以外を使うこと。
+ *
+ * 同時に実行するハンドラキューの数はmaxConcurrencyまでに制限し、queueTimeoutMillis待っても実行できないリクエストは503で応答する。
+ * （データベースを使うリクエストは、さらにコネクションプールの大きさで制限される）
+ *
+ * 仮想スレッドはjava21プロファイルでビルドし、Java 21以降で実行した場合だけ使える。
+ * PostgreSQLのJDBCドライバが42.6より前の場合、SQLの応答を待つ間もキャリアスレッドを占有する（synchronizedの中でソケットを読む）ため、
+ * 同時に処理できるリクエスト数がCPUコア数まで下がる（benchmarksのVirtualThreadBenchmarkを参照）。
+ * このため、enabledにtrueを設定した時点でクラスパスのドライバのバージョンを確認し、42.6より前の場合は例外を送出する。
+ * enabledがfalseの場合や、非同期処理に対応していないフィルタから呼ばれた場合は、{@link WebFrontController}と同じく呼び出し元のスレッドで実行する。
+ */
+public class VirtualThreadWebFrontController extends WebFrontController {
+
+    private static final Logger logger = LoggerManager.get(VirtualThreadWebFrontController.class);
+
+    private static final String POSTGRESQL_DRIVER = "org.postgresql.Driver";
+
+    /** SQLの応答を待つ間にキャリアスレッドを占有しない、PostgreSQLのJDBCドライバの最も古いバージョン */
+    private static final int MIN_DRIVER_MAJOR_VERSION = 42;
+
+    private static final int MIN_DRIVER_MINOR_VERSION = 6;
+
+    private ThreadFactory threadFactory;
+
+    private Semaphore concurrency = new Semaphore(1000);
+
+    private long queueTimeoutMillis = 30000L;
+
+    /**
+     * 仮想スレッドで実行するかを設定する。
+     *
+     * @param enabled 仮想スレッドで実行する場合はtrue
+     * @throws IllegalStateException trueを設定し、JDBCドライバが仮想スレッドに対応していない場合や、仮想スレッドを使えない場合
+     */
+    public void setEnabled(boolean enabled) {
+        if (enabled) {
+            verifyJdbcDriver();
+        }
+        this.threadFactory = enabled ? VirtualThreads.newThreadFactory("request-") : null;
+    }
+
+    /**
+     * クラスパスのPostgreSQLのJDBCドライバが、SQLの応答を待つ間にキャリアスレッドを占有しないバージョンかを確認する。
+     * PostgreSQLのドライバがない場合は確認しない。
+     *
+     * @throws IllegalStateException ドライバが42.6より前の場合
+     */
+    protected void verifyJdbcDriver() {
+        Driver driver;
+        try {
+            driver = (Driver) Class.forName(POSTGRESQL_DRIVER, true, getClass().getClassLoader()).getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("failed to load JDBC driver. driver=[" + POSTGRESQL_DRIVER + "]", e);
+        }
+        int major = driver.getMajorVersion();
+        int minor = driver.getMinorVersion();
+        if (major < MIN_DRIVER_MAJOR_VERSION || (major == MIN_DRIVER_MAJOR_VERSION && minor < MIN_DRIVER_MINOR_VERSION)) {
+            throw new IllegalStateException("virtual threads require PostgreSQL JDBC driver "
+                    + MIN_DRIVER_MAJOR_VERSION + "." + MIN_DRIVER_MINOR_VERSION + " or later, because older drivers pin the carrier thread"
+                    + " while waiting for SQL results. version=[" + major + "." + minor + "]");
+        }
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.concurrency = new Semaphore(maxConcurrency);
+    }
+
+    public void setQueueTimeoutMillis(long queueTimeoutMillis) {
+        this.queueTimeoutMillis = queueTimeoutMillis;
+    }
+
+    @Override
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain) throws ServletException, IOException {
+        if (threadFactory == null || !servletRequest.isAsyncSupported()) {
+            super.doFilter(servletRequest, servletResponse, chain);
+            return;
+        }
+        AsyncContext asyncContext = servletRequest.startAsync(new AsyncRequest((HttpServletRequest) servletRequest), servletResponse);
+        // ハンドラキューは同期処理の場合と同じく最後まで実行するため、非同期処理のタイムアウトは使わない
+        asyncContext.setTimeout(0);
+        // 作成元のスレッドを引き継がない仮想スレッドは、Webアプリケーションのクラスローダーを使わないため設定し直す
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        threadFactory.newThread(() -> {
+            Thread.currentThread().setContextClassLoader(classLoader);
+            handle(asyncContext, chain);
+        }).start();
+    }
+
+    private void handle(AsyncContext asyncContext, FilterChain chain) {
+        HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+        try {
+            if (!concurrency.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.logWarn("too many concurrent requests. maxConcurrency has been reached.");
+                sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                return;
+            }
+            try {
+                super.doFilter(asyncContext.getRequest(), response, chain);
+            } finally {
+                concurrency.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        } catch (Throwable e) {
+            // 通常はGlobalErrorHandlerで処理するため、ハンドラキューの外で発生した例外だけが対象になる
+            logger.logFatal("failed to handle request on virtual thread.", e);
+            sendError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        } finally {
+            asyncContext.complete();
+        }
+    }
+
+    private static void sendError(HttpServletResponse response, int status) {
+        if (response.isCommitted()) {
+            return;
+        }
+        try {
+            response.sendError(status);
+        } catch (IOException e) {
+            logger.logWarn("failed to send error response. status=[" + status + "]", e);
+        }
+    }
+
+    /**
+     * 非同期処理の開始前に、Jettyのスレッドでしか取得できないパスを取得しておくリクエスト。
+     */
+    private static final class AsyncRequest extends HttpServletRequestWrapper {
+
+        private final String contextPath;
+
+        private final String servletPath;
+
+        private final String pathInfo;
+
+        AsyncRequest(HttpServletRequest request) {
+            super(request);
+            this.contextPath = request.getContextPath();
+            this.servletPath = request.getServletPath();
+            this.pathInfo = request.getPathInfo();
+        }
+
+        @Override
+        public String getContextPath() {
+            return contextPath;
+        }
+
+        @Override
+        public String getServletPath() {
+            return servletPath;
+        }
+
+        @Override
+        public String getPathInfo() {
+            return pathInfo;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.system.nablarch;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 仮想スレッドを作成する{@link ThreadFactory}を取得する。
+ *
+ * 仮想スレッドはJava 21のAPIのため、java21プロファイルでビルドした場合だけ含まれる
+ * src/main/java21の{@code VirtualThreadFactory}を実行時に読み込む。
+ * 含まれていない場合やJava 21より前で実行している場合は、作成時に例外を送出する（仮想スレッドを有効にした設定は起動に失敗する）。
+ */
+public final class VirtualThreads {
+
+    private static final String FACTORY_CLASS_NAME = "com.example.system.nablarch.VirtualThreadFactory";
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 仮想スレッドを作成する{@link ThreadFactory}を作成する。
+     *
+     * @param namePrefix スレッド名の接頭辞（後ろに連番を付ける）
+     * @return 仮想スレッドを作成する{@link ThreadFactory}
+     * @throws IllegalStateException 仮想スレッドを使えない場合
+     */
+    public static ThreadFactory newThreadFactory(String namePrefix) {
+        try {
+            return (ThreadFactory) Class.forName(FACTORY_CLASS_NAME).getConstructor(String.class).newInstance(namePrefix);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new IllegalStateException("virtual threads are not available. build with the java21 profile and run on Java 21 or later.", e);
+        }
+    }
+}
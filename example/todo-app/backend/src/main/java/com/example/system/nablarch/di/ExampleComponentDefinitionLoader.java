@@ -1,11 +1,53 @@
 package com.example.system.nablarch.di;
 
+import com.example.system.nablarch.index.ClassIndex;
+import nablarch.core.repository.di.ComponentCreator;
+import nablarch.core.repository.di.ComponentDefinition;
+import nablarch.core.repository.di.ComponentHolder;
+import nablarch.core.repository.di.DiContainer;
 import nablarch.core.repository.di.config.externalize.AnnotationComponentDefinitionLoader;
+import nablarch.core.repository.di.config.externalize.annotation.SystemRepositoryComponent;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link SystemRepositoryComponent}を付けたクラスをコンポーネントとして登録する。
+ *
+ * コンパイル時に作成した{@link ClassIndex#COMPONENTS}がある場合はインデックスのクラスを登録し、
+ * ない場合や古い場合は親クラスと同じくクラスパスを走査する。コンポーネント名の決め方は親クラスと同じ。
+ */
 public class ExampleComponentDefinitionLoader extends AnnotationComponentDefinitionLoader {
 
     @Override
     protected String getBasePackage() {
         return "com.example";
     }
+
+    @Override
+    public List<ComponentDefinition> load(DiContainer container, Map<String, ComponentHolder> loadedComponents) {
+        List<Class<?>> classes = ClassIndex.load(ClassIndex.COMPONENTS, SystemRepositoryComponent.class, getBasePackage(), getClass().getClassLoader());
+        if (classes == null) {
+            return super.load(container, loadedComponents);
+        }
+        ComponentCreator componentCreator = newComponentCreator();
+        List<ComponentDefinition> definitions = new ArrayList<>();
+        for (Class<?> componentClass : classes) {
+            definitions.add(new ComponentDefinition(container.generateId(), componentName(componentClass), componentCreator, componentClass));
+        }
+        return Collections.unmodifiableList(definitions);
+    }
+
+    private static String componentName(Class<?> componentClass) {
+        SystemRepositoryComponent annotation = componentClass.getAnnotation(SystemRepositoryComponent.class);
+        if (!annotation.name().isEmpty()) {
+            return annotation.name();
+        }
+        if (!annotation.nameFromType().equals(SystemRepositoryComponent.class)) {
+            return annotation.nameFromType().getName();
+        }
+        return componentClass.getName();
+    }
 }
@@ -0,0 +1,18 @@
+package com.example.system.nablarch.handler;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * ログインしていなくても呼び出せるリソースメソッドであることを表す。
+ *
+ * この注釈が付いたリソースメソッドは、起動時に{@link LoginCheckHandler}がルートとして登録する。
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface AnonymousAccess {
+}
@@ -0,0 +1,239 @@
+package com.example.system.nablarch.handler;
+
+import com.example.system.nablarch.Cookies;
+import com.example.system.nablarch.SecretKeyRing;
+import nablarch.common.web.WebConfig;
+import nablarch.common.web.WebConfigFinder;
+import nablarch.common.web.csrf.CsrfTokenUtil;
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.handler.CsrfTokenVerificationHandler;
+import nablarch.fw.web.handler.csrf.BadRequestVerificationFailureHandler;
+import nablarch.fw.web.handler.csrf.HttpMethodVerificationTargetMatcher;
+import nablarch.fw.web.handler.csrf.VerificationFailureHandler;
+import nablarch.fw.web.handler.csrf.VerificationTargetMatcher;
+import nablarch.fw.web.servlet.ServletExecutionContext;
+
+import javax.crypto.Mac;
+import javax.servlet.http.Cookie;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * CSRFトークンをセッションに保存せず、クッキーに保存した乱数（ノンス）とサーバーの鍵からHMACで作る{@link CsrfTokenVerificationHandler}。
+ *
+ * トークンの検証ではセッションを読み込まないため、更新系のリクエストごとにセッションストアを読む必要がなく、
+ * CSRFトークンを取得しただけの未ログインのユーザーにセッションを作ることもない。
+ * ノンスは、{@link #getCsrfToken}で初めてトークンを作るときに発行し、HttpOnlyのクッキーに保存する。
+ * 別のオリジンのページはクッキーの値もトークンも読めないため、ノンスに対応するトークンを送ることができない。
+ *
+ * トークンは、鍵のID（4バイト）とノンスのHMAC-SHA256をBase64（URLセーフ）で表したもので、定数時間で比較する。
+ * 鍵はkeysにBase64で指定する。トークンは先頭の鍵で作り、検証には全ての鍵を使うため、
+ * 新しい鍵を先頭に追加すれば、古い鍵で作ったトークンも鍵を削除するまでは使える。
+ *
+ * enabledがfalseの場合は、{@link CsrfTokenVerificationHandler}と同じくセッションに保存したトークンで検証する。
+ * ヘッダ名とパラメータ名は、どちらの場合も{@link WebConfig}の設定を使う。
+ */
+public class HmacCsrfTokenVerificationHandler extends CsrfTokenVerificationHandler {
+
+    private static final Logger logger = LoggerManager.get(HmacCsrfTokenVerificationHandler.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final int NONCE_LENGTH = 16;
+
+    private static final int KEY_ID_LENGTH = 4;
+
+    private static final int MAC_LENGTH = 32;
+
+    private static final String NONCE_KEY = HmacCsrfTokenVerificationHandler.class.getName() + ".nonce";
+
+    private final SecureRandom random = new SecureRandom();
+
+    private boolean enabled;
+
+    private String cookieName = "NABLARCH_CSRF";
+
+    private String cookiePath = "/";
+
+    private boolean cookieSecure;
+
+    private SecretKeyRing keys;
+
+    private VerificationTargetMatcher verificationTargetMatcher = new HttpMethodVerificationTargetMatcher();
+
+    private VerificationFailureHandler verificationFailureHandler = new BadRequestVerificationFailureHandler();
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setCookieName(String cookieName) {
+        this.cookieName = cookieName;
+    }
+
+    public void setCookiePath(String cookiePath) {
+        this.cookiePath = cookiePath;
+    }
+
+    public void setCookieSecure(boolean cookieSecure) {
+        this.cookieSecure = cookieSecure;
+    }
+
+    /**
+     * 鍵を設定する。
+     *
+     * @param keys Base64で表した鍵。先頭の鍵でトークンを作る
+     */
+    public void setKeys(List<String> keys) {
+        this.keys = new SecretKeyRing(keys, ALGORITHM, length -> length >= 32, "at least 32 bytes");
+    }
+
+    @Override
+    public void setVerificationTargetMatcher(VerificationTargetMatcher verificationTargetMatcher) {
+        super.setVerificationTargetMatcher(verificationTargetMatcher);
+        this.verificationTargetMatcher = verificationTargetMatcher;
+    }
+
+    @Override
+    public void setVerificationFailureHandler(VerificationFailureHandler verificationFailureHandler) {
+        super.setVerificationFailureHandler(verificationFailureHandler);
+        this.verificationFailureHandler = verificationFailureHandler;
+    }
+
+    @Override
+    public HttpResponse handle(HttpRequest request, ExecutionContext context) {
+        if (!enabled) {
+            return super.handle(request, context);
+        }
+        byte[] nonce = decodeNonce(Cookies.find((ServletExecutionContext) context, cookieName));
+        if (verificationTargetMatcher.match(request)) {
+            String userSentToken = getUserSentToken(request);
+            if (nonce == null || !verify(userSentToken, nonce)) {
+                return verificationFailureHandler.handle(request, context, userSentToken, null);
+            }
+        }
+        if (nonce != null) {
+            context.setRequestScopedVar(NONCE_KEY, nonce);
+        }
+
+        HttpResponse response = (HttpResponse) context.handleNext(request);
+
+        // CsrfTokenUtil#regenerateCsrfTokenが呼ばれた場合は、ノンスを発行し直して以前のトークンを使えなくする
+        if (Boolean.TRUE.equals(context.getRequestScopedVar(REQUEST_REGENERATE_KEY))) {
+            issueNonce((ServletExecutionContext) context);
+        }
+        return response;
+    }
+
+    /**
+     * リクエストのユーザーに発行するCSRFトークンを取得する。
+     *
+     * enabledがtrueの場合、ノンスがまだなければ発行してクッキーに保存する。
+     * falseの場合は、{@link CsrfTokenUtil#getCsrfToken}でセッションから取得する。
+     *
+     * @param context 実行コンテキスト
+     * @return CSRFトークン
+     */
+    public String getCsrfToken(ExecutionContext context) {
+        if (!enabled) {
+            return CsrfTokenUtil.getCsrfToken(context);
+        }
+        byte[] nonce = context.getRequestScopedVar(NONCE_KEY);
+        if (nonce == null) {
+            nonce = issueNonce((ServletExecutionContext) context);
+        }
+        return token(nonce);
+    }
+
+    /**
+     * ノンスから現在の鍵でトークンを作る。
+     */
+    String token(byte[] nonce) {
+        SecretKeyRing.Key key = keys.current();
+        ByteBuffer token = ByteBuffer.allocate(KEY_ID_LENGTH + MAC_LENGTH);
+        token.putInt(key.id()).put(mac(key, nonce));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.array());
+    }
+
+    /**
+     * トークンがノンスに対応しているかを検証する。
+     *
+     * @return 対応している場合はtrue。不正な形式、未知の鍵の場合はfalse
+     */
+    boolean verify(String userSentToken, byte[] nonce) {
+        if (userSentToken == null) {
+            return false;
+        }
+        byte[] token;
+        try {
+            token = Base64.getUrlDecoder().decode(userSentToken);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (token.length != KEY_ID_LENGTH + MAC_LENGTH) {
+            return false;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(token);
+        SecretKeyRing.Key key = keys.get(buffer.getInt());
+        if (key == null) {
+            return false;
+        }
+        byte[] mac = new byte[MAC_LENGTH];
+        buffer.get(mac);
+        // MessageDigest#isEqualは一致しない位置によらず同じ時間で比較する
+        return MessageDigest.isEqual(mac(key, nonce), mac);
+    }
+
+    private static String getUserSentToken(HttpRequest request) {
+        WebConfig webConfig = WebConfigFinder.getWebConfig();
+        String header = request.getHeader(webConfig.getCsrfTokenHeaderName());
+        if (header != null) {
+            return header;
+        }
+        String[] params = request.getParam(webConfig.getCsrfTokenParameterName());
+        return params != null && params.length > 0 ? params[0] : null;
+    }
+
+    private static byte[] decodeNonce(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            byte[] nonce = Base64.getUrlDecoder().decode(value);
+            return nonce.length == NONCE_LENGTH ? nonce : null;
+        } catch (IllegalArgumentException e) {
+            logger.logDebug("csrf nonce cookie is invalid. " + e);
+            return null;
+        }
+    }
+
+    private byte[] issueNonce(ServletExecutionContext context) {
+        byte[] nonce = new byte[NONCE_LENGTH];
+        random.nextBytes(nonce);
+        context.setRequestScopedVar(NONCE_KEY, nonce);
+        Cookie cookie = new Cookie(cookieName, Base64.getUrlEncoder().withoutPadding().encodeToString(nonce));
+        cookie.setPath(cookiePath);
+        cookie.setHttpOnly(true);
+        cookie.setSecure(cookieSecure);
+        context.getServletResponse().addCookie(cookie);
+        return nonce;
+    }
+
+    private static byte[] mac(SecretKeyRing.Key key, byte[] nonce) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key.spec());
+            return mac.doFinal(nonce);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
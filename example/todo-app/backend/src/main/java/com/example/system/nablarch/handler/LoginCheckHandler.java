@@ -3,32 +3,51 @@ package com.example.system.nablarch.handler;
 import nablarch.core.ThreadContext;
 import nablarch.core.log.Logger;
 import nablarch.core.log.LoggerManager;
+import nablarch.core.repository.initialization.Initializable;
 import nablarch.fw.ExecutionContext;
 import nablarch.fw.Handler;
 import nablarch.fw.web.HttpErrorResponse;
 import nablarch.fw.web.HttpRequest;
 import nablarch.fw.web.HttpResponse;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.regex.Pattern;
+/**
+ * ログインしていないユーザーからのリクエストを拒否する。
+ *
+ * {@link AnonymousAccess}が付いたリソースメソッドへのリクエストは、ログインしていなくても許可する。
+ * 対象のリソースメソッドは起動時にbasePackage配下から探し、{@link RouteMatcher}にまとめておく。
+ */
+public class LoginCheckHandler implements Handler<HttpRequest, Object>, Initializable {
 
-public class LoginCheckHandler implements Handler<HttpRequest, Object> {
+    private static final Logger logger = LoggerManager.get("DEV");
 
-    private final WhitePatterns whitePatterns = new WhitePatterns();
+    private String basePackage;
 
-    private static final Logger logger = LoggerManager.get("DEV");
+    private String applicationPath;
+
+    private RouteMatcher<ResourceRoute> anonymousRoutes;
+
+    public void setBasePackage(String basePackage) {
+        this.basePackage = basePackage;
+    }
+
+    public void setApplicationPath(String applicationPath) {
+        this.applicationPath = applicationPath;
+    }
 
-    public LoginCheckHandler() {
-        whitePatterns
-                .add("/api/signup", HttpMethod.POST)
-                .add("/api/login", HttpMethod.POST)
-                .add("/api/csrf_token", HttpMethod.GET);
+    @Override
+    public void initialize() {
+        RouteMatcher.Builder<ResourceRoute> builder = new RouteMatcher.Builder<>();
+        for (ResourceRoute route : ResourceRoute.find(basePackage, applicationPath)) {
+            if (route.method().isAnnotationPresent(AnonymousAccess.class)) {
+                builder.add(route.httpMethod(), route.path(), route);
+            }
+        }
+        anonymousRoutes = builder.build();
     }
 
     @Override
     public Object handle(HttpRequest request, ExecutionContext context) {
-        if (!whitePatterns.matches(request)) {
+        if (!anonymousRoutes.matches(request.getMethod(), request.getRequestPath())) {
             if (ThreadContext.getUserId().equals("guest")) {
                 String path = request.getRequestPath();
                 String method = request.getMethod();
@@ -38,45 +57,4 @@ public class LoginCheckHandler implements Handler<HttpRequest, Object> {
         }
         return context.handleNext(request);
     }
-
-    private enum HttpMethod {
-        ALL, GET, POST, PUT, DELETE
-    }
-
-    private static class WhitePatterns {
-
-        private final List<WhitePattern> list = new ArrayList<>();
-
-        WhitePatterns add(String url, HttpMethod httpMethod) {
-            list.add(new WhitePattern(url, httpMethod));
-            return this;
-        }
-
-        boolean matches(HttpRequest request) {
-            return list.stream().anyMatch(whitePattern -> whitePattern.matches(request));
-        }
-    }
-
-    private static class WhitePattern {
-
-        private final Pattern urlPattern;
-
-        private final HttpMethod httpMethod;
-
-        WhitePattern(String url, HttpMethod httpMethod) {
-            this.urlPattern = Pattern.compile("^" + url.replaceAll("\\*\\*", ".+").replaceAll("\\*", "[^/]+") + "$");
-            this.httpMethod = httpMethod;
-        }
-
-        boolean matches(HttpRequest request) {
-            String path = request.getRequestPath();
-            if (urlPattern.matcher(path).matches()) {
-                if (httpMethod == HttpMethod.ALL) {
-                    return true;
-                }
-                return httpMethod.name().equals(request.getMethod());
-            }
-            return false;
-        }
-    }
 }
@@ -0,0 +1,44 @@
+package com.example.system.nablarch.handler;
+
+import com.example.system.metrics.RequestMetrics;
+import com.example.system.metrics.RouteMetrics;
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.Handler;
+import nablarch.fw.web.HttpErrorResponse;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpResponse;
+
+/**
+ * リクエストの処理時間とステータスコードを、ルートごとに{@link RequestMetrics}へ記録する。
+ *
+ * レスポンスの書き込みまでを計測できるよう、JaxRsResponseHandlerより前に設定すること。
+ * 後続のハンドラで例外が送出された場合、{@link HttpErrorResponse}はそのステータスコード、それ以外は500として記録する。
+ */
+public class MetricsHandler implements Handler<HttpRequest, Object> {
+
+    private RequestMetrics requestMetrics;
+
+    public void setRequestMetrics(RequestMetrics requestMetrics) {
+        this.requestMetrics = requestMetrics;
+    }
+
+    @Override
+    public Object handle(HttpRequest request, ExecutionContext context) {
+        RouteMetrics metrics = requestMetrics.route(request.getMethod(), request.getRequestUri());
+        metrics.start();
+        long start = System.nanoTime();
+        int statusCode = HttpResponse.Status.INTERNAL_SERVER_ERROR.getStatusCode();
+        try {
+            Object result = context.handleNext(request);
+            statusCode = result instanceof HttpResponse
+                    ? ((HttpResponse) result).getStatusCode()
+                    : HttpResponse.Status.OK.getStatusCode();
+            return result;
+        } catch (HttpErrorResponse e) {
+            statusCode = e.getResponse().getStatusCode();
+            throw e;
+        } finally {
+            metrics.end(System.nanoTime() - start, statusCode);
+        }
+    }
+}
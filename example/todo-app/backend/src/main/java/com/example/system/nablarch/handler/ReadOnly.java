@@ -0,0 +1,19 @@
+package com.example.system.nablarch.handler;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * データベースを参照するだけのリソースメソッドであることを表す。
+ *
+ * この注釈が付いたリソースメソッドへのリクエストは、{@link ReadReplicaRoutingHandler}が
+ * 参照用のデータベース（リードレプリカ）の読み取り専用トランザクションで処理する。
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadOnly {
+}
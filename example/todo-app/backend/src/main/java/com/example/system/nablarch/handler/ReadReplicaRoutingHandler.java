@@ -0,0 +1,120 @@
+package com.example.system.nablarch.handler;
+
+import nablarch.common.web.session.SessionUtil;
+import nablarch.core.repository.initialization.Initializable;
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.Handler;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpResponse;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * リクエストを、更新用のデータベースと参照用のデータベース（リードレプリカ）のどちらで処理するかを振り分ける。
+ *
+ * 参照だけのルート（{@link ReadOnly}が付いたリソースメソッドと、readOnlyHttpMethodsに指定したHTTPメソッドのリソースメソッド）への
+ * リクエストはreplicaHandlersで、それ以外はprimaryHandlersで処理する。
+ * それぞれには、データベース接続管理ハンドラとトランザクション制御ハンドラを指定する。
+ *
+ * レプリカへの反映の遅れで、更新した本人に古いデータが見えないよう、
+ * ログイン中のユーザーが更新のリクエスト（GET、HEAD、OPTIONS以外）を正常に終えて（2xxを返して）からreadYourWritesMillisの間は、
+ * そのユーザーの参照も更新用のデータベースで処理する。
+ * 期限はセッションストアに保存する。
+ * replicaEnabledがfalseの場合は、全てのリクエストをprimaryHandlersで処理する。
+ */
+public class ReadReplicaRoutingHandler implements Handler<HttpRequest, Object>, Initializable {
+
+    static final String READ_YOUR_WRITES_UNTIL = "readReplica.readYourWritesUntil";
+
+    private static final String USER_ID = "user.id";
+
+    private String basePackage;
+
+    private String applicationPath;
+
+    private List<String> readOnlyHttpMethods = Collections.emptyList();
+
+    private boolean replicaEnabled;
+
+    private long readYourWritesMillis = 5000;
+
+    private List<Handler<?, ?>> primaryHandlers;
+
+    private List<Handler<?, ?>> replicaHandlers;
+
+    private RouteMatcher<ResourceRoute> readOnlyRoutes;
+
+    public void setBasePackage(String basePackage) {
+        this.basePackage = basePackage;
+    }
+
+    public void setApplicationPath(String applicationPath) {
+        this.applicationPath = applicationPath;
+    }
+
+    public void setReadOnlyHttpMethods(List<String> readOnlyHttpMethods) {
+        this.readOnlyHttpMethods = readOnlyHttpMethods;
+    }
+
+    public void setReplicaEnabled(boolean replicaEnabled) {
+        this.replicaEnabled = replicaEnabled;
+    }
+
+    public void setReadYourWritesMillis(long readYourWritesMillis) {
+        this.readYourWritesMillis = readYourWritesMillis;
+    }
+
+    public void setPrimaryHandlers(List<Handler<?, ?>> primaryHandlers) {
+        this.primaryHandlers = primaryHandlers;
+    }
+
+    public void setReplicaHandlers(List<Handler<?, ?>> replicaHandlers) {
+        this.replicaHandlers = replicaHandlers;
+    }
+
+    @Override
+    public void initialize() {
+        RouteMatcher.Builder<ResourceRoute> builder = new RouteMatcher.Builder<>();
+        for (ResourceRoute route : ResourceRoute.find(basePackage, applicationPath)) {
+            if (route.method().isAnnotationPresent(ReadOnly.class) || readOnlyHttpMethods.contains(route.httpMethod())) {
+                builder.add(route.httpMethod(), route.path(), route);
+            }
+        }
+        readOnlyRoutes = builder.build();
+    }
+
+    @Override
+    public Object handle(HttpRequest request, ExecutionContext context) {
+        boolean readOnly = readOnlyRoutes.matches(request.getMethod(), request.getRequestUri());
+        if (readOnly && replicaEnabled && !withinReadYourWritesWindow(context)) {
+            context.getHandlerQueue().addAll(0, replicaHandlers);
+            return context.handleNext(request);
+        }
+        context.getHandlerQueue().addAll(0, primaryHandlers);
+        Object result = context.handleNext(request);
+        if (replicaEnabled && isUpdate(request.getMethod()) && isSuccess(result)
+                && SessionUtil.orNull(context, USER_ID) != null) {
+            SessionUtil.put(context, READ_YOUR_WRITES_UNTIL, System.currentTimeMillis() + readYourWritesMillis);
+        }
+        return result;
+    }
+
+    private static boolean isUpdate(String httpMethod) {
+        return !httpMethod.equals("GET") && !httpMethod.equals("HEAD") && !httpMethod.equals("OPTIONS");
+    }
+
+    private static boolean isSuccess(Object result) {
+        // 4xxなど、何も更新していないレスポンスでは更新用のデータベースに寄せる必要はない
+        if (!(result instanceof HttpResponse)) {
+            return false;
+        }
+        int statusCode = ((HttpResponse) result).getStatusCode();
+        return 200 <= statusCode && statusCode < 300;
+    }
+
+    private static boolean withinReadYourWritesWindow(ExecutionContext context) {
+        Long until = SessionUtil.orNull(context, READ_YOUR_WRITES_UNTIL);
+        return until != null && System.currentTimeMillis() < until;
+    }
+}
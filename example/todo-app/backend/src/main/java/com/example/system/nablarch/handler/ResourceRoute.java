@@ -0,0 +1,80 @@
+package com.example.system.nablarch.handler;
+
+import com.example.system.nablarch.index.JaxRsResources;
+import nablarch.integration.router.jaxrs.JaxRsResource;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Path;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JAX-RSのリソースメソッドと、そのHTTPメソッド、パスのテンプレートの組み合わせ。
+ *
+ * パスのテンプレートは"/api/todos/{todoId}"のように、空のセグメントを除いて"/"でつないだ形にする。
+ */
+public class ResourceRoute {
+
+    private final Method method;
+
+    private final String httpMethod;
+
+    private final String path;
+
+    private ResourceRoute(Method method, String httpMethod, String path) {
+        this.method = method;
+        this.httpMethod = httpMethod;
+        this.path = path;
+    }
+
+    public static List<ResourceRoute> find(String basePackage, String applicationPath) {
+        List<ResourceRoute> routes = new ArrayList<>();
+        for (JaxRsResource resource : JaxRsResources.find(basePackage)) {
+            for (Method method : resource.getResourceMethodList()) {
+                String path = normalize(applicationPath + pathOf(resource.getResourceClass()) + pathOf(method));
+                routes.add(new ResourceRoute(method, httpMethodOf(method), path));
+            }
+        }
+        return routes;
+    }
+
+    public Method method() {
+        return method;
+    }
+
+    public String httpMethod() {
+        return httpMethod;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    private static String httpMethodOf(Method method) {
+        for (Annotation annotation : method.getDeclaredAnnotations()) {
+            HttpMethod httpMethod = annotation.annotationType().getAnnotation(HttpMethod.class);
+            if (httpMethod != null) {
+                return httpMethod.value();
+            }
+        }
+        throw new IllegalStateException("'" + method.getName() + "' method has no HttpMethod annotation.");
+    }
+
+    private static String pathOf(AnnotatedElement element) {
+        Path path = element.getAnnotation(Path.class);
+        return path != null ? "/" + path.value() : "";
+    }
+
+    private static String normalize(String path) {
+        StringBuilder normalized = new StringBuilder();
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                normalized.append('/').append(segment);
+            }
+        }
+        return normalized.length() > 0 ? normalized.toString() : "/";
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.system.nablarch.handler;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HTTPメソッドとパスの組み合わせに一致するルートを探し、ルートに対応付けた値を返す。
+ *
+ * ルートはHTTPメソッドごとにパスのセグメント単位の木（トライ）として保持する。
+ * パス中の"{todoId}"のようなパスパラメータは、任意の1セグメントに一致する。
+ * 判定時は正規表現を使わず、文字列の切り出しも行わないため、リクエストごとのオブジェクト生成が発生しない。
+ * パスに続くクエリ文字列（"?"や";"以降）は無視するため、リクエストURIをそのまま渡してもよい。
+ *
+ * @param <T> ルートに対応付ける値の型
+ */
+public class RouteMatcher<T> {
+
+    private final String[] httpMethods;
+
+    private final Node<T>[] roots;
+
+    private RouteMatcher(String[] httpMethods, Node<T>[] roots) {
+        this.httpMethods = httpMethods;
+        this.roots = roots;
+    }
+
+    public boolean matches(String httpMethod, String path) {
+        return find(httpMethod, path) != null;
+    }
+
+    /**
+     * 一致するルートに対応付けた値を返す。一致するルートがない場合は{@code null}を返す。
+     *
+     * 固定のセグメントとパスパラメータの両方に一致する場合は、固定のセグメントを優先する。
+     */
+    public T find(String httpMethod, String path) {
+        for (int i = 0; i < httpMethods.length; i++) {
+            if (httpMethods[i].equals(httpMethod)) {
+                return roots[i].find(path, 0, pathLength(path));
+            }
+        }
+        return null;
+    }
+
+    private static int pathLength(String path) {
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '?' || c == ';') {
+                return i;
+            }
+        }
+        return path.length();
+    }
+
+    public static class Builder<T> {
+
+        private final Map<String, MutableNode<T>> roots = new LinkedHashMap<>();
+
+        public Builder<T> add(String httpMethod, String path, T value) {
+            MutableNode<T> node = roots.computeIfAbsent(httpMethod, key -> new MutableNode<>());
+            for (String segment : segments(path)) {
+                node = isPathParameter(segment) ? node.wildcard() : node.child(segment);
+            }
+            node.value = value;
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        public RouteMatcher<T> build() {
+            String[] httpMethods = roots.keySet().toArray(new String[0]);
+            Node<T>[] nodes = roots.values().stream().map(MutableNode::freeze).toArray(Node[]::new);
+            return new RouteMatcher<>(httpMethods, nodes);
+        }
+
+        private static List<String> segments(String path) {
+            List<String> segments = new ArrayList<>();
+            for (String segment : path.split("/")) {
+                if (!segment.isEmpty()) {
+                    segments.add(segment);
+                }
+            }
+            return segments;
+        }
+
+        private static boolean isPathParameter(String segment) {
+            return segment.startsWith("{") && segment.endsWith("}");
+        }
+    }
+
+    private static class MutableNode<T> {
+
+        private final Map<String, MutableNode<T>> children = new LinkedHashMap<>();
+
+        private MutableNode<T> wildcard;
+
+        private T value;
+
+        MutableNode<T> child(String segment) {
+            return children.computeIfAbsent(segment, key -> new MutableNode<>());
+        }
+
+        MutableNode<T> wildcard() {
+            if (wildcard == null) {
+                wildcard = new MutableNode<>();
+            }
+            return wildcard;
+        }
+
+        @SuppressWarnings("unchecked")
+        Node<T> freeze() {
+            String[] names = children.keySet().toArray(new String[0]);
+            Node<T>[] nodes = children.values().stream().map(MutableNode::freeze).toArray(Node[]::new);
+            return new Node<>(names, nodes, wildcard != null ? wildcard.freeze() : null, value);
+        }
+    }
+
+    private static final class Node<T> {
+
+        private final String[] names;
+
+        private final Node<T>[] children;
+
+        private final Node<T> wildcard;
+
+        private final T value;
+
+        Node(String[] names, Node<T>[] children, Node<T> wildcard, T value) {
+            this.names = names;
+            this.children = children;
+            this.wildcard = wildcard;
+            this.value = value;
+        }
+
+        T find(String path, int from, int pathLength) {
+            int start = from;
+            while (start < pathLength && path.charAt(start) == '/') {
+                start++;
+            }
+            if (start == pathLength) {
+                return value;
+            }
+            int end = start;
+            while (end < pathLength && path.charAt(end) != '/') {
+                end++;
+            }
+            int length = end - start;
+            for (int i = 0; i < names.length; i++) {
+                String name = names[i];
+                if (name.length() == length && path.regionMatches(start, name, 0, length)) {
+                    T found = children[i].find(path, end, pathLength);
+                    if (found != null) {
+                        return found;
+                    }
+                }
+            }
+            return wildcard != null ? wildcard.find(path, end, pathLength) : null;
+        }
+    }
+}
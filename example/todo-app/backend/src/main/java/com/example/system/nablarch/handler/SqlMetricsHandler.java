@@ -0,0 +1,30 @@
+package com.example.system.nablarch.handler;
+
+import com.example.system.metrics.SqlMetrics;
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.Handler;
+import nablarch.fw.web.HttpRequest;
+
+/**
+ * 後続のハンドラで実行したSQLの数と時間を、リクエスト単位で{@link SqlMetrics}に集計させる。
+ *
+ * リクエスト内の全てのSQLを対象にするため、dbConnectionManagementHandlerより前に設定すること。
+ */
+public class SqlMetricsHandler implements Handler<HttpRequest, Object> {
+
+    private SqlMetrics sqlMetrics;
+
+    public void setSqlMetrics(SqlMetrics sqlMetrics) {
+        this.sqlMetrics = sqlMetrics;
+    }
+
+    @Override
+    public Object handle(HttpRequest request, ExecutionContext context) {
+        sqlMetrics.beginRequest();
+        try {
+            return context.handleNext(request);
+        } finally {
+            sqlMetrics.endRequest(request.getMethod(), request.getRequestUri());
+        }
+    }
+}
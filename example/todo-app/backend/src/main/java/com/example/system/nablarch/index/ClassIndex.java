@@ -0,0 +1,80 @@
+package com.example.system.nablarch.index;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link com.example.system.nablarch.index.processor.ClassIndexProcessor}がコンパイル時に出力したクラスの一覧を読み込む。
+ *
+ * インデックスがある場合は、クラスパスを走査せずにインデックスのクラスだけを使う。
+ * インデックスがない場合（アノテーションプロセッサを使わずにコンパイルした場合など）は、呼び出し元で走査すること。
+ * <p>
+ * IDEでコンパイルした場合など、以前のビルドで出力したインデックスが残っていることがある。
+ * インデックスのクラスがない場合やアノテーションが付いていない場合は、古いインデックスとしてnullを返す。
+ * ただし、インデックスの後に追加したクラスは検出できないため、IDEでもアノテーションプロセッサを有効にしてコンパイルすること。
+ */
+public final class ClassIndex {
+
+    /** SystemRepositoryComponentを付けたクラスのインデックス */
+    public static final String COMPONENTS = "META-INF/todo-app/system-repository-components";
+
+    /** JAX-RSのリソースクラスのインデックス */
+    public static final String RESOURCES = "META-INF/todo-app/jaxrs-resources";
+
+    private static final Logger logger = LoggerManager.get(ClassIndex.class);
+
+    private ClassIndex() {
+    }
+
+    /**
+     * インデックスから、basePackage配下のクラスを読み込む。
+     *
+     * @param resourceName インデックスのリソース名
+     * @param annotation インデックスのクラスに付いているアノテーション
+     * @param basePackage パッケージ
+     * @param classLoader クラスを読み込むクラスローダー
+     * @return クラスの一覧。インデックスがない場合や古い場合はnull
+     */
+    public static List<Class<?>> load(String resourceName, Class<? extends Annotation> annotation, String basePackage, ClassLoader classLoader) {
+        try (InputStream in = classLoader.getResourceAsStream(resourceName)) {
+            if (in == null) {
+                logger.logInfo("Class index not found, scanning classpath instead. index=[" + resourceName + "]");
+                return null;
+            }
+            List<Class<?>> classes = new ArrayList<>();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String className;
+            while ((className = reader.readLine()) != null) {
+                if (!className.isEmpty() && className.startsWith(basePackage + ".")) {
+                    Class<?> indexedClass = find(className, classLoader);
+                    if (indexedClass == null || !indexedClass.isAnnotationPresent(annotation)) {
+                        logger.logWarn("Class index is stale, scanning classpath instead. index=[" + resourceName + "] class=[" + className + "]");
+                        return null;
+                    }
+                    classes.add(indexedClass);
+                }
+            }
+            return classes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Class<?> find(String className, ClassLoader classLoader) {
+        try {
+            return classLoader.loadClass(className);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.system.nablarch.index;
+
+import nablarch.integration.router.PathOptions;
+import nablarch.integration.router.PathOptionsProvider;
+import nablarch.integration.router.jaxrs.JaxRsPathOptionsProvider;
+import nablarch.integration.router.jaxrs.JaxRsResource;
+import nablarch.integration.router.jaxrs.JaxRsRouterConverter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * {@link JaxRsResources}で探したリソースメソッドからルートを作る{@link PathOptionsProvider}。
+ *
+ * {@link JaxRsPathOptionsProvider}と同じルートを、起動時にクラスパスを走査せずに作る。
+ */
+public class IndexedJaxRsPathOptionsProvider implements PathOptionsProvider {
+
+    private String basePackage;
+
+    private String applicationPath;
+
+    public void setBasePackage(String basePackage) {
+        this.basePackage = basePackage;
+    }
+
+    public void setApplicationPath(String applicationPath) {
+        this.applicationPath = applicationPath;
+    }
+
+    @Override
+    public List<PathOptions> provide() {
+        if (applicationPath == null) {
+            throw new IllegalStateException("applicationPath is not set.");
+        }
+        if (basePackage == null) {
+            throw new IllegalStateException("basePackage is not set.");
+        }
+        JaxRsRouterConverter converter = new JaxRsRouterConverter(applicationPath);
+        List<PathOptions> pathOptions = new ArrayList<>();
+        for (JaxRsResource resource : JaxRsResources.find(basePackage)) {
+            pathOptions.addAll(converter.parse(resource));
+        }
+        pathOptions.sort(Comparator.comparing(PathOptions::getPath));
+        return pathOptions;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.system.nablarch.index;
+
+import nablarch.integration.router.jaxrs.JaxRsResource;
+import nablarch.integration.router.jaxrs.JaxRsResourceFinder;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Path;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JAX-RSのリソースクラスとリソースメソッドを探す。
+ *
+ * {@link ClassIndex#RESOURCES}がある場合はインデックスのクラスから、ない場合や古い場合は{@link JaxRsResourceFinder}でクラスパスを走査して探す。
+ * リソースメソッドの判定は{@link JaxRsResourceFinder}と同じく、HttpMethodを付けたアノテーションを持つメソッドとする。
+ */
+public final class JaxRsResources {
+
+    private JaxRsResources() {
+    }
+
+    public static List<JaxRsResource> find(String basePackage) {
+        List<Class<?>> classes = ClassIndex.load(ClassIndex.RESOURCES, Path.class, basePackage, JaxRsResources.class.getClassLoader());
+        if (classes == null) {
+            return new JaxRsResourceFinder().find(basePackage);
+        }
+        List<JaxRsResource> resources = new ArrayList<>();
+        for (Class<?> resourceClass : classes) {
+            resources.add(new JaxRsResource(resourceClass, findResourceMethods(resourceClass)));
+        }
+        return resources;
+    }
+
+    private static List<Method> findResourceMethods(Class<?> resourceClass) {
+        List<Method> methods = new ArrayList<>();
+        for (Method method : resourceClass.getDeclaredMethods()) {
+            int httpMethods = 0;
+            for (Annotation annotation : method.getDeclaredAnnotations()) {
+                if (annotation.annotationType().isAnnotationPresent(HttpMethod.class)) {
+                    httpMethods++;
+                }
+            }
+            if (httpMethods > 1) {
+                throw new RuntimeException("'" + method.getName() + "' method has multiple HTTP method annotations.");
+            }
+            if (httpMethods == 1) {
+                methods.add(method);
+            }
+        }
+        return methods;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.system.nablarch.index.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * コンパイル時に、アノテーションを付けたクラスの一覧（インデックス）をクラスパスに出力するアノテーションプロセッサ。
+ *
+ * 起動時にクラスパスを走査する代わりに、{@link com.example.system.nablarch.index.ClassIndex}で読み込む。
+ * 出力するインデックスは次のとおり。
+ * <ul>
+ *   <li>{@value com.example.system.nablarch.index.ClassIndex#COMPONENTS}: SystemRepositoryComponentを付けたクラス</li>
+ *   <li>{@value com.example.system.nablarch.index.ClassIndex#RESOURCES}: クラスにPathを付けたJAX-RSのリソースクラス</li>
+ * </ul>
+ * 全てのソースをまとめてコンパイルする前提のため、一部のクラスだけをコンパイルした場合はインデックスも一部のクラスだけになる。
+ */
+@SupportedAnnotationTypes({
+        ClassIndexProcessor.SYSTEM_REPOSITORY_COMPONENT,
+        ClassIndexProcessor.PATH
+})
+public class ClassIndexProcessor extends AbstractProcessor {
+
+    static final String SYSTEM_REPOSITORY_COMPONENT = "nablarch.core.repository.di.config.externalize.annotation.SystemRepositoryComponent";
+
+    static final String PATH = "javax.ws.rs.Path";
+
+    // アノテーションプロセッサはバックエンドのクラスより先にコンパイルするため、ClassIndexの定数は参照できない
+    private static final Map<String, String> INDEXES = Map.of(
+            SYSTEM_REPOSITORY_COMPONENT, "META-INF/todo-app/system-repository-components",
+            PATH, "META-INF/todo-app/jaxrs-resources");
+
+    private final Map<String, Set<String>> classNames = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            String annotationName = annotation.getQualifiedName().toString();
+            Set<String> names = classNames.computeIfAbsent(annotationName, key -> new TreeSet<>());
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind().isClass()) {
+                    names.add(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+                }
+            }
+        }
+        if (roundEnv.processingOver()) {
+            INDEXES.forEach((annotationName, resourceName) -> write(resourceName, classNames.getOrDefault(annotationName, Set.of())));
+        }
+        return false;
+    }
+
+    private void write(String resourceName, Set<String> names) {
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", resourceName);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (String name : names) {
+                    writer.write(name);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "failed to write class index. resource=[" + resourceName + "] " + e);
+        }
+    }
+}
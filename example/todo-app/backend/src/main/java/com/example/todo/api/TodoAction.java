@@ -2,10 +2,13 @@ package com.example.todo.api;
 
 import com.example.todo.application.TodoService;
 import com.example.todo.domain.*;
+import nablarch.core.ThreadContext;
 import nablarch.core.repository.di.config.externalize.annotation.SystemRepositoryComponent;
 import nablarch.core.validation.ee.ValidatorUtil;
 import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpErrorResponse;
 import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpResponse;
 
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.*;
@@ -27,19 +30,28 @@ public class TodoAction {
     public TodoResponse put(HttpRequest request, ExecutionContext context, PutRequest requestBody) {
         ValidatorUtil.validate(requestBody);
 
+        String userIdValue = ThreadContext.getUserId();
+        UserId userId = new UserId(userIdValue);
         TodoId todoId = new TodoId(Long.valueOf(request.getParam("todoId")[0]));
         TodoStatus status = requestBody.completed ? TodoStatus.COMPLETED : TodoStatus.INCOMPLETE;
 
-        Todo todo = todoService.updateStatus(todoId, status);
+        Todo todo = todoService.updateStatus(userId, todoId, status);
+        if (todo == null) {
+            throw new HttpErrorResponse(HttpResponse.Status.NOT_FOUND.getStatusCode());
+        }
 
         return new TodoResponse(todo.id(), todo.text(), todo.status());
     }
 
     @DELETE
     public void delete(HttpRequest request, ExecutionContext context, PutRequest requestBody) {
+        String userIdValue = ThreadContext.getUserId();
+        UserId userId = new UserId(userIdValue);
         TodoId todoId = new TodoId(Long.valueOf(request.getParam("todoId")[0]));
 
-        todoService.deleteTodo(todoId);
+        if (!todoService.deleteTodo(userId, todoId)) {
+            throw new HttpErrorResponse(HttpResponse.Status.NOT_FOUND.getStatusCode());
+        }
     }
 
     public static class PutRequest {
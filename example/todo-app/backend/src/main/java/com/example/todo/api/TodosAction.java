@@ -1,14 +1,35 @@
 package com.example.todo.api;
 
+import com.example.system.nablarch.handler.ReadOnly;
 import com.example.todo.domain.*;
+import com.example.todo.application.TodoPage;
 import com.example.todo.application.TodoService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import nablarch.core.ThreadContext;
+import nablarch.core.beans.BeanUtil;
+import nablarch.core.repository.di.config.externalize.annotation.ComponentRef;
+import nablarch.core.repository.di.config.externalize.annotation.ConfigValue;
 import nablarch.core.repository.di.config.externalize.annotation.SystemRepositoryComponent;
 import nablarch.core.validation.ee.ValidatorUtil;
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.jaxrs.EntityResponse;
+import nablarch.fw.jaxrs.cors.Cors;
+import nablarch.fw.web.HttpErrorResponse;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.servlet.ServletExecutionContext;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -16,22 +37,170 @@ import java.util.stream.Collectors;
 @Path("/todos")
 public class TodosAction {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    static final String ETAG_HEADER = "ETag";
+
+    static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+
+    static final String NDJSON = "application/x-ndjson";
+
     private final TodoService todoService;
 
-    public TodosAction(TodoService todoService) {
+    private final int defaultLimit;
+
+    private final int maxLimit;
+
+    private final Cors cors;
+
+    private final ObjectWriter ndjsonWriter = new ObjectMapper().writerFor(TodoResponse.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    public TodosAction(TodoService todoService,
+                       @ConfigValue("${todo.list.defaultLimit}") int defaultLimit,
+                       @ConfigValue("${todo.list.maxLimit}") int maxLimit,
+                       @ComponentRef("cors") Cors cors) {
         this.todoService = todoService;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+        this.cors = cors;
     }
 
+    /**
+     * ToDo一覧を取得する。
+     *
+     * ユーザーのToDoのバージョンをETagとして返し、If-None-Matchが一致する場合は、
+     * 一覧の取得やJSONへの変換を行わずに304を返す。
+     */
     @GET
+    @ReadOnly
     @Produces(MediaType.APPLICATION_JSON)
-    public List<TodoResponse> get() {
+    public EntityResponse get(HttpRequest request) {
+        ListQuery query = BeanUtil.createAndCopy(ListQuery.class, request.getParamMap());
+        ValidatorUtil.validate(query);
+
         String userIdValue = ThreadContext.getUserId();
         UserId userId = new UserId(userIdValue);
 
-        List<Todo> todos = todoService.list(userId);
-        return todos.stream()
+        TodoId after = query.getAfter() != null ? new TodoId(Long.valueOf(query.getAfter())) : null;
+        int limit = query.getLimit() != null ? Integer.parseInt(query.getLimit()) : defaultLimit;
+        if (limit > maxLimit) {
+            // 上限は設定で変えられるため、Bean Validationではなくここで判定する
+            throw new HttpErrorResponse(HttpResponse.Status.BAD_REQUEST.getStatusCode());
+        }
+
+        // 一覧より先にバージョンを取得する。間に更新されても一覧がETagより新しくなるだけで、次のリクエストでETagが一致しないだけで済む。
+        // 一覧の取得にもこのバージョンを渡し、キャッシュからETagより古いページを返さないようにする
+        long version = todoService.version(userId);
+        String etag = "\"" + version + "\"";
+        if (matches(request.getHeader(IF_NONE_MATCH_HEADER), etag)) {
+            // 戻り値はJSONに変換されるため、ボディのないレスポンスはHttpErrorResponseで返す
+            HttpResponse notModified = new HttpResponse(HttpResponse.Status.NOT_MODIFIED.getStatusCode());
+            notModified.setHeader(ETAG_HEADER, etag);
+            notModified.setHeader("Cache-Control", "private, no-cache");
+            throw new HttpErrorResponse(notModified);
+        }
+
+        TodoPage page = todoService.list(userId, version, after, limit);
+        List<TodoResponse> todos = page.todos().stream()
                 .map(todo -> new TodoResponse(todo.id(), todo.text(), todo.status()))
                 .collect(Collectors.toList());
+
+        EntityResponse response = new EntityResponse();
+        response.setEntity(todos);
+        response.setHeader(ETAG_HEADER, etag);
+        response.setHeader("Cache-Control", "private, no-cache");
+        if (page.hasNext()) {
+            response.setHeader(NEXT_CURSOR_HEADER, String.valueOf(page.nextCursor().value()));
+        }
+        return response;
+    }
+
+    /**
+     * If-None-MatchにETagが含まれるかを判定する。弱い比較のため、W/は無視する。
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * ToDoを全件、NDJSON（1行に1件のJSON）で出力する。
+     *
+     * 件数に関わらずメモリの使用量が一定になるよう、カーソルから読み込んだ行をそのままレスポンスに書き込む。
+     * レスポンスはハンドラに戻る前に送信を始めるため、ステータスとヘッダ（CORSを含む）はここで設定する。
+     * レスポンスフィニッシャーによる圧縮と、セッションを保存するクッキーの再発行は行われない。
+     */
+    @GET
+    @Path("/export")
+    @ReadOnly
+    public HttpResponse export(HttpRequest request, ExecutionContext context) throws IOException {
+        UserId userId = new UserId(ThreadContext.getUserId());
+
+        HttpServletResponse servletResponse = ((ServletExecutionContext) context).getServletResponse();
+        servletResponse.setStatus(HttpResponse.Status.OK.getStatusCode());
+        servletResponse.setContentType(NDJSON);
+        HttpResponse corsHeaders = new HttpResponse();
+        cors.postProcess(request, corsHeaders, context);
+        corsHeaders.getHeaderMap().forEach((name, value) -> {
+            if (name.startsWith("Access-Control-") || name.equals("Vary")) {
+                servletResponse.setHeader(name, value);
+            }
+        });
+
+        JsonGenerator generator = ndjsonWriter.getFactory().createGenerator(servletResponse.getOutputStream());
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // 値の区切りはデフォルトの空白ではなく改行にする
+        generator.setRootValueSeparator(null);
+        try (generator) {
+            todoService.forEachTodo(userId, todo -> {
+                try {
+                    ndjsonWriter.writeValue(generator, new TodoResponse(todo.id(), todo.text(), todo.status()));
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        // 件数が少なくてもここで送信し、この後にハンドラが設定するヘッダやContent-Lengthが反映されないようにする
+        servletResponse.flushBuffer();
+        return new HttpResponse(HttpResponse.Status.OK.getStatusCode());
+    }
+
+    public static class ListQuery {
+
+        @Pattern(regexp = "[1-9][0-9]{0,3}")
+        private String limit;
+
+        @Pattern(regexp = "[0-9]{1,18}")
+        private String after;
+
+        public String getLimit() {
+            return limit;
+        }
+
+        public void setLimit(String limit) {
+            this.limit = limit;
+        }
+
+        public String getAfter() {
+            return after;
+        }
+
+        public void setAfter(String after) {
+            this.after = after;
+        }
     }
 
     public static class TodoResponse {
@@ -69,4 +238,29 @@ public class TodosAction {
         @NotNull
         public String text;
     }
+
+    @Path("/bulk")
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<TodoResponse> postBulk(BulkPostRequest requestBody) {
+        ValidatorUtil.validate(requestBody);
+
+        String userIdValue = ThreadContext.getUserId();
+        UserId userId = new UserId(userIdValue);
+
+        List<TodoText> texts = requestBody.texts.stream().map(TodoText::new).collect(Collectors.toList());
+
+        List<Todo> todos = todoService.addTodos(userId, texts);
+
+        return todos.stream()
+                .map(todo -> new TodoResponse(todo.id(), todo.text(), todo.status()))
+                .collect(Collectors.toList());
+    }
+
+    public static class BulkPostRequest {
+        @NotNull
+        @Size(min = 1, max = 100)
+        public List<@NotNull String> texts;
+    }
 }
@@ -0,0 +1,30 @@
+package com.example.todo.application;
+
+import com.example.todo.domain.Todo;
+import com.example.todo.domain.TodoId;
+
+import java.util.List;
+
+public class TodoPage {
+
+    private final List<Todo> todos;
+
+    private final TodoId nextCursor;
+
+    public TodoPage(List<Todo> todos, TodoId nextCursor) {
+        this.todos = todos;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Todo> todos() {
+        return todos;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public TodoId nextCursor() {
+        return nextCursor;
+    }
+}
@@ -2,21 +2,51 @@ package com.example.todo.application;
 
 import com.example.todo.domain.Todo;
 import com.example.todo.domain.TodoId;
+import com.example.todo.domain.TodoStatus;
 import com.example.todo.domain.UserId;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface TodoRepository {
 
-    List<Todo> list(UserId userId);
+    List<Todo> list(UserId userId, TodoId after, int limit);
+
+    /**
+     * 呼び出し元が一覧より先に取得したバージョンを指定して、ToDo一覧を取得する。
+     *
+     * 返す一覧は、指定したバージョン時点かそれより新しいものとする。
+     * バージョンをETagとして返す場合に、ETagより古い一覧を返さないために使う。
+     */
+    default List<Todo> list(UserId userId, long version, TodoId after, int limit) {
+        return list(userId, after, limit);
+    }
+
+    /**
+     * ユーザーのToDoを全件、IDの昇順で1件ずつ処理する。
+     *
+     * 全件をメモリに読み込まず、読み込んだ順にactionに渡す。
+     */
+    void forEach(UserId userId, Consumer<Todo> action);
 
     TodoId nextId();
 
+    List<TodoId> nextIds(int count);
+
     void add(Todo todo);
 
-    Todo get(TodoId todoId);
+    void addAll(List<Todo> todos);
+
+    Todo updateStatus(UserId userId, TodoId todoId, TodoStatus status);
 
-    void update(Todo todo);
+    boolean delete(UserId userId, TodoId todoId);
 
-    void delete(TodoId todoId);
+    /**
+     * ユーザーのToDoのバージョンを取得する。
+     *
+     * バージョンはToDoを登録・更新・削除するたびに変わり、他のユーザーのバージョンとも重複しない。
+     *
+     * @return バージョン。一度もToDoを変更していない場合は0
+     */
+    long version(UserId userId);
 }
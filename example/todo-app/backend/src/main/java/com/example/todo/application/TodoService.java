@@ -1,22 +1,43 @@
 package com.example.todo.application;
 
 import com.example.todo.domain.*;
+import nablarch.core.repository.di.config.externalize.annotation.ComponentRef;
 import nablarch.core.repository.di.config.externalize.annotation.SystemRepositoryComponent;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @SystemRepositoryComponent
 public class TodoService {
 
     private final TodoRepository todoRepository;
 
-    public TodoService(TodoRepository todoRepository) {
+    public TodoService(@ComponentRef("todoRepository") TodoRepository todoRepository) {
         this.todoRepository = todoRepository;
     }
 
-    public List<Todo> list(UserId userId) {
-        List<Todo> todos = todoRepository.list(userId);
-        return todos;
+    /**
+     * ToDo一覧を取得する。
+     *
+     * @param version 一覧より先に{@link #version}で取得したバージョン。一覧はこのバージョン時点かそれより新しいものになる
+     */
+    public TodoPage list(UserId userId, long version, TodoId after, int limit) {
+        // 次ページの有無を判定するため、1件多く取得する
+        List<Todo> todos = todoRepository.list(userId, version, after, limit + 1);
+        if (todos.size() <= limit) {
+            return new TodoPage(todos, null);
+        }
+        List<Todo> page = todos.subList(0, limit);
+        return new TodoPage(page, page.get(limit - 1).id());
+    }
+
+    public void forEachTodo(UserId userId, Consumer<Todo> action) {
+        todoRepository.forEach(userId, action);
+    }
+
+    public long version(UserId userId) {
+        return todoRepository.version(userId);
     }
 
     public Todo addTodo(UserId userId, TodoText text) {
@@ -26,14 +47,21 @@ public class TodoService {
         return newTodo;
     }
 
-    public Todo updateStatus(TodoId todoId, TodoStatus status) {
-        Todo todo = todoRepository.get(todoId);
-        Todo changedTodo = todo.changeStatus(status);
-        todoRepository.update(changedTodo);
-        return changedTodo;
+    public List<Todo> addTodos(UserId userId, List<TodoText> texts) {
+        List<TodoId> todoIds = todoRepository.nextIds(texts.size());
+        List<Todo> newTodos = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            newTodos.add(new Todo(todoIds.get(i), texts.get(i), TodoStatus.INCOMPLETE, userId));
+        }
+        todoRepository.addAll(newTodos);
+        return newTodos;
+    }
+
+    public Todo updateStatus(UserId userId, TodoId todoId, TodoStatus status) {
+        return todoRepository.updateStatus(userId, todoId, status);
     }
 
-    public void deleteTodo(TodoId todoId) {
-        todoRepository.delete(todoId);
+    public boolean deleteTodo(UserId userId, TodoId todoId) {
+        return todoRepository.delete(userId, todoId);
     }
 }
@@ -1,5 +1,7 @@
 package com.example.todo.domain;
 
+import java.util.Objects;
+
 public class UserId {
 
     private final String value;
@@ -11,4 +13,20 @@ public class UserId {
     public String value() {
         return value;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Objects.equals(value, ((UserId) o).value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(value);
+    }
 }
@@ -0,0 +1,249 @@
+package com.example.todo.infrastructure;
+
+import com.example.system.metrics.PrometheusText;
+import com.example.todo.application.TodoRepository;
+import com.example.todo.domain.*;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * ユーザーごとのToDo一覧をメモリ上にキャッシュするTodoRepositoryのデコレータ。
+ *
+ * キャッシュはユーザー単位で保持し、ユーザー数がmaximumSizeを超えた場合は最も長く参照されていないユーザーから破棄する。
+ * 取得から一定時間（expireAfterMillis）が経過したページも破棄する。
+ *
+ * ページは取得時のユーザーのToDoのバージョン（{@link TodoRepository#version}）とあわせて保持し、
+ * 参照時のバージョンと異なる場合は使わずに取得し直す。
+ * 参照時のバージョンは、呼び出し元が指定した場合（ETagとして返すバージョンなど）はそれを使い、指定しない場合はデータベースから取得する。
+ * バージョンはToDoの変更と同じトランザクションで更新されるため、コミット前に他のリクエストが更新前の一覧をキャッシュしても、
+ * コミット後はバージョンが一致せずに使われない。他のバックエンドでToDoが変更された場合も同様である。
+ * このため、一覧の取得ごとにバージョンの問い合わせが1回必要になる（ETagのために取得したバージョンを指定した場合は追加の問い合わせはない）。
+ * キャッシュしたページは、そのバージョン時点かそれより新しい一覧になるため、バージョンをETagとして返してもETagより古いページは返さない。
+ *
+ * ToDoの登録・更新・削除を行った場合は、そのユーザーのキャッシュを破棄する。
+ * 破棄はメモリを早く解放するためのもので、一覧の正しさはバージョンの比較で保証する。
+ * キャッシュはバックエンドごとに保持するため、他のバックエンドでの変更ではキャッシュは破棄されず、
+ * 次に参照したときにバージョンが一致しないことで取得し直す。
+ */
+public class CachingTodoRepository implements TodoRepository {
+
+    private TodoRepository delegate;
+
+    private int maximumSize = 10000;
+
+    private int maximumPagesPerUser = 8;
+
+    private long expireAfterMillis = 60000;
+
+    private final Map<UserId, UserEntry> entries = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<UserId, UserEntry> eldest) {
+                    if (size() > maximumSize) {
+                        evictionCount.add(eldest.getValue().pages.size());
+                        return true;
+                    }
+                    return false;
+                }
+            });
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    public void setDelegate(TodoRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    public void setMaximumSize(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public void setMaximumPagesPerUser(int maximumPagesPerUser) {
+        this.maximumPagesPerUser = maximumPagesPerUser;
+    }
+
+    public void setExpireAfterMillis(long expireAfterMillis) {
+        this.expireAfterMillis = expireAfterMillis;
+    }
+
+    @Override
+    public List<Todo> list(UserId userId, TodoId after, int limit) {
+        return list(userId, delegate.version(userId), after, limit);
+    }
+
+    @Override
+    public List<Todo> list(UserId userId, long version, TodoId after, int limit) {
+        UserEntry entry = entries.computeIfAbsent(userId, key -> new UserEntry());
+        PageKey pageKey = new PageKey(after, limit);
+        long now = System.currentTimeMillis();
+
+        CachedPage cached = entry.pages.get(pageKey);
+        if (cached != null) {
+            if (cached.version == version && now < cached.expiresAt) {
+                hitCount.increment();
+                return cached.todos;
+            }
+            if (entry.pages.remove(pageKey, cached)) {
+                evictionCount.increment();
+            }
+        }
+
+        missCount.increment();
+        List<Todo> todos = Collections.unmodifiableList(delegate.list(userId, after, limit));
+        if (entry.pages.size() >= maximumPagesPerUser) {
+            evictionCount.add(entry.pages.size());
+            entry.pages.clear();
+        }
+        // 取得中にキャッシュが破棄された場合、entryはすでにentriesから外れているため、ここで格納しても参照されない。
+        // バージョンは一覧より先に取得しているため、一覧がバージョンより新しいことはあっても古いことはない
+        entry.pages.put(pageKey, new CachedPage(todos, version, now + expireAfterMillis));
+        return todos;
+    }
+
+    @Override
+    public void forEach(UserId userId, Consumer<Todo> action) {
+        // 全件を保持することになるため、キャッシュしない
+        delegate.forEach(userId, action);
+    }
+
+    @Override
+    public TodoId nextId() {
+        return delegate.nextId();
+    }
+
+    @Override
+    public List<TodoId> nextIds(int count) {
+        return delegate.nextIds(count);
+    }
+
+    @Override
+    public void add(Todo todo) {
+        delegate.add(todo);
+        invalidate(todo.userId());
+    }
+
+    @Override
+    public void addAll(List<Todo> todos) {
+        delegate.addAll(todos);
+        todos.stream().map(Todo::userId).distinct().forEach(this::invalidate);
+    }
+
+    @Override
+    public Todo updateStatus(UserId userId, TodoId todoId, TodoStatus status) {
+        Todo todo = delegate.updateStatus(userId, todoId, status);
+        invalidate(userId);
+        return todo;
+    }
+
+    @Override
+    public boolean delete(UserId userId, TodoId todoId) {
+        boolean deleted = delegate.delete(userId, todoId);
+        invalidate(userId);
+        return deleted;
+    }
+
+    @Override
+    public long version(UserId userId) {
+        // バージョンはキャッシュした一覧が古くなっていないかの確認に使うため、キャッシュしない
+        return delegate.version(userId);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * キャッシュのヒット数、ミス数、破棄したページ数と、キャッシュしているユーザー数をPrometheusのテキスト形式で書き出す。
+     */
+    public void writeTo(StringBuilder out) {
+        PrometheusText text = new PrometheusText(out);
+        String[] labels = {};
+        text.header("todo_list_cache_hits_total", "counter", "Todo list pages served from the cache.");
+        text.sample("todo_list_cache_hits_total", labels, String.valueOf(getHitCount()));
+        text.header("todo_list_cache_misses_total", "counter", "Todo list pages read from the database.");
+        text.sample("todo_list_cache_misses_total", labels, String.valueOf(getMissCount()));
+        text.header("todo_list_cache_evictions_total", "counter", "Cached todo list pages discarded as stale, expired or over the limit.");
+        text.sample("todo_list_cache_evictions_total", labels, String.valueOf(getEvictionCount()));
+        text.header("todo_list_cache_size", "gauge", "Users with cached todo list pages.");
+        text.sample("todo_list_cache_size", labels, String.valueOf(size()));
+    }
+
+    private void invalidate(UserId userId) {
+        entries.remove(userId);
+    }
+
+    private static class UserEntry {
+
+        final Map<PageKey, CachedPage> pages = new ConcurrentHashMap<>();
+    }
+
+    private static class CachedPage {
+
+        final List<Todo> todos;
+
+        final long version;
+
+        final long expiresAt;
+
+        CachedPage(List<Todo> todos, long version, long expiresAt) {
+            this.todos = todos;
+            this.version = version;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static class PageKey {
+
+        private final Long after;
+
+        private final int limit;
+
+        PageKey(TodoId after, int limit) {
+            this.after = after != null ? after.value() : null;
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PageKey pageKey = (PageKey) o;
+            return limit == pageKey.limit && Objects.equals(after, pageKey.after);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(after, limit);
+        }
+    }
+}
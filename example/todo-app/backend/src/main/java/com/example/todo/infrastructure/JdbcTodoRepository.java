@@ -3,66 +3,122 @@ package com.example.todo.infrastructure;
 import com.example.todo.application.TodoRepository;
 import com.example.todo.domain.*;
 import com.example.todo.infrastructure.entity.TodoEntity;
-import com.example.todo.infrastructure.entity.TodoIdSequence;
+import com.example.todo.infrastructure.entity.TodoVersionEntity;
+import com.example.todo.infrastructure.id.TodoIdGenerator;
+import nablarch.common.dao.DeferredEntityList;
 import nablarch.common.dao.EntityList;
 import nablarch.common.dao.UniversalDao;
+import nablarch.core.repository.di.config.externalize.annotation.ComponentRef;
 import nablarch.core.repository.di.config.externalize.annotation.SystemRepositoryComponent;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @SystemRepositoryComponent
 public class JdbcTodoRepository implements TodoRepository {
 
+    private final TodoIdGenerator todoIdGenerator;
+
+    public JdbcTodoRepository(@ComponentRef("todoIdGenerator") TodoIdGenerator todoIdGenerator) {
+        this.todoIdGenerator = todoIdGenerator;
+    }
+
     @Override
-    public List<Todo> list(UserId userId) {
-        Map<String, String> condition = Map.of("userId", userId.value());
+    public List<Todo> list(UserId userId, TodoId after, int limit) {
+        Map<String, Object> condition = Map.of(
+                "userId", userId.value(),
+                "afterTodoId", after != null ? after.value() : 0L,
+                "limit", limit);
         EntityList<TodoEntity> todoEntities = UniversalDao.findAllBySqlFile(TodoEntity.class, "FIND_BY_USERID", condition);
 
         return todoEntities.stream().map(this::createTodo).collect(Collectors.toList());
     }
 
+    @Override
+    public void forEach(UserId userId, Consumer<Todo> action) {
+        // 遅延ロードにより、fetchSize件ずつ読み込みながら処理する
+        try (DeferredEntityList<TodoEntity> todoEntities = (DeferredEntityList<TodoEntity>) UniversalDao.defer()
+                .findAllBySqlFile(TodoEntity.class, "FIND_ALL_BY_USERID", Map.of("userId", userId.value()))) {
+            for (TodoEntity todoEntity : todoEntities) {
+                action.accept(createTodo(todoEntity));
+            }
+        }
+    }
+
     @Override
     public TodoId nextId() {
-        TodoIdSequence todoIdSequence = UniversalDao.findBySqlFile(TodoIdSequence.class, "NEXT_TODO_ID", new Object[0]);
-        return new TodoId(todoIdSequence.getTodoId());
+        return todoIdGenerator.next();
+    }
+
+    @Override
+    public List<TodoId> nextIds(int count) {
+        return todoIdGenerator.next(count);
     }
 
     @Override
     public void add(Todo todo) {
-        TodoEntity todoEntity = new TodoEntity();
-        todoEntity.setTodoId(todo.id().value());
-        todoEntity.setText(todo.text().value());
-        todoEntity.setCompleted(todo.status() == TodoStatus.COMPLETED);
-        todoEntity.setUserId(todo.userId().value());
-        UniversalDao.insert(todoEntity);
+        UniversalDao.insert(createEntity(todo));
+        incrementVersion(todo.userId());
     }
 
     @Override
-    public Todo get(TodoId todoId) {
-        TodoEntity todoEntity = UniversalDao.findById(TodoEntity.class, todoId.value());
-        return createTodo(todoEntity);
+    public void addAll(List<Todo> todos) {
+        List<TodoEntity> todoEntities = todos.stream().map(this::createEntity).collect(Collectors.toList());
+        UniversalDao.batchInsert(todoEntities);
+        todos.stream().map(Todo::userId).distinct().forEach(this::incrementVersion);
     }
 
     @Override
-    public void update(Todo todo) {
+    public Todo updateStatus(UserId userId, TodoId todoId, TodoStatus status) {
+        // 所有者の確認と更新を1回のSQLで行い、更新後の行をRETURNINGで受け取る
+        Map<String, Object> condition = Map.of(
+                "todoId", todoId.value(),
+                "userId", userId.value(),
+                "completed", status == TodoStatus.COMPLETED);
+        EntityList<TodoEntity> todoEntities = UniversalDao.findAllBySqlFile(TodoEntity.class, "UPDATE_STATUS", condition);
+        if (todoEntities.isEmpty()) {
+            return null;
+        }
+        incrementVersion(userId);
+        return createTodo(todoEntities.get(0));
+    }
+
+    @Override
+    public boolean delete(UserId userId, TodoId todoId) {
+        Map<String, Object> condition = Map.of(
+                "todoId", todoId.value(),
+                "userId", userId.value());
+        boolean deleted = !UniversalDao.findAllBySqlFile(TodoEntity.class, "DELETE_BY_ID", condition).isEmpty();
+        if (deleted) {
+            incrementVersion(userId);
+        }
+        return deleted;
+    }
+
+    @Override
+    public long version(UserId userId) {
+        EntityList<TodoVersionEntity> versions = UniversalDao.findAllBySqlFile(
+                TodoVersionEntity.class, "FIND_BY_USERID", Map.of("userId", userId.value()));
+        return versions.isEmpty() ? 0L : versions.get(0).getVersion();
+    }
+
+    private void incrementVersion(UserId userId) {
+        // ToDoの変更と同じトランザクションで更新し、RETURNINGで結果を受け取る
+        UniversalDao.findAllBySqlFile(TodoVersionEntity.class, "INCREMENT", Map.of("userId", userId.value()));
+    }
+
+    private TodoEntity createEntity(Todo todo) {
         TodoEntity todoEntity = new TodoEntity();
         todoEntity.setTodoId(todo.id().value());
         todoEntity.setText(todo.text().value());
         todoEntity.setCompleted(todo.status() == TodoStatus.COMPLETED);
         todoEntity.setUserId(todo.userId().value());
-        UniversalDao.update(todoEntity);
-    }
-
-    @Override
-    public void delete(TodoId todoId) {
-        TodoEntity todoEntity = new TodoEntity();
-        todoEntity.setTodoId(todoId.value());
-        UniversalDao.delete(todoEntity);
+        return todoEntity;
     }
 
-    private Todo createTodo(TodoEntity entity) {
+    Todo createTodo(TodoEntity entity) {
         return new Todo(
                 new TodoId(entity.getTodoId()),
                 new TodoText(entity.getText()),
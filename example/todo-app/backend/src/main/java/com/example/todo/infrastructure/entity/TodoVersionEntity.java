@@ -0,0 +1,30 @@
+package com.example.todo.infrastructure.entity;
+
+import javax.persistence.*;
+
+@Entity
+@Table(name = "todo_version")
+@Access(AccessType.FIELD)
+public class TodoVersionEntity {
+
+    @Id
+    private String userId;
+
+    private Long version;
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.todo.infrastructure.id;
+
+import com.example.todo.domain.TodoId;
+import com.example.todo.infrastructure.entity.TodoIdSequence;
+import nablarch.common.dao.UniversalDao;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+
+/**
+ * シーケンス（todo_id）からまとめて予約したIDをメモリ上で払い出す。
+ *
+ * 予約は1回のSQLでblockSize件のnextvalを取得して行う。
+ * 予約したIDを使い切るまではデータベースにアクセスしないため、採番のたびのラウンドトリップが無くなる。
+ * 値はシーケンスから取得しているため、複数のバックエンドが同時に動いていても重複しない。
+ * ただし、バックエンドの停止時に使い切っていないIDは欠番になる。
+ * 予約はロックを取得して1スレッドずつ行う。SQLの実行中もロックを保持するため、仮想スレッドで実行しても
+ * キャリアスレッドを占有しないよう、synchronizedではなく{@link ReentrantLock}を使う。
+ */
+public class HiLoTodoIdGenerator implements TodoIdGenerator {
+
+    /** 指定した件数のIDをシーケンスから予約する */
+    private final IntFunction<long[]> sequence;
+
+    private int blockSize = 50;
+
+    private final Lock reserveLock = new ReentrantLock();
+
+    private volatile Block current = Block.EMPTY;
+
+    public HiLoTodoIdGenerator() {
+        this(HiLoTodoIdGenerator::nextvals);
+    }
+
+    HiLoTodoIdGenerator(IntFunction<long[]> sequence) {
+        this.sequence = sequence;
+    }
+
+    public void setBlockSize(int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSize must be greater than 0. blockSize=[" + blockSize + "]");
+        }
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public TodoId next() {
+        while (true) {
+            Block block = current;
+            long id = block.next();
+            if (id != Block.EXHAUSTED) {
+                return new TodoId(id);
+            }
+            reserve(block);
+        }
+    }
+
+    private void reserve(Block exhausted) {
+        reserveLock.lock();
+        try {
+            // 待っている間に他のスレッドが予約済みであれば、そのブロックを使う
+            if (current != exhausted) {
+                return;
+            }
+            current = new Block(sequence.apply(blockSize));
+        } finally {
+            reserveLock.unlock();
+        }
+    }
+
+    private static long[] nextvals(int size) {
+        Map<String, Integer> condition = Map.of("size", size);
+        return UniversalDao.findAllBySqlFile(TodoIdSequence.class, "NEXT_TODO_IDS", condition)
+                .stream()
+                .mapToLong(TodoIdSequence::getTodoId)
+                .toArray();
+    }
+
+    private static class Block {
+
+        static final long EXHAUSTED = -1L;
+
+        static final Block EMPTY = new Block(new long[0]);
+
+        private final long[] ids;
+
+        private final AtomicInteger index = new AtomicInteger();
+
+        Block(long[] ids) {
+            this.ids = ids;
+        }
+
+        long next() {
+            int i = index.getAndIncrement();
+            return i < ids.length ? ids[i] : EXHAUSTED;
+        }
+    }
+}
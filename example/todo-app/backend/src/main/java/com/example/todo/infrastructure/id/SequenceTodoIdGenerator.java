@@ -0,0 +1,30 @@
+package com.example.todo.infrastructure.id;
+
+import com.example.todo.domain.TodoId;
+import com.example.todo.infrastructure.entity.TodoIdSequence;
+import nablarch.common.dao.UniversalDao;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 採番のたびにシーケンス（todo_id）から値を取得する。
+ */
+public class SequenceTodoIdGenerator implements TodoIdGenerator {
+
+    @Override
+    public TodoId next() {
+        TodoIdSequence todoIdSequence = UniversalDao.findBySqlFile(TodoIdSequence.class, "NEXT_TODO_ID", new Object[0]);
+        return new TodoId(todoIdSequence.getTodoId());
+    }
+
+    @Override
+    public List<TodoId> next(int count) {
+        Map<String, Integer> condition = Map.of("size", count);
+        return UniversalDao.findAllBySqlFile(TodoIdSequence.class, "NEXT_TODO_IDS", condition)
+                .stream()
+                .map(todoIdSequence -> new TodoId(todoIdSequence.getTodoId()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.todo.infrastructure.id;
+
+import com.example.todo.domain.TodoId;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 時刻・ノードID・カウンタを組み合わせてIDを生成する（Snowflake方式）。データベースにはアクセスしない。
+ *
+ * IDは上位から、基準日時（2020-01-01T00:00:00Z）からの経過ミリ秒41ビット、ノードID5ビット、カウンタ7ビットで構成する。
+ * フロントエンド（JavaScript）で精度が落ちないように、全体を53ビットに収めている。
+ *
+ * ノードIDはバックエンドごとに異なる値（0～31）を設定すること。
+ * 同じミリ秒内でカウンタを使い切った場合や、時計が戻った場合は、時刻部分を1ミリ秒ずつ先に進めて採番を続ける。
+ */
+public class SnowflakeTodoIdGenerator implements TodoIdGenerator {
+
+    static final long EPOCH_MILLIS = 1577836800000L;
+
+    static final int NODE_ID_BITS = 5;
+
+    static final int SEQUENCE_BITS = 7;
+
+    private static final long MAX_NODE_ID = (1L << NODE_ID_BITS) - 1;
+
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    private final LongSupplier clock;
+
+    private long nodeId = -1;
+
+    /** 直前に払い出した時刻部分とカウンタ（時刻 << SEQUENCE_BITS | カウンタ） */
+    private final AtomicLong lastState = new AtomicLong();
+
+    public SnowflakeTodoIdGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    SnowflakeTodoIdGenerator(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    public void setNodeId(long nodeId) {
+        if (nodeId < 0 || MAX_NODE_ID < nodeId) {
+            throw new IllegalArgumentException("nodeId must be between 0 and " + MAX_NODE_ID + ". nodeId=[" + nodeId + "]");
+        }
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public TodoId next() {
+        if (nodeId < 0) {
+            throw new IllegalStateException("nodeId must be set.");
+        }
+        long state = nextState();
+        long timestamp = state >>> SEQUENCE_BITS;
+        long sequence = state & MAX_SEQUENCE;
+        return new TodoId((timestamp << (NODE_ID_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence);
+    }
+
+    private long nextState() {
+        while (true) {
+            long last = lastState.get();
+            long now = clock.getAsLong() - EPOCH_MILLIS;
+            long lastTimestamp = last >>> SEQUENCE_BITS;
+            long next;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else if ((last & MAX_SEQUENCE) < MAX_SEQUENCE) {
+                next = last + 1;
+            } else {
+                next = (lastTimestamp + 1) << SEQUENCE_BITS;
+            }
+            if (lastState.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.todo.infrastructure.id;
+
+import com.example.todo.domain.TodoId;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ToDoのIDを採番する。
+ *
+ * 採番方式はrest-component-configuration.xmlの"todoIdGenerator"で切り替える。
+ * 実装は複数のリクエストスレッドから同時に呼び出されるため、スレッドセーフでなければならない。
+ */
+public interface TodoIdGenerator {
+
+    TodoId next();
+
+    default List<TodoId> next(int count) {
+        List<TodoId> todoIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            todoIds.add(next());
+        }
+        return todoIds;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.system.nablarch;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 仮想スレッドを作成する{@link ThreadFactory}。java21プロファイルでビルドした場合だけ含まれる。
+ *
+ * {@link nablarch.core.ThreadContext}はInheritableThreadLocalに保存するため、
+ * 作成元のスレッド（Jettyのスレッド）の内容を引き継がないようにし、ハンドラキューで設定した内容だけを使う。
+ * この場合コンテキストクラスローダーも引き継がないため、必要であれば作成したスレッドで設定すること。
+ */
+public class VirtualThreadFactory implements ThreadFactory {
+
+    private final ThreadFactory factory;
+
+    public VirtualThreadFactory(String namePrefix) {
+        factory = Thread.ofVirtual()
+                .name(namePrefix, 0)
+                .inheritInheritableThreadLocals(false)
+                .factory();
+    }
+
+    @Override
+    public Thread newThread(Runnable task) {
+        return factory.newThread(task);
+    }
+}
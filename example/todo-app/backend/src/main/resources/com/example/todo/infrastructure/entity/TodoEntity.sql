@@ -5,5 +5,37 @@ FROM
     todo
 WHERE
         user_id = :userId
+    AND todo_id > :afterTodoId
+ORDER BY
+    todo_id
+LIMIT :limit
+
+UPDATE_STATUS =
+UPDATE
+    todo
+SET
+    completed = :completed
+WHERE
+        todo_id = :todoId
+    AND user_id = :userId
+RETURNING
+    *
+
+DELETE_BY_ID =
+DELETE FROM
+    todo
+WHERE
+        todo_id = :todoId
+    AND user_id = :userId
+RETURNING
+    *
+
+FIND_ALL_BY_USERID =
+select
+    *
+FROM
+    todo
+WHERE
+    user_id = :userId
 ORDER BY
     todo_id
@@ -1 +1,3 @@
 NEXT_TODO_ID = select nextval('todo_id') AS todo_id;
+
+NEXT_TODO_IDS = select nextval('todo_id') AS todo_id FROM generate_series(1, :size);
@@ -0,0 +1,18 @@
+FIND_BY_USERID =
+select
+    *
+FROM
+    todo_version
+WHERE
+    user_id = :userId
+
+-- 行ロックを取得してからnextvalを評価するため、同じユーザーの更新が並行しても、コミット順にバージョンが大きくなる
+INCREMENT =
+INSERT INTO
+    todo_version (user_id, version)
+VALUES
+    (:userId, nextval('todo_version_seq'))
+ON CONFLICT (user_id) DO UPDATE SET
+    version = nextval('todo_version_seq')
+RETURNING
+    *
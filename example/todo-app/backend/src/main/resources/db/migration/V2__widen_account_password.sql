@@ -0,0 +1 @@
+ALTER TABLE account ALTER COLUMN password TYPE VARCHAR(255);
@@ -0,0 +1,3 @@
+CREATE UNIQUE INDEX user_profile_name_idx ON user_profile (name);
+
+CREATE INDEX todo_user_id_todo_id_idx ON todo (user_id, todo_id);
@@ -0,0 +1,9 @@
+CREATE TABLE user_session
+(
+    session_id          VARCHAR(100) NOT NULL,
+    session_object      BYTEA        NOT NULL,
+    expiration_datetime TIMESTAMP    NOT NULL,
+    PRIMARY KEY (session_id)
+);
+
+CREATE INDEX user_session_expiration_datetime_idx ON user_session (expiration_datetime);
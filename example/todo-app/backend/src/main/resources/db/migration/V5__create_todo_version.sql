@@ -0,0 +1,15 @@
+CREATE SEQUENCE todo_version_seq
+    INCREMENT BY 1
+    MAXVALUE 9223372036854775807
+    START WITH 1
+    NO CYCLE;
+
+CREATE TABLE todo_version
+(
+    user_id   VARCHAR(40) NOT NULL,
+    version   BIGINT      NOT NULL,
+    PRIMARY KEY (user_id),
+    FOREIGN KEY (user_id) REFERENCES account (user_id)
+);
+
+INSERT INTO todo_version (user_id, version) SELECT user_id, nextval('todo_version_seq') FROM account;
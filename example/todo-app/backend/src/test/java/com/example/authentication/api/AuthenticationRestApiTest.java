@@ -75,6 +75,28 @@ public class AuthenticationRestApiTest extends SimpleRestTestSupport {
         openApiValidator.validate("login", request, response);
     }
 
+    @Test
+    public void 平文で登録されたパスワードはログイン時に再ハッシュされ_再度ログインできる() throws Exception {
+        assertStatusCode("ログイン", HttpResponse.Status.NO_CONTENT, login("login-test", "pass"));
+        assertStatusCode("再度ログイン", HttpResponse.Status.NO_CONTENT, login("login-test", "pass"));
+        assertStatusCode("ログイン", HttpResponse.Status.UNAUTHORIZED, login("login-test", "fail"));
+    }
+
+    @Test
+    public void サインアップしたユーザーでログインできる() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        RestMockHttpRequest request = post("/api/signup")
+                .setHeader("Content-Type", MediaType.APPLICATION_JSON)
+                .setBody(Map.of(
+                        "userName", "signup-login",
+                        "password", "pass"));
+        attachCsrfToken(request, executionContext);
+        sendRequestWithContext(request, executionContext);
+
+        assertStatusCode("ログイン", HttpResponse.Status.NO_CONTENT, login("signup-login", "pass"));
+        assertStatusCode("ログイン", HttpResponse.Status.UNAUTHORIZED, login("signup-login", "fail"));
+    }
+
     @Test
     public void パスワードが不一致の場合_ログインに失敗して401になる() throws Exception {
         ExecutionContext executionContext = new ExecutionContext();
@@ -121,6 +143,17 @@ public class AuthenticationRestApiTest extends SimpleRestTestSupport {
         openApiValidator.validate("logout", request, response);
     }
 
+    private HttpResponse login(String userName, String password) {
+        ExecutionContext executionContext = new ExecutionContext();
+        RestMockHttpRequest request = post("/api/login")
+                .setHeader("Content-Type", MediaType.APPLICATION_JSON)
+                .setBody(Map.of(
+                        "userName", userName,
+                        "password", password));
+        attachCsrfToken(request, executionContext);
+        return sendRequestWithContext(request, executionContext);
+    }
+
     private void attachCsrfToken(RestMockHttpRequest request, ExecutionContext context) {
         HttpResponse response = sendRequest(get("/api/csrf_token"));
         assertStatusCode("CSRFトークンの取得", HttpResponse.Status.OK, response);
@@ -0,0 +1,123 @@
+package com.example.authentication.application.password;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.fail;
+
+public class PasswordHasherTest {
+
+    private final BlockingPasswordEncoder encoder = new BlockingPasswordEncoder();
+
+    private PasswordHasher sut;
+
+    @After
+    public void tearDown() {
+        encoder.release.countDown();
+        sut.dispose();
+    }
+
+    @Test
+    public void 専用スレッドでハッシュ計算を行う() {
+        sut = createHasher(1, 1, 5000);
+        encoder.release.countDown();
+
+        String encoded = sut.hash("pass");
+
+        assertThat(encoder.threadName, startsWith("password-hasher-"));
+        assertThat(sut.matches("pass", encoded), is(true));
+    }
+
+    @Test
+    public void ダミーのハッシュとの照合も専用スレッドで同じ計算を行う() {
+        sut = createHasher(1, 1, 5000);
+        encoder.release.countDown();
+
+        sut.matchesDummy("pass");
+        sut.matchesDummy("pass");
+
+        assertThat(encoder.matchesThreadName, startsWith("password-hasher-"));
+        assertThat(encoder.matchesCount.get(), is(2));
+    }
+
+    @Test
+    public void 計算中のスレッドと待ち行列が埋まっている場合_待たずに拒否する() throws Exception {
+        sut = createHasher(1, 1, 5000);
+        CompletableFuture.runAsync(() -> sut.hash("running"));
+        encoder.started.await(5, TimeUnit.SECONDS);
+        CompletableFuture.runAsync(() -> sut.hash("queued"));
+        // 2件目が待ち行列に入るまで待つ
+        Thread.sleep(200);
+
+        long start = System.nanoTime();
+        try {
+            sut.hash("rejected");
+            fail();
+        } catch (PasswordHasherBusyException e) {
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(lessThan(1000L)));
+        }
+    }
+
+    @Test(expected = PasswordHasherBusyException.class)
+    public void 結果を待つ時間が上限を超えた場合_拒否する() {
+        sut = createHasher(1, 1, 100);
+
+        sut.hash("timeout");
+    }
+
+    private PasswordHasher createHasher(int threads, int queueCapacity, long timeoutMillis) {
+        PasswordHasher hasher = new PasswordHasher();
+        hasher.setPasswordEncoder(encoder);
+        hasher.setThreads(threads);
+        hasher.setQueueCapacity(queueCapacity);
+        hasher.setTimeoutMillis(timeoutMillis);
+        hasher.initialize();
+        return hasher;
+    }
+
+    /**
+     * 解放されるまでハッシュ計算を終えない{@link Pbkdf2PasswordEncoder}。
+     */
+    private static class BlockingPasswordEncoder extends Pbkdf2PasswordEncoder {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private volatile String threadName;
+
+        private volatile String matchesThreadName;
+
+        private final AtomicInteger matchesCount = new AtomicInteger();
+
+        BlockingPasswordEncoder() {
+            setIterations(1000);
+        }
+
+        @Override
+        public String encode(String password) {
+            threadName = Thread.currentThread().getName();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.encode(password);
+        }
+
+        @Override
+        public boolean matches(String password, String encodedPassword) {
+            matchesThreadName = Thread.currentThread().getName();
+            matchesCount.incrementAndGet();
+            return super.matches(password, encodedPassword);
+        }
+    }
+}
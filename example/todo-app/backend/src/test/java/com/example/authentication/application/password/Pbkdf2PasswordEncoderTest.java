@@ -0,0 +1,57 @@
+package com.example.authentication.application.password;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class Pbkdf2PasswordEncoderTest {
+
+    private Pbkdf2PasswordEncoder sut;
+
+    @Before
+    public void setUp() {
+        sut = new Pbkdf2PasswordEncoder();
+        sut.setIterations(1000);
+    }
+
+    @Test
+    public void ハッシュ化したパスワードと照合できる() {
+        String encoded = sut.encode("pass");
+
+        assertThat(encoded, startsWith("pbkdf2-sha256$1000$"));
+        assertThat(sut.matches("pass", encoded), is(true));
+        assertThat(sut.matches("fail", encoded), is(false));
+    }
+
+    @Test
+    public void 同じパスワードでもソルトが異なるためハッシュ値は異なる() {
+        assertThat(sut.encode("pass"), is(not(sut.encode("pass"))));
+    }
+
+    @Test
+    public void 反復回数を変更しても変更前のハッシュ値と照合でき_再ハッシュが必要と判定される() {
+        String encoded = sut.encode("pass");
+        assertThat(sut.needsRehash(encoded), is(false));
+
+        sut.setIterations(2000);
+
+        assertThat(sut.matches("pass", encoded), is(true));
+        assertThat(sut.needsRehash(encoded), is(true));
+    }
+
+    @Test
+    public void ハッシュ化されていないパスワードは平文として照合し_再ハッシュが必要と判定される() {
+        assertThat(sut.matches("pass", "pass"), is(true));
+        assertThat(sut.matches("fail", "pass"), is(false));
+        assertThat(sut.needsRehash("pass"), is(true));
+    }
+
+    @Test
+    public void 形式が不正なハッシュ値とは一致しない() {
+        assertThat(sut.matches("pass", "pbkdf2-sha256$1000$!!!"), is(false));
+        assertThat(sut.matches("pass", "pbkdf2-sha256$x$c2FsdA$aGFzaA"), is(false));
+        assertThat(sut.needsRehash("pbkdf2-sha256$1000$!!!"), is(true));
+    }
+}
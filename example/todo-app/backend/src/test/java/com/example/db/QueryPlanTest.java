@@ -0,0 +1,156 @@
+package com.example.db;
+
+import com.example.system.nablarch.FlywayExecutor;
+import nablarch.core.db.statement.BasicSqlLoader;
+import nablarch.core.repository.SystemRepository;
+import nablarch.test.event.TestEventDispatcher;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SQLファイルに定義された全てのSQLの実行計画に、シーケンシャルスキャンが含まれないことを確認する。
+ *
+ * 件数が少ないとインデックスがあってもシーケンシャルスキャンが選ばれるため、大量のデータを登録してから確認する。
+ * SQLを追加してバインド変数が増えた場合は、{@link #PARAMETERS}に値を追加すること。
+ */
+public class QueryPlanTest extends TestEventDispatcher {
+
+    private static final int USER_COUNT = 10000;
+
+    private static final int TODO_COUNT = 200000;
+
+    /** 実行計画を取得する際に、バインド変数の代わりに埋め込む値 */
+    private static final Map<String, String> PARAMETERS = Map.of(
+            "userId", "'user-5000'",
+            "userName", "'name-5000'",
+            "todoId", "150000",
+            "afterTodoId", "0",
+            "limit", "100",
+            "completed", "true",
+            "size", "10");
+
+    private static final Pattern NAMED_PARAMETER = Pattern.compile("(?<!:):([a-zA-Z][a-zA-Z0-9]*)");
+
+    @BeforeClass
+    public static void setUpClass() throws SQLException {
+        FlywayExecutor flywayExecutor = SystemRepository.get("dbMigration");
+        flywayExecutor.migrate(true);
+
+        try (Connection connection = dataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO account (user_id, password)"
+                    + " SELECT 'user-' || i, 'pass' FROM generate_series(1, " + USER_COUNT + ") AS i");
+            statement.execute("INSERT INTO user_profile (user_id, name)"
+                    + " SELECT 'user-' || i, 'name-' || i FROM generate_series(1, " + USER_COUNT + ") AS i");
+            statement.execute("INSERT INTO todo (todo_id, text, completed, user_id)"
+                    + " SELECT 100000 + i, 'todo-' || i, i % 2 = 0, 'user-' || (i % " + USER_COUNT + " + 1)"
+                    + " FROM generate_series(1, " + TODO_COUNT + ") AS i");
+            statement.execute("INSERT INTO todo_version (user_id, version)"
+                    + " SELECT 'user-' || i, i FROM generate_series(1, " + USER_COUNT + ") AS i");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        FlywayExecutor flywayExecutor = SystemRepository.get("dbMigration");
+        flywayExecutor.migrate(true);
+    }
+
+    @Test
+    public void 全てのSQLがシーケンシャルスキャンを行わない() throws Exception {
+        Map<String, String> sqls = loadAllSql();
+        assertThat(sqls.keySet(), not(empty()));
+
+        List<String> violations = new ArrayList<>();
+        try (Connection connection = dataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            for (Map.Entry<String, String> sql : sqls.entrySet()) {
+                String plan = explain(statement, bind(sql.getKey(), sql.getValue()));
+                if (plan.contains("Seq Scan")) {
+                    violations.add(sql.getKey() + System.lineSeparator() + plan);
+                }
+            }
+        }
+
+        assertTrue(String.join(System.lineSeparator(), violations), violations.isEmpty());
+    }
+
+    private static String explain(Statement statement, String sql) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("EXPLAIN " + sql)) {
+            StringBuilder plan = new StringBuilder();
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1)).append(System.lineSeparator());
+            }
+            return plan.toString();
+        }
+    }
+
+    private static String bind(String sqlName, String sql) {
+        Matcher matcher = NAMED_PARAMETER.matcher(sql);
+        StringBuilder bound = new StringBuilder();
+        while (matcher.find()) {
+            String value = PARAMETERS.get(matcher.group(1));
+            if (value == null) {
+                throw new IllegalStateException("no sample value for parameter. sql = " + sqlName + ", parameter = " + matcher.group(1));
+            }
+            matcher.appendReplacement(bound, Matcher.quoteReplacement(value));
+        }
+        matcher.appendTail(bound);
+        return bound.toString();
+    }
+
+    /**
+     * クラスパス上のSQLファイルを全て読み込み、"リソース名#SQL_ID"をキーとしたSQLを返す。
+     */
+    private static Map<String, String> loadAllSql() throws IOException, URISyntaxException {
+        BasicSqlLoader sqlLoader = new BasicSqlLoader();
+        sqlLoader.setFileEncoding("utf-8");
+
+        Map<String, String> sqls = new TreeMap<>();
+        Enumeration<URL> roots = QueryPlanTest.class.getClassLoader().getResources("com/example");
+        while (roots.hasMoreElements()) {
+            Path root = Paths.get(roots.nextElement().toURI());
+            for (Path file : findSqlFiles(root)) {
+                String resource = root.getParent().getParent().relativize(file).toString()
+                        .replace(root.getFileSystem().getSeparator(), ".")
+                        .replaceFirst("\\.sql$", "");
+                sqlLoader.getValue(resource).forEach((id, sql) -> sqls.put(resource + "#" + id, sql));
+            }
+        }
+        return sqls;
+    }
+
+    private static List<Path> findSqlFiles(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(file -> file.toString().endsWith(".sql")).collect(Collectors.toList());
+        }
+    }
+
+    private static DataSource dataSource() {
+        return SystemRepository.get("dataSource");
+    }
+}
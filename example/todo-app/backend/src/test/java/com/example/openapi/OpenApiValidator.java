@@ -135,7 +135,8 @@ public class OpenApiValidator {
             }
 
         }
-        validator.validate(request);
+        // URLからの操作の特定では/api/todos/bulkと/api/todos/{todoId}を区別できないため、操作IDで特定した操作で検証する
+        validator.validate(request, getPathItem(operationId), operation);
     }
 
     public void validateResponse(String operationId, Response response) throws ValidationException {
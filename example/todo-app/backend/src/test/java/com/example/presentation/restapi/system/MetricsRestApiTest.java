@@ -0,0 +1,118 @@
+package com.example.presentation.restapi.system;
+
+import com.example.openapi.OpenApiValidator;
+import com.example.system.nablarch.FlywayExecutor;
+import com.example.todo.infrastructure.CachingTodoRepository;
+import nablarch.core.repository.SystemRepository;
+import nablarch.common.web.session.SessionUtil;
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.RestMockHttpRequest;
+import nablarch.test.core.http.SimpleRestTestSupport;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
+public class MetricsRestApiTest extends SimpleRestTestSupport {
+
+    private static final String TOKEN = "dev-metrics-token";
+
+    public static OpenApiValidator openApiValidator = new OpenApiValidator(Paths.get("rest-api-specification/openapi.yaml"));
+
+    @BeforeClass
+    public static void setUpClass() {
+        FlywayExecutor flywayExecutor = SystemRepository.get("dbMigration");
+        flywayExecutor.migrate(true);
+    }
+
+    @Before
+    public void clearTodoListCache() {
+        CachingTodoRepository todoRepository = SystemRepository.get("todoRepository");
+        todoRepository.invalidateAll();
+    }
+
+    @Test
+    public void RESTAPIでルートごとのメトリクスが取得できる() throws Exception {
+        String before = scrape();
+
+        ExecutionContext executionContext = new ExecutionContext();
+        SessionUtil.put(executionContext, "user.id", "1001");
+        sendRequestWithContext(get("/api/todos"), executionContext);
+        sendRequest(get("/api/todos"));
+
+        RestMockHttpRequest request = get("/api/metrics").setHeader("Authorization", "Bearer " + TOKEN);
+        HttpResponse response = sendRequest(request);
+
+        assertStatusCode("メトリクスの取得", HttpResponse.Status.OK, response);
+        assertThat(response.getContentType(), equalTo(MetricsAction.CONTENT_TYPE));
+
+        String after = response.getBodyString();
+        String todos = "{method=\"GET\",route=\"/api/todos\"";
+        assertThat(value(after, "http_server_requests_seconds_count" + todos + "}")
+                - value(before, "http_server_requests_seconds_count" + todos + "}"), equalTo(2.0));
+        assertThat(value(after, "http_server_request_errors_total" + todos + ",class=\"4xx\"}")
+                - value(before, "http_server_request_errors_total" + todos + ",class=\"4xx\"}"), equalTo(1.0));
+        String findByUserId = "{entity=\"TodoEntity\",sql_id=\"FIND_BY_USERID\"}";
+        assertThat(value(after, "db_statement_seconds_count" + findByUserId)
+                - value(before, "db_statement_seconds_count" + findByUserId), equalTo(1.0));
+        assertThat(value(after, "db_statement_rows_total" + findByUserId)
+                - value(before, "db_statement_rows_total" + findByUserId), equalTo(2.0));
+        assertThat(after, containsString("http_server_requests_seconds" + todos + ",quantile=\"0.99\"}"));
+        assertThat(after, containsString("hikaricp_connection_acquire_seconds_count{pool=\"primary\"}"));
+        assertThat(after, containsString("http_server_requests_in_flight{method=\"GET\",route=\"/api/metrics\"} 1"));
+
+        openApiValidator.validate("getMetrics", request, response);
+    }
+
+    @Test
+    public void RESTAPIでToDo一覧のキャッシュのメトリクスが取得できる() {
+        String before = scrape();
+
+        ExecutionContext executionContext = new ExecutionContext();
+        SessionUtil.put(executionContext, "user.id", "1001");
+        sendRequestWithContext(get("/api/todos"), executionContext);
+        executionContext = new ExecutionContext();
+        SessionUtil.put(executionContext, "user.id", "1001");
+        sendRequestWithContext(get("/api/todos"), executionContext);
+
+        String after = scrape();
+        assertThat(value(after, "todo_list_cache_misses_total") - value(before, "todo_list_cache_misses_total"), equalTo(1.0));
+        assertThat(value(after, "todo_list_cache_hits_total") - value(before, "todo_list_cache_hits_total"), equalTo(1.0));
+        assertThat(value(after, "todo_list_cache_size"), equalTo(1.0));
+        assertThat(after, containsString("# TYPE todo_list_cache_evictions_total counter"));
+    }
+
+    @Test
+    public void Bearerトークンがない場合は401を返す() throws Exception {
+        RestMockHttpRequest request = get("/api/metrics");
+        HttpResponse response = sendRequest(request);
+
+        assertStatusCode("トークンなし", HttpResponse.Status.UNAUTHORIZED, response);
+        assertThat(response.getHeader("WWW-Authenticate"), equalTo("Bearer"));
+        openApiValidator.validate("getMetrics", request, response);
+    }
+
+    @Test
+    public void Bearerトークンが一致しない場合は401を返す() {
+        HttpResponse response = sendRequest(get("/api/metrics").setHeader("Authorization", "Bearer " + TOKEN + "x"));
+
+        assertStatusCode("トークンの不一致", HttpResponse.Status.UNAUTHORIZED, response);
+    }
+
+    private String scrape() {
+        return sendRequest(get("/api/metrics").setHeader("Authorization", "Bearer " + TOKEN)).getBodyString();
+    }
+
+    private static double value(String metrics, String sample) {
+        Matcher matcher = Pattern.compile("^" + Pattern.quote(sample) + " (\\S+)$", Pattern.MULTILINE).matcher(metrics);
+        return matcher.find() ? Double.parseDouble(matcher.group(1)) : 0;
+    }
+}
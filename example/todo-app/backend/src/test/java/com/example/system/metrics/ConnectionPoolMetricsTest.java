@@ -0,0 +1,66 @@
+package com.example.system.metrics;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+
+public class ConnectionPoolMetricsTest {
+
+    @Test
+    public void 複数のプールのメトリクスをpoolラベルで区別してメトリクスごとにまとめて書き出す() {
+        ConnectionPoolMetrics primary = new ConnectionPoolMetrics();
+        ConnectionPoolMetrics replica = new ConnectionPoolMetrics();
+        IMetricsTracker primaryTracker = primary.create("primary", poolStats(3));
+        replica.create("replica", poolStats(1));
+        primaryTracker.recordConnectionTimeout();
+
+        StringBuilder out = new StringBuilder();
+        ConnectionPoolMetrics.writeTo(out, Arrays.asList(primary, replica));
+
+        String metrics = out.toString();
+        assertEquals(1, count(metrics, "# TYPE hikaricp_active_connections gauge"));
+        assertThat(metrics, containsString("hikaricp_active_connections{pool=\"primary\"} 3\nhikaricp_active_connections{pool=\"replica\"} 1\n"));
+        assertEquals(1, count(metrics, "# TYPE hikaricp_connection_acquire_seconds summary"));
+        assertThat(metrics, containsString("hikaricp_connection_timeout_total{pool=\"primary\"} 1\n"));
+        assertThat(metrics, containsString("hikaricp_connection_timeout_total{pool=\"replica\"} 0\n"));
+    }
+
+    @Test
+    public void 開始していないプールは書き出さない() {
+        ConnectionPoolMetrics primary = new ConnectionPoolMetrics();
+        primary.create("primary", poolStats(2));
+
+        StringBuilder out = new StringBuilder();
+        ConnectionPoolMetrics.writeTo(out, Arrays.asList(primary, new ConnectionPoolMetrics()));
+
+        assertThat(out.toString(), containsString("pool=\"primary\""));
+        assertEquals(0, count(out.toString(), "pool=\"replica\""));
+        assertEquals(0, count(out.toString(), "pool=\"null\""));
+    }
+
+    private static PoolStats poolStats(int active) {
+        return new PoolStats(0) {
+            @Override
+            protected void update() {
+                this.activeConnections = active;
+            }
+        };
+    }
+
+    private static int count(String text, String pattern) {
+        Matcher matcher = Pattern.compile(Pattern.quote(pattern)).matcher(text);
+        int count = 0;
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+}
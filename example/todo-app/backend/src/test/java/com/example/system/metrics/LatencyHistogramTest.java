@@ -0,0 +1,47 @@
+package com.example.system.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void 値はそれを含むバケットに分類される() {
+        for (long value = 0; value < 1_000_000; value += 7) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(value <= LatencyHistogram.bucketUpperBound(index));
+            assertTrue(index == 0 || value > LatencyHistogram.bucketUpperBound(index - 1));
+        }
+        int last = LatencyHistogram.bucketIndex(LatencyHistogram.MAX_TRACKABLE_VALUE);
+        assertEquals(LatencyHistogram.MAX_TRACKABLE_VALUE, LatencyHistogram.bucketUpperBound(last));
+    }
+
+    @Test
+    public void 分位数は相対誤差の範囲で求まる() {
+        LatencyHistogram sut = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            sut.record(value);
+        }
+
+        LatencyHistogram.Snapshot snapshot = sut.snapshot();
+        assertEquals(10_000, snapshot.count());
+        assertEquals(50_005_000, snapshot.sum());
+        assertEquals(10_000, snapshot.max());
+        assertWithin(5_000, snapshot.valueAtQuantile(0.5));
+        assertWithin(9_900, snapshot.valueAtQuantile(0.99));
+        assertWithin(9_990, snapshot.valueAtQuantile(0.999));
+        assertEquals(10_000, snapshot.valueAtQuantile(1.0));
+    }
+
+    @Test
+    public void 記録がない場合の分位数は負の値になる() {
+        assertEquals(-1, new LatencyHistogram().snapshot().valueAtQuantile(0.5));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected " + expected + " but was " + actual,
+                actual >= expected && actual <= expected * 1.0625);
+    }
+}
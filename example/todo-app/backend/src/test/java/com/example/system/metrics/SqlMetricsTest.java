@@ -0,0 +1,59 @@
+package com.example.system.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class SqlMetricsTest {
+
+    private final SqlMetrics sut = new SqlMetrics();
+
+    @Test
+    public void エンティティとSQLIDの組み合わせごとに集計する() {
+        StatementMetrics findByUserId = sut.statement(String.class, "FIND_BY_USERID");
+        assertSame(findByUserId, sut.statement(String.class, "FIND_BY_USERID"));
+        assertNotSame(findByUserId, sut.statement(Integer.class, "FIND_BY_USERID"));
+        assertNotSame(findByUserId, sut.statement(String.class, "insert"));
+
+        sut.record(findByUserId, TimeUnit.MILLISECONDS.toNanos(3), 10, false);
+        sut.record(findByUserId, TimeUnit.MILLISECONDS.toNanos(5), 0, true);
+
+        assertEquals(2, findByUserId.latency().snapshot().count());
+        assertEquals(10, findByUserId.rows());
+        assertEquals(1, findByUserId.errors());
+        assertThat(sut.scrape(), containsString(
+                "db_statement_seconds_count{entity=\"String\",sql_id=\"FIND_BY_USERID\"} 2\n"));
+    }
+
+    @Test
+    public void 閾値を超えたSQLとリクエストを数える() {
+        sut.setStatementThreshold(3);
+        sut.setRequestTimeThresholdMillis(100);
+        sut.setSlowStatementThresholdMillis(50);
+        StatementMetrics findById = sut.statement(String.class, "findById");
+
+        sut.beginRequest();
+        for (int i = 0; i < 4; i++) {
+            sut.record(findById, TimeUnit.MILLISECONDS.toNanos(1), 1, false);
+        }
+        sut.endRequest("GET", "/api/todos");
+
+        sut.beginRequest();
+        sut.record(findById, TimeUnit.MILLISECONDS.toNanos(60), 1, false);
+        sut.record(findById, TimeUnit.MILLISECONDS.toNanos(60), 1, false);
+        sut.endRequest("GET", "/api/todos");
+
+        sut.record(findById, TimeUnit.MILLISECONDS.toNanos(1), 1, false);
+
+        assertEquals(2, findById.slowExecutions());
+        String metrics = sut.scrape();
+        assertThat(metrics, containsString("db_requests_flagged_total{reason=\"statements\"} 1\n"));
+        assertThat(metrics, containsString("db_requests_flagged_total{reason=\"time\"} 1\n"));
+    }
+}
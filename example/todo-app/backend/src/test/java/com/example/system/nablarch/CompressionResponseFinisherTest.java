@@ -0,0 +1,95 @@
+package com.example.system.nablarch;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CompressionResponseFinisherTest {
+
+    private static final String BODY = "[" + "{\"id\":1,\"text\":\"やること\",\"completed\":false},".repeat(100) + "]";
+
+    private final CompressionResponseFinisher sut = new CompressionResponseFinisher();
+
+    @Test
+    public void gzipを受け付ける場合はgzipで圧縮する() throws IOException {
+        HttpResponse response = jsonResponse(BODY);
+        sut.finish(request("deflate, gzip"), response, new ExecutionContext());
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertEquals("W/\"1\"", response.getHeader("ETag"));
+        assertEquals(BODY, read(new GZIPInputStream(response.getBodyStream())));
+    }
+
+    @Test
+    public void deflateだけを受け付ける場合はdeflateで圧縮する() throws IOException {
+        HttpResponse response = jsonResponse(BODY);
+        sut.finish(request("gzip;q=0, deflate"), response, new ExecutionContext());
+
+        assertEquals("deflate", response.getHeader("Content-Encoding"));
+        assertEquals(BODY, read(new InflaterInputStream(response.getBodyStream())));
+    }
+
+    @Test
+    public void 使い回したDeflaterでも同じ結果になる() throws IOException {
+        sut.setPoolSize(1);
+        for (int i = 0; i < 3; i++) {
+            HttpResponse response = jsonResponse(BODY + i);
+            sut.finish(request("gzip"), response, new ExecutionContext());
+            assertEquals(BODY + i, read(new GZIPInputStream(response.getBodyStream())));
+        }
+    }
+
+    @Test
+    public void 小さいボディや304は圧縮しない() {
+        HttpResponse small = jsonResponse("[]");
+        sut.finish(request("gzip"), small, new ExecutionContext());
+        assertNull(small.getHeader("Content-Encoding"));
+        assertEquals("[]", small.getBodyString());
+
+        HttpResponse notModified = new HttpResponse(304);
+        sut.finish(request("gzip"), notModified, new ExecutionContext());
+        assertNull(notModified.getHeader("Content-Encoding"));
+    }
+
+    @Test
+    public void 圧縮を受け付けない場合は圧縮しない() {
+        HttpResponse response = jsonResponse(BODY);
+        sut.finish(request(null), response, new ExecutionContext());
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertEquals(BODY, response.getBodyString());
+    }
+
+    private static HttpRequest request(String acceptEncoding) {
+        return new MockHttpRequest("GET /api/todos HTTP/1.1\r\n"
+                + (acceptEncoding != null ? "Accept-Encoding: " + acceptEncoding + "\r\n" : "")
+                + "\r\n");
+    }
+
+    private static HttpResponse jsonResponse(String body) {
+        HttpResponse response = new HttpResponse(200);
+        response.setContentType("application/json;charset=utf-8");
+        response.setHeader("ETag", "\"1\"");
+        response.write(body);
+        return response;
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.system.nablarch;
+
+import com.example.system.metrics.ConnectionPoolMetrics;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class ConnectionPoolSizerTest {
+
+    private HikariDataSource dataSource;
+
+    private ConnectionPoolSizer sut;
+
+    @Before
+    public void setUp() {
+        ConnectionPoolMetrics connectionPoolMetrics = new ConnectionPoolMetrics();
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:postgresql://localhost:5432/postgres");
+        dataSource.setUsername("postgres");
+        dataSource.setPassword("example");
+        dataSource.setMaximumPoolSize(2);
+        dataSource.setMinimumIdle(2);
+        dataSource.setConnectionTimeout(10000);
+        dataSource.setMetricsTrackerFactory(connectionPoolMetrics);
+
+        sut = new ConnectionPoolSizer();
+        sut.setDataSource(dataSource);
+        sut.setConnectionPoolMetrics(connectionPoolMetrics);
+        sut.setEnabled(true);
+        sut.setMinPoolSize(2);
+        sut.setMaxPoolSize(3);
+        sut.setStep(1);
+        sut.setAcquireThresholdMillis(0);
+        sut.setShrinkAfterIntervals(2);
+        sut.setIntervalMillis(TimeUnit.HOURS.toMillis(1));
+        sut.initialize();
+    }
+
+    @After
+    public void tearDown() {
+        sut.dispose();
+        dataSource.close();
+    }
+
+    @Test
+    public void 取得待ちがある場合は上限まで大きくし余裕がある状態が続いたら小さくする() throws Exception {
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            CompletableFuture<Connection> third = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return dataSource.getConnection();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            while (dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection() == 0) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(3, sut.adjust());
+            third.get(5, TimeUnit.SECONDS).close();
+
+            assertEquals("上限を超えては大きくしない", 3, sut.adjust());
+        }
+
+        assertEquals("1回目は余裕があっても小さくしない", 3, sut.adjust());
+        assertEquals(2, sut.adjust());
+        assertEquals("下限を超えては小さくしない", 2, sut.adjust());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.system.nablarch;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+public class CookieSessionStoreTest {
+
+    private static final String OLD_KEY = key(1);
+
+    private static final String NEW_KEY = key(2);
+
+    private static final byte[] ENTRIES = "user.id=1001".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void 暗号化した内容を復号できる() {
+        CookieSessionStore sut = store(NEW_KEY);
+
+        String value = sut.seal("session-1", ENTRIES, 2000);
+        CookieSessionStore.Loaded loaded = sut.unseal("session-1", value, 1000);
+
+        assertArrayEquals(ENTRIES, loaded.entries);
+        assertEquals(2000, loaded.expiresAt);
+        assertNotEquals("同じ内容でも毎回異なる値になる", value, sut.seal("session-1", ENTRIES, 2000));
+    }
+
+    @Test
+    public void 改ざんされた場合は復号しない() {
+        CookieSessionStore sut = store(NEW_KEY);
+        byte[] sealed = Base64.getUrlDecoder().decode(sut.seal("session-1", ENTRIES, 2000));
+        sealed[sealed.length - 1] ^= 1;
+
+        assertNull(sut.unseal("session-1", Base64.getUrlEncoder().withoutPadding().encodeToString(sealed), 1000));
+        assertNull(sut.unseal("session-1", "not base64!", 1000));
+    }
+
+    @Test
+    public void 有効期限切れやセッションIDが異なる場合は復号しない() {
+        CookieSessionStore sut = store(NEW_KEY);
+        String value = sut.seal("session-1", ENTRIES, 2000);
+
+        assertNull(sut.unseal("session-1", value, 2001));
+        assertNull(sut.unseal("session-2", value, 1000));
+    }
+
+    @Test
+    public void 古い鍵で暗号化した内容は鍵が残っている間だけ復号できる() {
+        String value = store(OLD_KEY).seal("session-1", ENTRIES, 2000);
+
+        assertArrayEquals(ENTRIES, store(NEW_KEY, OLD_KEY).unseal("session-1", value, 1000).entries);
+        assertNull(store(NEW_KEY).unseal("session-1", value, 1000));
+    }
+
+    private static CookieSessionStore store(String... keys) {
+        CookieSessionStore store = new CookieSessionStore();
+        store.setKeys(Arrays.asList(keys));
+        store.setExpires(1800L);
+        return store;
+    }
+
+    private static String key(int seed) {
+        byte[] key = new byte[32];
+        Arrays.fill(key, (byte) seed);
+        return Base64.getEncoder().encodeToString(key);
+    }
+}
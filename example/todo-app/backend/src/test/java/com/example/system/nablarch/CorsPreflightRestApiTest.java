@@ -0,0 +1,44 @@
+package com.example.system.nablarch;
+
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.RestMockHttpRequest;
+import nablarch.test.core.http.SimpleRestTestSupport;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+public class CorsPreflightRestApiTest extends SimpleRestTestSupport {
+
+    @Test
+    public void 許可したオリジンのプリフライトリクエストにはキャッシュできるレスポンスを返す() {
+        HttpResponse response = sendRequest(preflight("http://localhost:3000"));
+
+        assertStatusCode("プリフライトリクエスト", HttpResponse.Status.NO_CONTENT, response);
+        assertThat(response.getHeader("Access-Control-Allow-Origin"), equalTo("http://localhost:3000"));
+        assertThat(response.getHeader("Access-Control-Allow-Methods"), equalTo("OPTIONS, GET, POST, PUT, DELETE, PATCH"));
+        assertThat(response.getHeader("Access-Control-Allow-Headers"), equalTo("Content-Type, X-CSRF-TOKEN, If-None-Match"));
+        assertThat(response.getHeader("Access-Control-Max-Age"), equalTo("7200"));
+        // セッションストアより前で応答するため、セッションのクッキーを発行しない（JSESSIONIDはテスト用のサーバが発行する）
+        assertThat(response.getHeader("Set-Cookie"), anyOf(nullValue(), not(containsString("NABLARCH_SID"))));
+    }
+
+    @Test
+    public void 許可しないオリジンのプリフライトリクエストにはCORSのヘッダを返さない() {
+        HttpResponse response = sendRequest(preflight("http://example.com"));
+
+        assertStatusCode("プリフライトリクエスト", HttpResponse.Status.NO_CONTENT, response);
+        assertThat(response.getHeader("Access-Control-Allow-Origin"), nullValue());
+        assertThat(response.getHeader("Access-Control-Allow-Methods"), nullValue());
+    }
+
+    private RestMockHttpRequest preflight(String origin) {
+        return put("/api/todos/2001").setMethod("OPTIONS")
+                .setHeader("Origin", origin)
+                .setHeader("Access-Control-Request-Method", "PUT");
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.system.nablarch;
+
+import com.example.system.metrics.SqlMetrics;
+import com.example.system.metrics.StatementMetrics;
+import nablarch.common.dao.DaoContext;
+import nablarch.common.dao.EntityList;
+import nablarch.common.dao.NoDataException;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class InstrumentedDaoContextTest {
+
+    private final SqlMetrics sqlMetrics = new SqlMetrics();
+
+    /**
+     * メソッド名に応じた結果を返す委譲先を作成する。
+     */
+    private InstrumentedDaoContext sut(RuntimeException error) {
+        DaoContext delegate = (DaoContext) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {DaoContext.class},
+                (proxy, method, args) -> {
+                    if (error != null) {
+                        throw error;
+                    }
+                    switch (method.getName()) {
+                        case "findAllBySqlFile":
+                            return new EntityList<>(Arrays.asList("a", "b", "c"));
+                        case "update":
+                            return 2;
+                        default:
+                            return method.getReturnType() == DaoContext.class ? proxy : null;
+                    }
+                });
+        return new InstrumentedDaoContext(delegate, sqlMetrics);
+    }
+
+    @Test
+    public void 検索と更新の行数を記録する() {
+        InstrumentedDaoContext sut = sut(null);
+
+        sut.findAllBySqlFile(String.class, "FIND_ALL");
+        sut.update("entity");
+        sut.batchInsert(Arrays.asList("a", "b"));
+
+        assertStatement("FIND_ALL", 1, 3, 0);
+        assertStatement("update", 1, 2, 0);
+        assertStatement("batchInsert", 1, 2, 0);
+    }
+
+    @Test
+    public void 遅延ロードの検索は行数を0として記録する() {
+        InstrumentedDaoContext sut = sut(null);
+
+        sut.defer().findAllBySqlFile(String.class, "FIND_ALL");
+
+        assertStatement("FIND_ALL", 1, 0, 0);
+    }
+
+    @Test
+    public void 一括処理のエンティティがない場合は記録しない() {
+        sut(null).batchDelete(Collections.emptyList());
+
+        assertEquals(0, sqlMetrics.statement(Object.class, "batchDelete").latency().snapshot().count());
+    }
+
+    @Test
+    public void 主キーでの検索でデータがない場合はエラーとして記録しない() {
+        try {
+            sut(new NoDataException()).findById(String.class, 1L);
+            fail();
+        } catch (NoDataException e) {
+            assertStatement("findById", 1, 0, 0);
+        }
+    }
+
+    @Test
+    public void 件数の取得でデータがない場合はエラーとして記録する() {
+        try {
+            sut(new NoDataException()).countBySqlFile(String.class, "COUNT", null);
+            fail();
+        } catch (NoDataException e) {
+            assertStatement("COUNT", 1, 0, 1);
+        }
+    }
+
+    private void assertStatement(String sqlId, long count, long rows, long errors) {
+        StatementMetrics statement = sqlMetrics.statement(String.class, sqlId);
+        assertEquals(count, statement.latency().snapshot().count());
+        assertEquals(rows, statement.rows());
+        assertEquals(errors, statement.errors());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.system.nablarch;
+
+import nablarch.common.handler.DbConnectionManagementHandler;
+import nablarch.common.handler.TransactionManagementHandler;
+import nablarch.core.db.connection.ConnectionFactory;
+import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.db.statement.SqlResultSet;
+import nablarch.core.db.transaction.JdbcTransactionFactory;
+import nablarch.core.repository.SystemRepository;
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.Handler;
+import nablarch.test.event.TestEventDispatcher;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class LazyConnectionFactoryTest extends TestEventDispatcher {
+
+    private final AtomicInteger acquired = new AtomicInteger();
+
+    private final DbConnectionManagementHandler connectionHandler = new DbConnectionManagementHandler();
+
+    private final TransactionManagementHandler transactionHandler = new TransactionManagementHandler();
+
+    @Before
+    public void setUp() {
+        ConnectionFactory connectionFactory = SystemRepository.get("connectionFactory");
+        LazyConnectionFactory lazyConnectionFactory = new LazyConnectionFactory();
+        lazyConnectionFactory.setConnectionFactory(connectionName -> {
+            acquired.incrementAndGet();
+            return connectionFactory.getConnection(connectionName);
+        });
+        connectionHandler.setConnectionFactory(lazyConnectionFactory);
+
+        JdbcTransactionFactory transactionFactory = new JdbcTransactionFactory();
+        transactionFactory.setIsolationLevel("SERIALIZABLE");
+        LazyTransactionFactory lazyTransactionFactory = new LazyTransactionFactory();
+        lazyTransactionFactory.setTransactionFactory(transactionFactory);
+        transactionHandler.setTransactionFactory(lazyTransactionFactory);
+    }
+
+    @Test
+    public void データベースを使わない場合は接続を取得しない() {
+        assertEquals("ok", handle((data, context) -> "ok"));
+        assertEquals(0, acquired.get());
+        assertFalse(DbConnectionContext.containConnection("transaction"));
+    }
+
+    @Test
+    public void 最初にデータベースを使うときに接続を取得してトランザクションを開始する() {
+        Object result = handle((data, context) -> {
+            SqlResultSet first = DbConnectionContext.getConnection().prepareStatement("SHOW transaction_isolation").retrieve();
+            DbConnectionContext.getConnection().prepareStatement("SELECT 1").retrieve();
+            return first.get(0).getString("transaction_isolation");
+        });
+
+        assertEquals("serializable", result);
+        assertEquals(1, acquired.get());
+        assertFalse(DbConnectionContext.containConnection("transaction"));
+    }
+
+    @Test
+    public void データベースを使わずに例外が発生した場合も接続を取得しない() {
+        try {
+            handle((data, context) -> {
+                throw new IllegalStateException("error");
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("error", e.getMessage());
+        }
+        assertEquals(0, acquired.get());
+    }
+
+    private Object handle(Handler<Object, Object> action) {
+        ExecutionContext context = new ExecutionContext()
+                .addHandler(connectionHandler)
+                .addHandler(transactionHandler)
+                .addHandler(action);
+        return context.handleNext(null);
+    }
+}
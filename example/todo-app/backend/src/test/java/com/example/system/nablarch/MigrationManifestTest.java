@@ -0,0 +1,63 @@
+package com.example.system.nablarch;
+
+import nablarch.core.repository.SystemRepository;
+import nablarch.test.event.TestEventDispatcher;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MigrationManifestTest extends TestEventDispatcher {
+
+    @BeforeClass
+    public static void setUpClass() {
+        FlywayExecutor flywayExecutor = SystemRepository.get("dbMigration");
+        flywayExecutor.migrate(true);
+    }
+
+    @Test
+    public void マニフェストがマイグレーション用のSQLファイルと一致する() throws IOException {
+        MigrationManifest expected = MigrationManifest.scan(Paths.get("src/main/resources/db/migration"));
+
+        assertEquals("SQLファイルを変更した場合は、MigrationManifestのmainでマニフェストを作り直すこと",
+                expected.getChecksums(), MigrationManifest.load("db/migration-manifest.properties").getChecksums());
+    }
+
+    @Test
+    public void 適用済みのマイグレーションと一致する場合はチェックサムもFlywayと一致する() throws IOException {
+        Map<String, Integer> checksums = new HashMap<>(MigrationManifest.scan(Paths.get("src/main/resources/db/migration")).getChecksums());
+        checksums.putAll(MigrationManifest.scan(Paths.get("src/test/resources/db/testdata")).getChecksums());
+
+        assertTrue(new MigrationManifest(checksums).isApplied(dataSource()));
+    }
+
+    @Test
+    public void 適用していないマイグレーションがある場合は一致しない() throws IOException {
+        Map<String, Integer> checksums = new HashMap<>(MigrationManifest.scan(Paths.get("src/main/resources/db/migration")).getChecksums());
+        checksums.putAll(MigrationManifest.scan(Paths.get("src/test/resources/db/testdata")).getChecksums());
+        checksums.put("10000", 0);
+
+        assertFalse(new MigrationManifest(checksums).isApplied(dataSource()));
+    }
+
+    @Test
+    public void チェックサムが異なる場合は一致しない() throws IOException {
+        Map<String, Integer> checksums = new HashMap<>(MigrationManifest.scan(Paths.get("src/main/resources/db/migration")).getChecksums());
+        checksums.putAll(MigrationManifest.scan(Paths.get("src/test/resources/db/testdata")).getChecksums());
+        checksums.put("1", checksums.get("1") + 1);
+
+        assertFalse(new MigrationManifest(checksums).isApplied(dataSource()));
+    }
+
+    private static DataSource dataSource() {
+        return SystemRepository.get("dataSource");
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.system.nablarch;
+
+import nablarch.common.web.session.SessionEntry;
+import nablarch.common.web.session.encoder.JavaSerializeStateEncoder;
+import nablarch.core.db.connection.AppDbConnection;
+import nablarch.core.db.statement.SqlResultSet;
+import nablarch.core.db.transaction.SimpleDbTransactionExecutor;
+import nablarch.core.db.transaction.SimpleDbTransactionManager;
+import nablarch.core.repository.SystemRepository;
+import nablarch.fw.ExecutionContext;
+import nablarch.test.event.TestEventDispatcher;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NearCachedDbStoreTest extends TestEventDispatcher {
+
+    private final ExecutionContext context = new ExecutionContext();
+
+    private SimpleDbTransactionManager dbManager;
+
+    private NearCachedDbStore sut;
+
+    @BeforeClass
+    public static void setUpClass() {
+        FlywayExecutor flywayExecutor = SystemRepository.get("dbMigration");
+        flywayExecutor.migrate(true);
+    }
+
+    @Before
+    public void setUp() {
+        dbManager = SystemRepository.get("simpleDbManager");
+        sut = new NearCachedDbStore();
+        sut.setDbManager(dbManager);
+        sut.setStateEncoder(new JavaSerializeStateEncoder());
+        sut.setExpires(1800L);
+        sut.setCleanupBatchSize(2);
+        execute("DELETE FROM user_session");
+    }
+
+    @After
+    public void tearDown() {
+        sut.dispose();
+    }
+
+    @Test
+    public void キャッシュが新しい間はデータベースから読み込まない() {
+        sut.save("session-1", entries("1001"), context);
+        execute("DELETE FROM user_session");
+
+        assertEquals("1001", sut.load("session-1", context).get(0).getValue());
+
+        sut.setFreshMillis(0);
+        assertTrue(sut.load("session-1", context).isEmpty());
+    }
+
+    @Test
+    public void 他のバックエンドで保存した内容を読み込める() {
+        sut.save("session-1", entries("1001"), context);
+
+        NearCachedDbStore other = new NearCachedDbStore();
+        other.setDbManager(dbManager);
+        other.setStateEncoder(new JavaSerializeStateEncoder());
+        other.setExpires(1800L);
+
+        assertEquals("1001", other.load("session-1", context).get(0).getValue());
+    }
+
+    @Test
+    public void 内容が変わらない場合は有効期限の延長をまとめる() throws Exception {
+        sut.save("session-1", entries("1001"), context);
+        Timestamp saved = expiration("session-1");
+
+        Thread.sleep(10);
+        sut.save("session-1", entries("1001"), context);
+        assertEquals(saved, expiration("session-1"));
+
+        sut.setTouchIntervalMillis(0);
+        sut.save("session-1", entries("1001"), context);
+        assertTrue(expiration("session-1").after(saved));
+    }
+
+    @Test
+    public void 期限切れのセッションを分けて削除する() {
+        for (int i = 0; i < 5; i++) {
+            execute("INSERT INTO user_session VALUES ('expired-" + i + "', '\\x00', CURRENT_TIMESTAMP - INTERVAL '1 minute')");
+        }
+        sut.save("session-1", entries("1001"), context);
+
+        assertEquals(5, sut.cleanup());
+        assertEquals(1, count());
+    }
+
+    private List<SessionEntry> entries(String userId) {
+        return Collections.singletonList(new SessionEntry("user.id", userId, sut));
+    }
+
+    private Timestamp expiration(String sessionId) {
+        return retrieve("SELECT expiration_datetime FROM user_session WHERE session_id = '" + sessionId + "'")
+                .get(0).getTimestamp("expiration_datetime");
+    }
+
+    private int count() {
+        return retrieve("SELECT COUNT(*) AS session_count FROM user_session").get(0).getInteger("session_count");
+    }
+
+    private SqlResultSet retrieve(String sql) {
+        return new SimpleDbTransactionExecutor<SqlResultSet>(dbManager) {
+            @Override
+            public SqlResultSet execute(AppDbConnection connection) {
+                return connection.prepareStatement(sql).retrieve();
+            }
+        }.doTransaction();
+    }
+
+    private void execute(String sql) {
+        new SimpleDbTransactionExecutor<Void>(dbManager) {
+            @Override
+            public Void execute(AppDbConnection connection) {
+                connection.prepareStatement(sql).executeUpdate();
+                return null;
+            }
+        }.doTransaction();
+    }
+}
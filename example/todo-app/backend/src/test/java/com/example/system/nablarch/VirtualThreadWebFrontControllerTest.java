@@ -0,0 +1,25 @@
+package com.example.system.nablarch;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.fail;
+
+public class VirtualThreadWebFrontControllerTest {
+
+    @Test
+    public void 仮想スレッドに対応していないJDBCドライバの場合は有効にできない() {
+        try {
+            new VirtualThreadWebFrontController().setEnabled(true);
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("version=[42.2]"));
+        }
+    }
+
+    @Test
+    public void 無効にする場合はJDBCドライバを確認しない() {
+        new VirtualThreadWebFrontController().setEnabled(false);
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.system.nablarch.handler;
+
+import nablarch.common.web.WebConfigFinder;
+import nablarch.common.web.csrf.CsrfTokenUtil;
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+import nablarch.fw.web.servlet.ServletExecutionContext;
+import org.junit.Test;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HmacCsrfTokenVerificationHandlerTest {
+
+    private static final String OLD_KEY = key(1);
+
+    private static final String NEW_KEY = key(2);
+
+    private static final byte[] NONCE = nonce(1);
+
+    @Test
+    public void ノンスから作ったトークンを検証できる() {
+        HmacCsrfTokenVerificationHandler sut = handler(NEW_KEY);
+
+        String token = sut.token(NONCE);
+
+        assertTrue(sut.verify(token, NONCE));
+        assertEquals("同じノンスからは同じトークンになる", token, sut.token(NONCE));
+        assertFalse("別のノンスのトークンは使えない", sut.verify(token, nonce(2)));
+    }
+
+    @Test
+    public void 改ざんや不正な形式のトークンは検証に失敗する() {
+        HmacCsrfTokenVerificationHandler sut = handler(NEW_KEY);
+        byte[] token = Base64.getUrlDecoder().decode(sut.token(NONCE));
+        token[token.length - 1] ^= 1;
+
+        assertFalse(sut.verify(Base64.getUrlEncoder().withoutPadding().encodeToString(token), NONCE));
+        assertFalse(sut.verify(Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(token, 10)), NONCE));
+        assertFalse(sut.verify("not base64!", NONCE));
+        assertFalse(sut.verify(null, NONCE));
+    }
+
+    @Test
+    public void 古い鍵で作ったトークンは鍵が残っている間だけ使える() {
+        String token = handler(OLD_KEY).token(NONCE);
+
+        assertTrue(handler(NEW_KEY, OLD_KEY).verify(token, NONCE));
+        assertFalse(handler(NEW_KEY).verify(token, NONCE));
+        assertEquals("トークンは先頭の鍵で作る", handler(NEW_KEY).token(NONCE), handler(NEW_KEY, OLD_KEY).token(NONCE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 短い鍵は設定できない() {
+        handler(Base64.getEncoder().encodeToString(new byte[16]));
+    }
+
+    @Test
+    public void トークンを取得するとノンスをHttpOnlyのクッキーで発行する() {
+        HmacCsrfTokenVerificationHandler sut = handler(NEW_KEY);
+        Servlet servlet = new Servlet();
+        String[] tokens = new String[2];
+
+        HttpResponse response = handle(sut, "GET", null, servlet, context -> {
+            tokens[0] = sut.getCsrfToken(context);
+            tokens[1] = sut.getCsrfToken(context);
+        });
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals("同じリクエストではノンスを1回だけ発行する", 1, servlet.addedCookies.size());
+        Cookie cookie = servlet.addedCookies.get(0);
+        assertEquals("NABLARCH_CSRF", cookie.getName());
+        assertTrue(cookie.isHttpOnly());
+        assertEquals(tokens[0], tokens[1]);
+        assertTrue(sut.verify(tokens[0], Base64.getUrlDecoder().decode(cookie.getValue())));
+    }
+
+    @Test
+    public void 発行したノンスのクッキーとトークンを送ると更新のリクエストを処理する() {
+        HmacCsrfTokenVerificationHandler sut = handler(NEW_KEY);
+
+        HttpResponse response = handle(sut, "POST", sut.token(NONCE), servlet(NONCE), context -> {
+        });
+
+        assertEquals(200, response.getStatusCode());
+    }
+
+    @Test
+    public void トークンがない_不正_または削除した鍵で作られた場合は更新のリクエストを400にする() {
+        HmacCsrfTokenVerificationHandler sut = handler(NEW_KEY);
+        String otherNonceToken = sut.token(nonce(2));
+        String removedKeyToken = handler(OLD_KEY).token(NONCE);
+
+        for (String token : Arrays.asList(null, "not base64!", otherNonceToken, removedKeyToken)) {
+            HttpResponse response = handle(sut, "POST", token, servlet(NONCE), context -> {
+                throw new AssertionError("後続のハンドラは呼ばれない");
+            });
+            assertEquals("token=" + token, 400, response.getStatusCode());
+        }
+        assertEquals("ノンスのクッキーがない場合", 400, handle(sut, "PUT", sut.token(NONCE), new Servlet(), context -> {
+        }).getStatusCode());
+    }
+
+    @Test
+    public void 参照のリクエストはトークンがなくても処理する() {
+        HmacCsrfTokenVerificationHandler sut = handler(NEW_KEY);
+        Servlet servlet = new Servlet();
+
+        HttpResponse response = handle(sut, "GET", null, servlet, context -> {
+        });
+
+        assertEquals(200, response.getStatusCode());
+        assertTrue("トークンを取得しない場合はノンスを発行しない", servlet.addedCookies.isEmpty());
+    }
+
+    @Test
+    public void ログインでトークンの再生成を指示するとノンスを発行し直して以前のトークンを使えなくする() {
+        HmacCsrfTokenVerificationHandler sut = handler(NEW_KEY);
+        Servlet servlet = servlet(NONCE);
+        String before = sut.token(NONCE);
+
+        HttpResponse response = handle(sut, "POST", before, servlet, CsrfTokenUtil::regenerateCsrfToken);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(1, servlet.addedCookies.size());
+        byte[] regenerated = Base64.getUrlDecoder().decode(servlet.addedCookies.get(0).getValue());
+        assertNotEquals(Base64.getEncoder().encodeToString(NONCE), Base64.getEncoder().encodeToString(regenerated));
+        assertFalse(sut.verify(before, regenerated));
+    }
+
+    @Test
+    public void セッションストアにアクセスしない() {
+        HmacCsrfTokenVerificationHandler sut = handler(NEW_KEY);
+        Servlet servlet = servlet(NONCE);
+
+        handle(sut, "POST", sut.token(NONCE), servlet, context -> sut.getCsrfToken(context));
+        handle(sut, "GET", null, new Servlet(), context -> sut.getCsrfToken(context));
+
+        // SessionStoreHandlerを通していないため、セッションストアを使う場合はSessionManagerがなく例外になる
+        assertFalse(servlet.sessionAccessed);
+    }
+
+    private static HttpResponse handle(HmacCsrfTokenVerificationHandler sut, String method, String token,
+                                       Servlet servlet, Consumer<ServletExecutionContext> next) {
+        MockHttpRequest request = new MockHttpRequest("GET /api/todos HTTP/1.1\r\n\r\n");
+        request.setMethod(method);
+        if (token != null) {
+            request.getHeaderMap().put(WebConfigFinder.getWebConfig().getCsrfTokenHeaderName(), token);
+        }
+        ServletExecutionContext context = new ServletExecutionContext(servlet.request(), servlet.response(), servlet.servletContext());
+        context.addHandler((Object data, ExecutionContext ctx) -> {
+            next.accept((ServletExecutionContext) ctx);
+            return new HttpResponse(200);
+        });
+        return sut.handle(request, context);
+    }
+
+    private static Servlet servlet(byte[] nonce) {
+        Servlet servlet = new Servlet();
+        servlet.requestCookies.add(new Cookie("NABLARCH_CSRF", Base64.getUrlEncoder().withoutPadding().encodeToString(nonce)));
+        return servlet;
+    }
+
+    /**
+     * クッキーとリクエストの属性だけを扱うサーブレットのリクエストとレスポンス。セッションを取得した場合は記録する。
+     */
+    private static class Servlet {
+
+        private final List<Cookie> requestCookies = new ArrayList<>();
+
+        private final List<Cookie> addedCookies = new ArrayList<>();
+
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        private boolean sessionAccessed;
+
+        HttpServletRequest request() {
+            return proxy(HttpServletRequest.class, (name, args) -> {
+                switch (name) {
+                    case "getCookies":
+                        return requestCookies.isEmpty() ? null : requestCookies.toArray(new Cookie[0]);
+                    case "getAttribute":
+                        return attributes.get((String) args[0]);
+                    case "setAttribute":
+                        return attributes.put((String) args[0], args[1]);
+                    case "removeAttribute":
+                        return attributes.remove((String) args[0]);
+                    case "getAttributeNames":
+                        return Collections.enumeration(new ArrayList<>(attributes.keySet()));
+                    case "getHeaderNames":
+                        return Collections.emptyEnumeration();
+                    case "getContextPath":
+                        return "";
+                    case "getRequestURI":
+                        return "/api/todos";
+                    case "getSession":
+                        sessionAccessed = true;
+                        return null;
+                    default:
+                        return null;
+                }
+            });
+        }
+
+        HttpServletResponse response() {
+            return proxy(HttpServletResponse.class, (name, args) -> {
+                if (name.equals("addCookie")) {
+                    addedCookies.add((Cookie) args[0]);
+                }
+                return null;
+            });
+        }
+
+        ServletContext servletContext() {
+            return proxy(ServletContext.class, (name, args) -> null);
+        }
+
+        private static <T> T proxy(Class<T> type, BiFunction<String, Object[], Object> handler) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                Object result = handler.apply(method.getName(), args);
+                if (result == null && method.getReturnType() == boolean.class) {
+                    return false;
+                }
+                if (result == null && method.getReturnType() == int.class) {
+                    return 0;
+                }
+                return result;
+            }));
+        }
+    }
+
+    private static HmacCsrfTokenVerificationHandler handler(String... keys) {
+        HmacCsrfTokenVerificationHandler handler = new HmacCsrfTokenVerificationHandler();
+        handler.setEnabled(true);
+        handler.setKeys(List.of(keys));
+        return handler;
+    }
+
+    private static String key(int seed) {
+        byte[] key = new byte[32];
+        Arrays.fill(key, (byte) seed);
+        return Base64.getEncoder().encodeToString(key);
+    }
+
+    private static byte[] nonce(int seed) {
+        byte[] nonce = new byte[16];
+        Arrays.fill(nonce, (byte) seed);
+        return nonce;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.system.nablarch.handler;
+
+import nablarch.common.web.session.SessionUtil;
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.Handler;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+import nablarch.test.event.TestEventDispatcher;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ReadReplicaRoutingHandlerTest extends TestEventDispatcher {
+
+    private final ReadReplicaRoutingHandler sut = new ReadReplicaRoutingHandler();
+
+    private final ExecutionContext context = new ExecutionContext();
+
+    /** 最後にリクエストを処理したデータベース */
+    private String handledBy;
+
+    /** 後続のハンドラが返すステータスコード */
+    private int statusCode = 200;
+
+    private final Handler<HttpRequest, Object> primary = (request, context) -> respond("primary");
+
+    private final Handler<HttpRequest, Object> replica = (request, context) -> respond("replica");
+
+    @Before
+    public void setUp() {
+        sut.setBasePackage("com.example");
+        sut.setApplicationPath("/api");
+        sut.setReplicaEnabled(true);
+        sut.setReadYourWritesMillis(60000);
+        sut.setPrimaryHandlers(Collections.singletonList(primary));
+        sut.setReplicaHandlers(Collections.singletonList(replica));
+        sut.initialize();
+    }
+
+    @Test
+    public void ReadOnlyが付いたリソースメソッドは参照用のデータベースで処理する() {
+        assertEquals("replica", handle("GET /api/todos?limit=10"));
+        assertEquals("primary", handle("POST /api/todos"));
+        assertEquals("primary", handle("GET /api/csrf_token"));
+    }
+
+    @Test
+    public void 指定したHTTPメソッドのリソースメソッドは参照用のデータベースで処理する() {
+        sut.setReadOnlyHttpMethods(Collections.singletonList("GET"));
+        sut.initialize();
+
+        assertEquals("replica", handle("GET /api/csrf_token"));
+        assertEquals("primary", handle("DELETE /api/todos/2001"));
+    }
+
+    @Test
+    public void 更新したユーザーの参照は一定期間更新用のデータベースで処理する() {
+        SessionUtil.put(context, "user.id", "1001");
+
+        assertEquals("replica", handle("GET /api/todos"));
+        assertEquals("primary", handle("PUT /api/todos/2001"));
+        assertEquals("primary", handle("GET /api/todos"));
+
+        SessionUtil.put(context, ReadReplicaRoutingHandler.READ_YOUR_WRITES_UNTIL, System.currentTimeMillis() - 1);
+        assertEquals("replica", handle("GET /api/todos"));
+    }
+
+    @Test
+    public void 更新のリクエストが2xx以外を返した場合は期間を記録しない() {
+        SessionUtil.put(context, "user.id", "1001");
+        statusCode = 400;
+
+        assertEquals("primary", handle("PUT /api/todos/2001"));
+
+        assertNull(SessionUtil.orNull(context, ReadReplicaRoutingHandler.READ_YOUR_WRITES_UNTIL));
+        statusCode = 200;
+        assertEquals("replica", handle("GET /api/todos"));
+    }
+
+    @Test
+    public void ログインしていない場合は更新しても期間を記録しない() {
+        assertEquals("primary", handle("POST /api/signup"));
+
+        assertNull(SessionUtil.orNull(context, ReadReplicaRoutingHandler.READ_YOUR_WRITES_UNTIL));
+    }
+
+    @Test
+    public void 参照用のデータベースを使わない場合は全て更新用のデータベースで処理する() {
+        sut.setReplicaEnabled(false);
+
+        assertEquals("primary", handle("GET /api/todos"));
+    }
+
+    private String handle(String requestLine) {
+        String[] methodAndUri = requestLine.split(" ");
+        MockHttpRequest request = new MockHttpRequest("GET " + methodAndUri[1] + " HTTP/1.1\r\n\r\n");
+        request.setMethod(methodAndUri[0]);
+        sut.handle(request, context);
+        return handledBy;
+    }
+
+    private HttpResponse respond(String database) {
+        handledBy = database;
+        return new HttpResponse(statusCode);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.system.nablarch.handler;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RouteMatcherTest {
+
+    private final RouteMatcher<String> sut = new RouteMatcher.Builder<String>()
+            .add("POST", "/api/login", "login")
+            .add("GET", "/api/csrf_token", "csrfToken")
+            .add("GET", "/api/todos/{todoId}", "todo")
+            .add("GET", "/api/todos/export", "export")
+            .add("GET", "/api/todos/{todoId}/items", "items")
+            .build();
+
+    @Test
+    public void 登録したHTTPメソッドとパスに一致する() {
+        assertTrue(sut.matches("POST", "/api/login"));
+        assertTrue(sut.matches("GET", "/api/csrf_token"));
+    }
+
+    @Test
+    public void HTTPメソッドが異なる場合は一致しない() {
+        assertFalse(sut.matches("GET", "/api/login"));
+        assertFalse(sut.matches("DELETE", "/api/csrf_token"));
+    }
+
+    @Test
+    public void パスの一部だけが一致する場合は一致しない() {
+        assertFalse(sut.matches("POST", "/api"));
+        assertFalse(sut.matches("POST", "/api/login/extra"));
+        assertFalse(sut.matches("POST", "/api/logi"));
+        assertFalse(sut.matches("POST", "/api/loginx"));
+    }
+
+    @Test
+    public void パスパラメータは任意の1セグメントに一致する() {
+        assertTrue(sut.matches("GET", "/api/todos/2001"));
+        assertTrue(sut.matches("GET", "/api/todos/export"));
+        assertFalse(sut.matches("GET", "/api/todos"));
+        assertFalse(sut.matches("GET", "/api/todos/2001/history"));
+    }
+
+    @Test
+    public void 一致したルートに対応付けた値を返す() {
+        assertEquals("login", sut.find("POST", "/api/login"));
+        assertEquals("todo", sut.find("GET", "/api/todos/2001"));
+        assertEquals("export", sut.find("GET", "/api/todos/export"));
+        assertNull(sut.find("PUT", "/api/todos/2001"));
+    }
+
+    @Test
+    public void クエリ文字列は無視する() {
+        assertEquals("todo", sut.find("GET", "/api/todos/2001?fields=text"));
+        assertEquals("login", sut.find("POST", "/api/login;jsessionid=xxx"));
+        assertNull(sut.find("GET", "/api/todos?after=2001/items"));
+    }
+
+    @Test
+    public void 固定のセグメントで一致しない場合はパスパラメータで探し直す() {
+        assertEquals("items", sut.find("GET", "/api/todos/export/items"));
+    }
+}
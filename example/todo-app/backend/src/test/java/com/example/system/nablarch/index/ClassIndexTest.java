@@ -0,0 +1,102 @@
+package com.example.system.nablarch.index;
+
+import com.example.system.nablarch.di.ExampleComponentDefinitionLoader;
+import nablarch.core.repository.di.ComponentDefinition;
+import nablarch.core.repository.di.DiContainer;
+import nablarch.core.repository.di.config.externalize.AnnotationComponentDefinitionLoader;
+import nablarch.core.repository.di.config.externalize.ExternalizedComponentDefinitionLoader;
+import nablarch.core.repository.di.config.externalize.SystemPropertyExternalizedLoader;
+import nablarch.integration.router.jaxrs.JaxRsResource;
+import nablarch.integration.router.jaxrs.JaxRsResourceFinder;
+import org.junit.Test;
+
+import javax.ws.rs.Path;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ClassIndexTest {
+
+    private static final String BASE_PACKAGE = "com.example";
+
+    @Test
+    public void インデックスのリソースクラスとリソースメソッドがクラスパスを走査した結果と一致する() {
+        Map<String, Set<String>> indexed = methods(JaxRsResources.find(BASE_PACKAGE));
+
+        assertThat(indexed.keySet(), not(empty()));
+        assertEquals(methods(new JaxRsResourceFinder().find(BASE_PACKAGE)), indexed);
+    }
+
+    @Test
+    public void インデックスのコンポーネントがクラスパスを走査した結果と一致する() {
+        DiContainer container = new DiContainer(diContainer -> Collections.emptyList()) {
+            @Override
+            protected ExternalizedComponentDefinitionLoader loadExternalizedComponentDefinitionLoader() {
+                return new SystemPropertyExternalizedLoader();
+            }
+        };
+        AnnotationComponentDefinitionLoader scanning = new AnnotationComponentDefinitionLoader() {
+            @Override
+            protected String getBasePackage() {
+                return BASE_PACKAGE;
+            }
+        };
+
+        Map<String, Class<?>> indexed = components(new ExampleComponentDefinitionLoader().load(container, Collections.emptyMap()));
+
+        assertThat(indexed.keySet(), not(empty()));
+        assertEquals(components(scanning.load(container, Collections.emptyMap())), indexed);
+    }
+
+    @Test
+    public void インデックスがない場合はnullを返す() {
+        assertNull(ClassIndex.load("META-INF/todo-app/not-found", Path.class, BASE_PACKAGE, getClass().getClassLoader()));
+    }
+
+    @Test
+    public void インデックスのクラスがない場合は古いインデックスとしてnullを返す() {
+        ClassLoader classLoader = index("com.example.todo.api.TodosAction\ncom.example.todo.api.RemovedAction\n");
+
+        assertNull(ClassIndex.load("META-INF/todo-app/stale", Path.class, BASE_PACKAGE, classLoader));
+    }
+
+    @Test
+    public void インデックスのクラスにアノテーションがない場合は古いインデックスとしてnullを返す() {
+        ClassLoader classLoader = index("com.example.todo.api.TodosAction\n" + ClassIndexTest.class.getName() + "\n");
+
+        assertNull(ClassIndex.load("META-INF/todo-app/stale", Path.class, BASE_PACKAGE, classLoader));
+    }
+
+    /**
+     * 指定した内容のインデックスを返すクラスローダーを作成する。
+     */
+    private ClassLoader index(String content) {
+        return new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            public InputStream getResourceAsStream(String name) {
+                return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+            }
+        };
+    }
+
+    private static Map<String, Set<String>> methods(List<JaxRsResource> resources) {
+        return resources.stream().collect(Collectors.toMap(
+                resource -> resource.getResourceClass().getName(),
+                resource -> resource.getResourceMethodList().stream().map(Object::toString).collect(Collectors.toSet())));
+    }
+
+    private static Map<String, Class<?>> components(List<ComponentDefinition> definitions) {
+        return definitions.stream().collect(Collectors.toMap(ComponentDefinition::getName, ComponentDefinition::getType));
+    }
+}
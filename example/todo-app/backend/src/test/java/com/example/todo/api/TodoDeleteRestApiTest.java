@@ -2,6 +2,7 @@ package com.example.todo.api;
 
 import com.example.openapi.OpenApiValidator;
 import com.example.system.nablarch.FlywayExecutor;
+import com.example.todo.infrastructure.CachingTodoRepository;
 import com.jayway.jsonpath.JsonPath;
 import nablarch.common.web.WebConfig;
 import nablarch.common.web.WebConfigFinder;
@@ -24,6 +25,8 @@ public class TodoDeleteRestApiTest extends SimpleRestTestSupport {
     public static void setUpClass() {
         FlywayExecutor flywayExecutor = SystemRepository.get("dbMigration");
         flywayExecutor.migrate(true);
+        CachingTodoRepository todoRepository = SystemRepository.get("todoRepository");
+        todoRepository.invalidateAll();
     }
 
     @Test
@@ -40,6 +43,34 @@ public class TodoDeleteRestApiTest extends SimpleRestTestSupport {
         openApiValidator.validate("deleteTodo", request, response);
     }
 
+    @Test
+    public void 他のユーザーのToDoを指定した場合_404になる() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        SessionUtil.put(executionContext, "user.id", "1010");
+
+        RestMockHttpRequest request = delete("/api/todos/2001");
+        attachCsrfToken(request, executionContext);
+        HttpResponse response = sendRequestWithContext(request, executionContext);
+
+        assertStatusCode("ToDoの削除", HttpResponse.Status.NOT_FOUND, response);
+
+        openApiValidator.validate("deleteTodo", request, response);
+    }
+
+    @Test
+    public void 存在しないToDoを指定した場合_404になる() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        SessionUtil.put(executionContext, "user.id", "1001");
+
+        RestMockHttpRequest request = delete("/api/todos/9999");
+        attachCsrfToken(request, executionContext);
+        HttpResponse response = sendRequestWithContext(request, executionContext);
+
+        assertStatusCode("ToDoの削除", HttpResponse.Status.NOT_FOUND, response);
+
+        openApiValidator.validate("deleteTodo", request, response);
+    }
+
     private void attachCsrfToken(RestMockHttpRequest request, ExecutionContext context) {
         HttpResponse response = sendRequest(get("/api/csrf_token"));
         assertStatusCode("CSRFトークンの取得", HttpResponse.Status.OK, response);
@@ -0,0 +1,60 @@
+package com.example.todo.api;
+
+import com.example.openapi.OpenApiValidator;
+import com.example.system.nablarch.FlywayExecutor;
+import com.example.todo.infrastructure.CachingTodoRepository;
+import nablarch.common.web.session.SessionUtil;
+import nablarch.core.repository.SystemRepository;
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.RestMockHttpRequest;
+import nablarch.test.core.http.SimpleRestTestSupport;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.file.Paths;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.startsWith;
+
+public class TodoExportRestApiTest extends SimpleRestTestSupport {
+
+    public static OpenApiValidator openApiValidator = new OpenApiValidator(Paths.get("rest-api-specification/openapi.yaml"));
+
+    @BeforeClass
+    public static void setUpClass() {
+        FlywayExecutor flywayExecutor = SystemRepository.get("dbMigration");
+        flywayExecutor.migrate(true);
+        CachingTodoRepository todoRepository = SystemRepository.get("todoRepository");
+        todoRepository.invalidateAll();
+    }
+
+    @Test
+    public void RESTAPIでToDoを全件NDJSONで取得できる() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        SessionUtil.put(executionContext, "user.id", "1001");
+
+        RestMockHttpRequest request = get("/api/todos/export");
+        HttpResponse response = sendRequestWithContext(request, executionContext);
+
+        assertStatusCode("ToDoのエクスポート", HttpResponse.Status.OK, response);
+        assertThat(response.getContentType(), startsWith("application/x-ndjson"));
+        assertThat(response.getBodyString(), equalTo(
+                "{\"id\":2001,\"text\":\"やること１\",\"completed\":true}\n"
+                        + "{\"id\":2002,\"text\":\"やること２\",\"completed\":false}\n"));
+
+        openApiValidator.validate("exportTodos", request, response);
+    }
+
+    @Test
+    public void ToDoがない場合は空のレスポンスになる() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        SessionUtil.put(executionContext, "user.id", "1010");
+
+        HttpResponse response = sendRequestWithContext(get("/api/todos/export"), executionContext);
+
+        assertStatusCode("ToDoのエクスポート", HttpResponse.Status.OK, response);
+        assertThat(response.getBodyString(), equalTo(""));
+    }
+}
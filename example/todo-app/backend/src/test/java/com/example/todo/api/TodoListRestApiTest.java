@@ -2,6 +2,7 @@ package com.example.todo.api;
 
 import com.example.openapi.OpenApiValidator;
 import com.example.system.nablarch.FlywayExecutor;
+import com.example.todo.infrastructure.CachingTodoRepository;
 import nablarch.common.web.session.SessionUtil;
 import nablarch.core.repository.SystemRepository;
 import nablarch.fw.ExecutionContext;
@@ -15,8 +16,11 @@ import java.nio.file.Paths;
 
 import static com.jayway.jsonpath.matchers.JsonPathMatchers.hasJsonPath;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.hamcrest.Matchers.isEmptyString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
 
 public class TodoListRestApiTest extends SimpleRestTestSupport {
 
@@ -26,6 +30,8 @@ public class TodoListRestApiTest extends SimpleRestTestSupport {
     public static void setUpClass() {
         FlywayExecutor flywayExecutor = SystemRepository.get("dbMigration");
         flywayExecutor.migrate(true);
+        CachingTodoRepository todoRepository = SystemRepository.get("todoRepository");
+        todoRepository.invalidateAll();
     }
 
     @Test
@@ -53,4 +59,86 @@ public class TodoListRestApiTest extends SimpleRestTestSupport {
         openApiValidator.validate("getTodos", request, response);
     }
 
+    @Test
+    public void 件数を指定するとToDo一覧をページごとに取得できる() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        SessionUtil.put(executionContext, "user.id", "1001");
+
+        RestMockHttpRequest firstRequest = get("/api/todos?limit=1");
+        HttpResponse firstResponse = sendRequestWithContext(firstRequest, executionContext);
+
+        assertStatusCode("ToDo一覧の取得（1ページ目）", HttpResponse.Status.OK, firstResponse);
+        assertThat(firstResponse.getBodyString(), hasJsonPath("$", hasSize(1)));
+        assertThat(firstResponse.getBodyString(), hasJsonPath("$[0].id", equalTo(2001)));
+        assertThat(firstResponse.getHeader("X-Next-Cursor"), equalTo("2001"));
+
+        openApiValidator.validate("getTodos", firstRequest, firstResponse);
+
+        RestMockHttpRequest secondRequest = get("/api/todos?limit=1&after=2001");
+        HttpResponse secondResponse = sendRequestWithContext(secondRequest, executionContext);
+
+        assertStatusCode("ToDo一覧の取得（2ページ目）", HttpResponse.Status.OK, secondResponse);
+        assertThat(secondResponse.getBodyString(), hasJsonPath("$", hasSize(1)));
+        assertThat(secondResponse.getBodyString(), hasJsonPath("$[0].id", equalTo(2002)));
+        assertThat(secondResponse.getHeader("X-Next-Cursor"), nullValue());
+
+        openApiValidator.validate("getTodos", secondRequest, secondResponse);
+    }
+
+    @Test
+    public void 件数に数値以外を指定した場合_400になる() {
+        ExecutionContext executionContext = new ExecutionContext();
+        SessionUtil.put(executionContext, "user.id", "1001");
+
+        RestMockHttpRequest request = get("/api/todos?limit=abc");
+        HttpResponse response = sendRequestWithContext(request, executionContext);
+
+        assertStatusCode("ToDo一覧の取得", HttpResponse.Status.BAD_REQUEST, response);
+    }
+
+    @Test
+    public void 件数に上限を超える値を指定した場合_400になる() {
+        ExecutionContext executionContext = new ExecutionContext();
+        SessionUtil.put(executionContext, "user.id", "1001");
+
+        RestMockHttpRequest request = get("/api/todos?limit=1001");
+        HttpResponse response = sendRequestWithContext(request, executionContext);
+
+        assertStatusCode("ToDo一覧の取得", HttpResponse.Status.BAD_REQUEST, response);
+    }
+
+    @Test
+    public void ETagが一致する場合_304になる() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        SessionUtil.put(executionContext, "user.id", "1001");
+
+        HttpResponse firstResponse = sendRequestWithContext(get("/api/todos"), executionContext);
+        assertStatusCode("ToDo一覧の取得", HttpResponse.Status.OK, firstResponse);
+        String etag = firstResponse.getHeader("ETag");
+        assertTrue(etag.matches("\"[0-9]+\""));
+
+        RestMockHttpRequest request = get("/api/todos").setHeader("If-None-Match", "\"0\", W/" + etag);
+        HttpResponse response = sendRequestWithContext(request, executionContext);
+
+        assertStatusCode("ToDo一覧の取得（変更なし）", HttpResponse.Status.NOT_MODIFIED, response);
+        assertThat(response.getHeader("ETag"), equalTo(etag));
+        assertThat(response.getBodyString(), isEmptyString());
+
+        // テスト用のサーバーはボディのないレスポンスにもContent-Typeを付けるため、304のレスポンスは仕様と照合しない
+        openApiValidator.validateRequest("getTodos", request);
+    }
+
+    @Test
+    public void ETagが一致しない場合_一覧を返す() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        SessionUtil.put(executionContext, "user.id", "1001");
+
+        RestMockHttpRequest request = get("/api/todos").setHeader("If-None-Match", "\"0\"");
+        HttpResponse response = sendRequestWithContext(request, executionContext);
+
+        assertStatusCode("ToDo一覧の取得", HttpResponse.Status.OK, response);
+        assertThat(response.getBodyString(), hasJsonPath("$", hasSize(2)));
+
+        openApiValidator.validate("getTodos", request, response);
+    }
 }
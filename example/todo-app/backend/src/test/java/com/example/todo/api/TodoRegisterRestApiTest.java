@@ -2,6 +2,7 @@ package com.example.todo.api;
 
 import com.example.openapi.OpenApiValidator;
 import com.example.system.nablarch.FlywayExecutor;
+import com.example.todo.infrastructure.CachingTodoRepository;
 import com.jayway.jsonpath.JsonPath;
 import nablarch.common.web.WebConfig;
 import nablarch.common.web.WebConfigFinder;
@@ -32,6 +33,8 @@ public class TodoRegisterRestApiTest extends SimpleRestTestSupport {
     public static void setUpClass() {
         FlywayExecutor flywayExecutor = SystemRepository.get("dbMigration");
         flywayExecutor.migrate(true);
+        CachingTodoRepository todoRepository = SystemRepository.get("todoRepository");
+        todoRepository.invalidateAll();
     }
 
     @Test
@@ -2,6 +2,7 @@ package com.example.todo.api;
 
 import com.example.openapi.OpenApiValidator;
 import com.example.system.nablarch.FlywayExecutor;
+import com.example.todo.infrastructure.CachingTodoRepository;
 import com.jayway.jsonpath.JsonPath;
 import nablarch.common.web.WebConfig;
 import nablarch.common.web.WebConfigFinder;
@@ -21,6 +22,7 @@ import java.util.Map;
 import static com.jayway.jsonpath.matchers.JsonPathMatchers.hasJsonPath;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
 
 public class TodoUpdateRestApiTest extends SimpleRestTestSupport {
 
@@ -30,6 +32,8 @@ public class TodoUpdateRestApiTest extends SimpleRestTestSupport {
     public static void setUpClass() {
         FlywayExecutor flywayExecutor = SystemRepository.get("dbMigration");
         flywayExecutor.migrate(true);
+        CachingTodoRepository todoRepository = SystemRepository.get("todoRepository");
+        todoRepository.invalidateAll();
     }
 
     @Test
@@ -52,6 +56,58 @@ public class TodoUpdateRestApiTest extends SimpleRestTestSupport {
         openApiValidator.validate("putTodo", request, response);
     }
 
+    @Test
+    public void 他のユーザーのToDoを指定した場合_404になる() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        SessionUtil.put(executionContext, "user.id", "1010");
+
+        RestMockHttpRequest request = put("/api/todos/2001")
+                .setHeader("Content-Type", MediaType.APPLICATION_JSON)
+                .setBody(Map.of("completed", true));
+        attachCsrfToken(request, executionContext);
+        HttpResponse response = sendRequestWithContext(request, executionContext);
+
+        assertStatusCode("ToDoのステータス更新", HttpResponse.Status.NOT_FOUND, response);
+
+        openApiValidator.validate("putTodo", request, response);
+    }
+
+    @Test
+    public void 存在しないToDoを指定した場合_404になる() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        SessionUtil.put(executionContext, "user.id", "1001");
+
+        RestMockHttpRequest request = put("/api/todos/9999")
+                .setHeader("Content-Type", MediaType.APPLICATION_JSON)
+                .setBody(Map.of("completed", true));
+        attachCsrfToken(request, executionContext);
+        HttpResponse response = sendRequestWithContext(request, executionContext);
+
+        assertStatusCode("ToDoのステータス更新", HttpResponse.Status.NOT_FOUND, response);
+
+        openApiValidator.validate("putTodo", request, response);
+    }
+
+    @Test
+    public void ToDoを更新するとETagが変わる() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        SessionUtil.put(executionContext, "user.id", "1001");
+
+        HttpResponse before = sendRequestWithContext(get("/api/todos"), executionContext);
+        String etag = before.getHeader("ETag");
+
+        RestMockHttpRequest request = put("/api/todos/2001")
+                .setHeader("Content-Type", MediaType.APPLICATION_JSON)
+                .setBody(Map.of("completed", true));
+        attachCsrfToken(request, executionContext);
+        assertStatusCode("ToDoのステータス更新", HttpResponse.Status.OK, sendRequestWithContext(request, executionContext));
+
+        HttpResponse after = sendRequestWithContext(get("/api/todos").setHeader("If-None-Match", etag), executionContext);
+
+        assertStatusCode("ToDo一覧の取得", HttpResponse.Status.OK, after);
+        assertThat(after.getHeader("ETag"), not(equalTo(etag)));
+    }
+
     private void attachCsrfToken(RestMockHttpRequest request, ExecutionContext context) {
         HttpResponse response = sendRequest(get("/api/csrf_token"));
         assertStatusCode("CSRFトークンの取得", HttpResponse.Status.OK, response);
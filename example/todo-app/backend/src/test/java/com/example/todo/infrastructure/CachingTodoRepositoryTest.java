@@ -0,0 +1,211 @@
+package com.example.todo.infrastructure;
+
+import com.example.todo.application.TodoRepository;
+import com.example.todo.domain.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class CachingTodoRepositoryTest {
+
+    private final UserId alice = new UserId("alice");
+
+    private final UserId bob = new UserId("bob");
+
+    private CountingTodoRepository delegate;
+
+    private CachingTodoRepository sut;
+
+    @Before
+    public void setUp() {
+        delegate = new CountingTodoRepository();
+        sut = new CachingTodoRepository();
+        sut.setDelegate(delegate);
+    }
+
+    @Test
+    public void 同じページを続けて取得した場合_2回目はキャッシュから返す() {
+        sut.list(alice, null, 10);
+        List<Todo> todos = sut.list(alice, null, 10);
+
+        assertThat(todos, hasSize(1));
+        assertThat(delegate.listCount, is(1));
+        assertThat(sut.getHitCount(), is(1L));
+        assertThat(sut.getMissCount(), is(1L));
+    }
+
+    @Test
+    public void ToDoを更新した場合_そのユーザーのキャッシュだけを破棄する() {
+        sut.list(alice, null, 10);
+        sut.list(bob, null, 10);
+
+        sut.updateStatus(alice, new TodoId(1L), TodoStatus.COMPLETED);
+        sut.list(alice, null, 10);
+        sut.list(bob, null, 10);
+
+        assertThat(delegate.listCount, is(3));
+    }
+
+    @Test
+    public void ToDoを登録または削除した場合_そのユーザーのキャッシュを破棄する() {
+        sut.list(alice, null, 10);
+        sut.add(new Todo(new TodoId(2L), new TodoText("追加"), TodoStatus.INCOMPLETE, alice));
+        sut.list(alice, null, 10);
+        sut.delete(alice, new TodoId(2L));
+        sut.list(alice, null, 10);
+
+        assertThat(delegate.listCount, is(3));
+    }
+
+    @Test
+    public void コミット前の一覧をキャッシュしても_バージョンが変わった後は取得し直す() {
+        // 更新のトランザクションでキャッシュを破棄した後、コミット前に他のリクエストが更新前の一覧をキャッシュする
+        sut.updateStatus(alice, new TodoId(1L), TodoStatus.COMPLETED);
+        sut.list(alice, null, 10);
+
+        // コミットによってバージョンが変わる
+        delegate.version = 1L;
+        sut.list(alice, null, 10);
+
+        assertThat(delegate.listCount, is(2));
+        assertThat(sut.getHitCount(), is(0L));
+    }
+
+    @Test
+    public void 他のバックエンドでToDoが変更された場合も_バージョンが変わったページは取得し直す() {
+        CachingTodoRepository otherNode = new CachingTodoRepository();
+        otherNode.setDelegate(delegate);
+
+        sut.list(alice, null, 10);
+        otherNode.updateStatus(alice, new TodoId(1L), TodoStatus.COMPLETED);
+        delegate.version = 1L;
+        sut.list(alice, null, 10);
+        sut.list(alice, null, 10);
+
+        assertThat(delegate.listCount, is(2));
+        assertThat(sut.getHitCount(), is(1L));
+    }
+
+    @Test
+    public void 指定したバージョンと異なるページは返さない() {
+        sut.list(alice, 0L, null, 10);
+
+        // 他のリクエストの更新がコミットされ、新しいバージョンをETagとして返す
+        delegate.version = 1L;
+        List<Todo> todos = sut.list(alice, 1L, null, 10);
+
+        assertThat(todos.get(0).text().value(), is("v1"));
+        assertThat(delegate.listCount, is(2));
+    }
+
+    @Test
+    public void バージョンの取得と一覧の取得の間に更新された場合も_ETagより古い一覧は返さない() {
+        // バージョン0を取得した後、一覧を取得する前に更新がコミットされる
+        delegate.versionAfterList = 1L;
+        List<Todo> first = sut.list(alice, 0L, null, 10);
+        // 一覧はETag（バージョン0）より新しくてもよい
+        assertThat(first.get(0).text().value(), is("v1"));
+
+        // 次のリクエストは新しいバージョンを取得し、キャッシュしたページは使わずに取得し直す
+        List<Todo> second = sut.list(alice, 1L, null, 10);
+        assertThat(second.get(0).text().value(), is("v1"));
+        assertThat(delegate.listCount, is(2));
+
+        // 同じバージョンであればキャッシュから返す
+        sut.list(alice, 1L, null, 10);
+        assertThat(delegate.listCount, is(2));
+    }
+
+    @Test
+    public void 有効期間を過ぎたページは取得し直す() {
+        sut.setExpireAfterMillis(0);
+
+        sut.list(alice, null, 10);
+        sut.list(alice, null, 10);
+
+        assertThat(delegate.listCount, is(2));
+        assertThat(sut.getEvictionCount(), is(1L));
+    }
+
+    @Test
+    public void ユーザー数が上限を超えた場合_最も長く参照されていないユーザーを破棄する() {
+        sut.setMaximumSize(2);
+        UserId carol = new UserId("carol");
+
+        sut.list(alice, null, 10);
+        sut.list(bob, null, 10);
+        sut.list(alice, null, 10);
+        sut.list(carol, null, 10);
+
+        assertThat(sut.size(), is(2));
+        assertThat(sut.getEvictionCount(), is(1L));
+
+        sut.list(alice, null, 10);
+        assertThat(delegate.listCount, is(3));
+    }
+
+    private static class CountingTodoRepository implements TodoRepository {
+
+        int listCount;
+
+        long version;
+
+        /** 一覧を取得した直後にバージョンを変える（取得中に他のリクエストの更新がコミットされた状態） */
+        Long versionAfterList;
+
+        @Override
+        public List<Todo> list(UserId userId, TodoId after, int limit) {
+            listCount++;
+            if (versionAfterList != null) {
+                version = versionAfterList;
+                versionAfterList = null;
+            }
+            List<Todo> todos = new ArrayList<>();
+            todos.add(new Todo(new TodoId(1L), new TodoText("v" + version), TodoStatus.INCOMPLETE, userId));
+            return todos;
+        }
+
+        @Override
+        public void forEach(UserId userId, Consumer<Todo> action) {
+        }
+
+        @Override
+        public TodoId nextId() {
+            return new TodoId(1L);
+        }
+
+        @Override
+        public List<TodoId> nextIds(int count) {
+            return List.of();
+        }
+
+        @Override
+        public void add(Todo todo) {
+        }
+
+        @Override
+        public void addAll(List<Todo> todos) {
+        }
+
+        @Override
+        public Todo updateStatus(UserId userId, TodoId todoId, TodoStatus status) {
+            return null;
+        }
+
+        @Override
+        public boolean delete(UserId userId, TodoId todoId) {
+            return true;
+        }
+
+        @Override
+        public long version(UserId userId) {
+            return version;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.todo.infrastructure.id;
+
+import com.example.todo.domain.TodoId;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class HiLoTodoIdGeneratorTest {
+
+    /** シーケンスの代わりに連番を返し、予約した回数を数える */
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicInteger reservations = new AtomicInteger();
+
+    private HiLoTodoIdGenerator generator(int blockSize) {
+        HiLoTodoIdGenerator generator = new HiLoTodoIdGenerator(size -> {
+            reservations.incrementAndGet();
+            long first = sequence.getAndAdd(size) + 1;
+            return LongStream.range(first, first + size).toArray();
+        });
+        generator.setBlockSize(blockSize);
+        return generator;
+    }
+
+    @Test
+    public void 予約したIDを使い切ると次のブロックを予約する() {
+        HiLoTodoIdGenerator generator = generator(3);
+
+        assertThat(generator.next().value(), is(1L));
+        assertThat(generator.next().value(), is(2L));
+        assertThat(generator.next().value(), is(3L));
+        assertThat(reservations.get(), is(1));
+
+        assertThat(generator.next().value(), is(4L));
+        assertThat(reservations.get(), is(2));
+    }
+
+    @Test
+    public void 複数件の採番は複数のブロックにまたがっても重複しない() {
+        HiLoTodoIdGenerator generator = generator(3);
+        generator.next();
+
+        List<Long> ids = generator.next(10).stream().map(TodoId::value).collect(Collectors.toList());
+
+        assertThat(ids, contains(2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L));
+        assertThat(reservations.get(), is(4));
+    }
+
+    @Test
+    public void 複数スレッドから同時に採番しても重複せずブロックも無駄にしない() throws Exception {
+        HiLoTodoIdGenerator generator = generator(50);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                boolean bulk = i % 2 == 0;
+                futures.add(executor.submit(() -> {
+                    List<Long> ids = new ArrayList<>();
+                    for (int j = 0; j < 1000; j++) {
+                        if (bulk) {
+                            generator.next(7).forEach(id -> ids.add(id.value()));
+                        } else {
+                            ids.add(generator.next().value());
+                        }
+                    }
+                    return ids;
+                }));
+            }
+            Set<Long> ids = new HashSet<>();
+            int count = 0;
+            for (Future<List<Long>> future : futures) {
+                List<Long> result = future.get();
+                ids.addAll(result);
+                count += result.size();
+            }
+            assertThat(count, is(4 * 1000 * 7 + 4 * 1000));
+            assertThat(ids, hasSize(count));
+            // 使い切ったブロックに対して1回だけ予約されること
+            assertThat(reservations.get(), is(count / 50));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void ブロックサイズは1以上でなければならない() {
+        new HiLoTodoIdGenerator().setBlockSize(0);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.todo.infrastructure.id;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class SnowflakeTodoIdGeneratorTest {
+
+    @Test
+    public void 同じミリ秒内でも昇順で重複しないIDが採番される() {
+        SnowflakeTodoIdGenerator generator = new SnowflakeTodoIdGenerator(() -> SnowflakeTodoIdGenerator.EPOCH_MILLIS + 1000);
+        generator.setNodeId(3);
+
+        long previous = -1;
+        // カウンタ（7ビット）を使い切っても採番を続けられること
+        for (int i = 0; i < 1000; i++) {
+            long id = generator.next().value();
+            assertThat(id, greaterThan(previous));
+            assertThat((id >> SnowflakeTodoIdGenerator.SEQUENCE_BITS) & 0x1F, is(3L));
+            previous = id;
+        }
+    }
+
+    @Test
+    public void 時計が戻っても重複しないIDが採番される() {
+        long[] now = {SnowflakeTodoIdGenerator.EPOCH_MILLIS + 5000};
+        SnowflakeTodoIdGenerator generator = new SnowflakeTodoIdGenerator(() -> now[0]);
+        generator.setNodeId(0);
+
+        long beforeRewind = generator.next().value();
+        now[0] -= 1000;
+        long afterRewind = generator.next().value();
+
+        assertThat(afterRewind, greaterThan(beforeRewind));
+    }
+
+    @Test
+    public void IDはJavaScriptで安全に扱える範囲に収まる() {
+        // 基準日時から60年後
+        SnowflakeTodoIdGenerator generator = new SnowflakeTodoIdGenerator(
+                () -> SnowflakeTodoIdGenerator.EPOCH_MILLIS + TimeUnit.DAYS.toMillis(365L * 60));
+        generator.setNodeId(31);
+
+        assertThat(generator.next().value(), lessThanOrEqualTo((1L << 53) - 1));
+    }
+
+    @Test
+    public void 複数スレッドから同時に採番しても重複しない() throws Exception {
+        SnowflakeTodoIdGenerator generator = new SnowflakeTodoIdGenerator();
+        generator.setNodeId(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    List<Long> ids = new ArrayList<>();
+                    for (int j = 0; j < 10000; j++) {
+                        ids.add(generator.next().value());
+                    }
+                    return ids;
+                }));
+            }
+            Set<Long> ids = new HashSet<>();
+            for (Future<List<Long>> future : futures) {
+                ids.addAll(future.get());
+            }
+            assertThat(ids, hasSize(80000));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 範囲外のノードIDは設定できない() {
+        new SnowflakeTodoIdGenerator().setNodeId(32);
+    }
+}
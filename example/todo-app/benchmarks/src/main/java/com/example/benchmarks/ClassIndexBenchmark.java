@@ -0,0 +1,168 @@
+package com.example.benchmarks;
+
+import com.example.system.nablarch.index.ClassIndex;
+import nablarch.core.repository.di.config.externalize.annotation.SystemRepositoryComponent;
+import nablarch.fw.web.servlet.NablarchServletContextListener;
+import nablarch.fw.web.servlet.RepositoryBasedWebFrontController;
+import org.openjdk.jmh.annotations.*;
+
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ビルドしたwarのアプリケーションの起動にかかる時間を、{@link ClassIndex}のインデックスを使う場合と使わない場合で比較する。
+ *
+ * 展開したwar（WEB-INF/classesとWEB-INF/lib）だけをクラスパスにしたクラスローダーで、サーブレットコンテナと同じく次の処理を行う。
+ * <ul>
+ *   <li>{@link NablarchServletContextListener}によるシステムリポジトリの読み込み（web.xmlと同じrest-boot.xml）</li>
+ *   <li>最初の{@link RepositoryBasedWebFrontController}の初期化</li>
+ * </ul>
+ * {@link SystemRepositoryComponent}を付けたクラスとJAX-RSのリソースクラスは、この間に探す。
+ * indexはインデックスを読み込む場合、scanはインデックスを隠してWEB-INF/classesを走査する場合。
+ * 起動は1つのJVMで1回だけのため、フォークごとに1回ずつ計測する（クラスの読み込みとJITコンパイル前の実行を含む）。
+ * <p>
+ * warは{@code benchmark.war}（デフォルトはtodo-appディレクトリからのbackend/target/todo-app-backend-0.0.1-SNAPSHOT）で指定する。
+ * データベースのコネクションプールを作成するため、開発環境のデータベースを起動してから実行する。
+ * 開発環境のデータを削除しないよう、起動時のマイグレーションは行わない。
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 10, jvmArgsAppend = {"-Dflyway.enabled=false", "-Dflyway.cleanBeforeMigrate=false"})
+@State(Scope.Benchmark)
+public class ClassIndexBenchmark {
+
+    private static final String INDEX_DIRECTORY = ClassIndex.COMPONENTS.substring(0, ClassIndex.COMPONENTS.lastIndexOf('/') + 1);
+
+    @Param({"index", "scan"})
+    public String mode;
+
+    private WarClassLoader classLoader;
+
+    @Setup
+    public void setUp() throws IOException {
+        File war = new File(System.getProperty("benchmark.war", "backend/target/todo-app-backend-0.0.1-SNAPSHOT"));
+        File[] libs = new File(war, "WEB-INF/lib").listFiles((dir, name) -> name.endsWith(".jar"));
+        if (libs == null) {
+            throw new IllegalStateException("war not found. build backend first. war=[" + war.getAbsolutePath() + "]");
+        }
+        List<URL> urls = new ArrayList<>();
+        urls.add(new File(war, "WEB-INF/classes").toURI().toURL());
+        for (File lib : libs) {
+            urls.add(lib.toURI().toURL());
+        }
+        classLoader = new WarClassLoader(urls.toArray(new URL[0]), mode.equals("scan"));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        classLoader.close();
+    }
+
+    @Benchmark
+    public Object boot() throws Exception {
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        thread.setContextClassLoader(classLoader);
+        try {
+            Map<String, String> initParameters = new HashMap<>();
+            initParameters.put("di.config", "rest-boot.xml");
+            initParameters.put("di.duplicate-definition-policy", "OVERRIDE");
+            ServletContext servletContext = stub(ServletContext.class, initParameters);
+            FilterConfig filterConfig = stub(FilterConfig.class, Collections.singletonMap("servletContext", servletContext));
+
+            Object listener = classLoader.loadClass(NablarchServletContextListener.class.getName()).getConstructor().newInstance();
+            listener.getClass().getMethod("contextInitialized", ServletContextEvent.class)
+                    .invoke(listener, new ServletContextEvent(servletContext));
+            Object controller = classLoader.loadClass(RepositoryBasedWebFrontController.class.getName()).getConstructor().newInstance();
+            controller.getClass().getMethod("init", FilterConfig.class).invoke(controller, filterConfig);
+            return controller;
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+    }
+
+    /**
+     * 初期化パラメータ（FilterConfigの場合はservletContextも）だけを返すスタブを作成する。それ以外のメソッドはnullを返す。
+     */
+    private static <T> T stub(Class<T> type, Map<String, ?> values) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getInitParameter":
+                    return values.get((String) args[0]);
+                case "getInitParameterNames":
+                    return Collections.enumeration(values.keySet());
+                case "getServletContext":
+                    return values.get("servletContext");
+                case "getFilterName":
+                    return "entryPoint";
+                default:
+                    return defaultValue(method);
+            }
+        }));
+    }
+
+    private static Object defaultValue(Method method) {
+        Class<?> returnType = method.getReturnType();
+        if (returnType == boolean.class) {
+            return false;
+        }
+        if (returnType == int.class) {
+            return 0;
+        }
+        return null;
+    }
+
+    /**
+     * 展開したwarのクラスを読み込むクラスローダー。
+     *
+     * サーブレットAPIとEL（Bean Validationが使う）はwarに含まれないため、サーブレットコンテナと同じくコンテナ（ベンチマーク）のものを使う。
+     * hideIndexがtrueの場合は、インデックスがないものとしてクラスパスを走査させる。
+     */
+    private static final class WarClassLoader extends URLClassLoader {
+
+        private final boolean hideIndex;
+
+        WarClassLoader(URL[] urls, boolean hideIndex) {
+            super(urls, ClassLoader.getPlatformClassLoader());
+            this.hideIndex = hideIndex;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.startsWith("javax.servlet.") || name.startsWith("javax.el.")) {
+                return ClassIndexBenchmark.class.getClassLoader().loadClass(name);
+            }
+            return super.loadClass(name, resolve);
+        }
+
+        @Override
+        public URL findResource(String name) {
+            return hidden(name) ? null : super.findResource(name);
+        }
+
+        @Override
+        public Enumeration<URL> findResources(String name) throws IOException {
+            return hidden(name) ? Collections.emptyEnumeration() : super.findResources(name);
+        }
+
+        private boolean hidden(String name) {
+            return hideIndex && name.startsWith(INDEX_DIRECTORY);
+        }
+    }
+}
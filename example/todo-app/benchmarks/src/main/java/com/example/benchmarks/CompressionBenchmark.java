@@ -0,0 +1,104 @@
+package com.example.benchmarks;
+
+import com.example.system.nablarch.CompressionResponseFinisher;
+import com.example.todo.api.TodosAction;
+import com.example.todo.domain.TodoId;
+import com.example.todo.domain.TodoStatus;
+import com.example.todo.domain.TodoText;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * {@link CompressionResponseFinisher}によるToDo一覧のレスポンスの圧縮を計測する。
+ *
+ * 1レスポンスあたりの処理時間（CPU時間）を計測し、送信するボディの大きさは{@link Bytes}の補助カウンタとして結果に出力する。
+ * 補助カウンタはイテレーションごとの合計のため、1レスポンスあたりの大きさはcompressedBytesをresponsesで割って求め、
+ * 圧縮率はcompressedBytesとoriginalBytesの比で求める。
+ * identityは圧縮しない場合で、ボディの読み出しだけを行う。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompressionBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int todoCount;
+
+    @Param({"identity", "gzip", "deflate"})
+    public String encoding;
+
+    /** 圧縮レベル（1は最速、-1はデフォルトの6） */
+    @Param({"1", "-1"})
+    public int level;
+
+    private final CompressionResponseFinisher finisher = new CompressionResponseFinisher();
+
+    private final ExecutionContext context = new ExecutionContext();
+
+    private byte[] json;
+
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() throws IOException {
+        finisher.setLevel(level);
+        List<TodosAction.TodoResponse> todos = LongStream.rangeClosed(1, todoCount)
+                .mapToObj(id -> new TodosAction.TodoResponse(new TodoId(id), new TodoText("やること" + id), TodoStatus.INCOMPLETE))
+                .collect(Collectors.toList());
+        json = new ObjectMapper().writeValueAsBytes(todos);
+        request = new MockHttpRequest("GET /api/todos HTTP/1.1\r\n"
+                + "Accept-Encoding: " + encoding + "\r\n"
+                + "\r\n");
+    }
+
+    @Benchmark
+    public long finish(Bytes bytes) throws IOException {
+        HttpResponse response = new HttpResponse(200);
+        response.setContentType("application/json;charset=utf-8");
+        response.write(json);
+        finisher.finish(request, response, context);
+        long responseBytes;
+        try (InputStream body = response.getBodyStream()) {
+            responseBytes = body.readAllBytes().length;
+        }
+        bytes.responses++;
+        bytes.originalBytes += json.length;
+        bytes.compressedBytes += responseBytes;
+        return responseBytes;
+    }
+
+    /**
+     * 圧縮前と送信するボディの大きさ（バイト数）の、イテレーションごとの合計。
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Bytes {
+
+        public long responses;
+
+        public long originalBytes;
+
+        public long compressedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            responses = 0;
+            originalBytes = 0;
+            compressedBytes = 0;
+        }
+    }
+}
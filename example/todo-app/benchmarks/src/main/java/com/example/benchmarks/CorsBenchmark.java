@@ -0,0 +1,70 @@
+package com.example.benchmarks;
+
+import com.example.system.nablarch.CustomCors;
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CustomCors}の判定とヘッダの設定にかかる時間を計測する。
+ *
+ * {@link CustomCors#isPreflightRequest}は全てのリクエストで呼ばれるため、プリフライトリクエストとそれ以外のリクエストの両方を計測する。
+ * プリフライトリクエストへのレスポンスの作成と、それ以外のレスポンスへのヘッダの設定も計測する。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CorsBenchmark {
+
+    // MockHttpRequestはOPTIONSのリクエストを解析できないため、解析後にメソッドを変更する
+    private final HttpRequest preflightRequest = new MockHttpRequest("GET /api/todos HTTP/1.1\r\n"
+            + "Origin: http://localhost:3000\r\n"
+            + "Access-Control-Request-Method: POST\r\n"
+            + "\r\n").setMethod("OPTIONS");
+
+    private final HttpRequest actualRequest = new MockHttpRequest("GET /api/todos HTTP/1.1\r\n"
+            + "Origin: http://localhost:3000\r\n"
+            + "\r\n");
+
+    private final ExecutionContext context = new ExecutionContext();
+
+    private CustomCors cors;
+
+    @Setup
+    public void setUp() {
+        cors = new CustomCors();
+        cors.setAllowOrigins(List.of("http://localhost:3000"));
+        cors.setExposeHeaders(List.of("X-Next-Cursor"));
+        cors.setMaxAge(7200);
+    }
+
+    @Benchmark
+    public boolean preflightRequest() {
+        return cors.isPreflightRequest(preflightRequest, context);
+    }
+
+    @Benchmark
+    public boolean actualRequest() {
+        return cors.isPreflightRequest(actualRequest, context);
+    }
+
+    @Benchmark
+    public HttpResponse createPreflightResponse() {
+        return cors.createPreflightResponse(preflightRequest, context);
+    }
+
+    @Benchmark
+    public HttpResponse postProcess() {
+        HttpResponse response = new HttpResponse(200);
+        cors.postProcess(actualRequest, response, context);
+        return response;
+    }
+}
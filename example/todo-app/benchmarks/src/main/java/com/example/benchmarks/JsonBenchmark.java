@@ -0,0 +1,55 @@
+package com.example.benchmarks;
+
+import com.example.todo.api.TodosAction;
+import com.example.todo.domain.TodoId;
+import com.example.todo.domain.TodoStatus;
+import com.example.todo.domain.TodoText;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * REST APIのリクエストとレスポンスのJSON変換にかかる時間を計測する。
+ *
+ * ボディの変換にはJacksonが使われるため、同じく{@link ObjectMapper}で変換する。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    @Param({"1", "100"})
+    public int todoCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final byte[] postRequestJson = "{\"text\":\"やること\"}".getBytes(StandardCharsets.UTF_8);
+
+    private List<TodosAction.TodoResponse> todoResponses;
+
+    @Setup
+    public void setUp() {
+        todoResponses = LongStream.rangeClosed(1, todoCount)
+                .mapToObj(id -> new TodosAction.TodoResponse(new TodoId(id), new TodoText("やること" + id), TodoStatus.INCOMPLETE))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public byte[] serializeTodoResponses() throws IOException {
+        return objectMapper.writeValueAsBytes(todoResponses);
+    }
+
+    @Benchmark
+    public TodosAction.PostRequest deserializePostRequest() throws IOException {
+        return objectMapper.readValue(postRequestJson, TodosAction.PostRequest.class);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.benchmarks;
+
+import com.example.system.nablarch.handler.RouteMatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * ログインチェックで行う、ログイン不要なルートの判定にかかる時間を計測する。
+ *
+ * ルート数を変えながら、{@link RouteMatcher}と、以前の実装（ルートごとに正規表現で判定する方式）を比較する。
+ * ログイン済みユーザーのリクエストはほとんどがログイン不要なルートに一致しないため、一致しない場合も計測する。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoginCheckBenchmark {
+
+    @Param({"3", "30", "300", "3000"})
+    public int routeCount;
+
+    private RouteMatcher<String> routeMatcher;
+
+    private List<RegexRoute> regexRoutes;
+
+    @Setup
+    public void setUp() {
+        List<String[]> routes = new ArrayList<>();
+        routes.add(new String[]{"POST", "/api/signup"});
+        routes.add(new String[]{"POST", "/api/login"});
+        routes.add(new String[]{"GET", "/api/csrf_token"});
+        for (int i = routes.size(); i < routeCount; i++) {
+            routes.add(new String[]{"GET", "/api/public" + i + "/items/{itemId}"});
+        }
+
+        RouteMatcher.Builder<String> builder = new RouteMatcher.Builder<>();
+        regexRoutes = new ArrayList<>();
+        for (String[] route : routes) {
+            builder.add(route[0], route[1], route[1]);
+            regexRoutes.add(new RegexRoute(route[0], route[1].replaceAll("\\{[^/]+}", "*")));
+        }
+        routeMatcher = builder.build();
+    }
+
+    @Benchmark
+    public boolean routeMatcherPublicRoute() {
+        return routeMatcher.matches("POST", "/api/login");
+    }
+
+    @Benchmark
+    public boolean routeMatcherProtectedRoute() {
+        return routeMatcher.matches("PUT", "/api/todos/2001");
+    }
+
+    @Benchmark
+    public boolean regexPublicRoute() {
+        return matchesRegex("POST", "/api/login");
+    }
+
+    @Benchmark
+    public boolean regexProtectedRoute() {
+        return matchesRegex("PUT", "/api/todos/2001");
+    }
+
+    private boolean matchesRegex(String httpMethod, String path) {
+        return regexRoutes.stream().anyMatch(route -> route.matches(httpMethod, path));
+    }
+
+    /**
+     * 以前のLoginCheckHandlerで使っていた判定方式。
+     */
+    private static class RegexRoute {
+
+        private final String httpMethod;
+
+        private final Pattern urlPattern;
+
+        RegexRoute(String httpMethod, String url) {
+            this.httpMethod = httpMethod;
+            this.urlPattern = Pattern.compile("^" + url.replaceAll("\\*\\*", ".+").replaceAll("\\*", "[^/]+") + "$");
+        }
+
+        boolean matches(String httpMethod, String path) {
+            return urlPattern.matcher(path).matches() && this.httpMethod.equals(httpMethod);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.benchmarks;
+
+import com.example.system.nablarch.handler.LoginCheckHandler;
+import nablarch.core.ThreadContext;
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.Handler;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LoginCheckHandler#handle}にかかる時間を計測する。
+ *
+ * 後続のハンドラは固定のレスポンスを返すだけにして、ログインチェックの処理だけを計測する。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LoginCheckHandlerBenchmark {
+
+    private static final HttpResponse RESPONSE = new HttpResponse(200);
+
+    private static final Handler<HttpRequest, Object> NEXT = (request, context) -> RESPONSE;
+
+    private final HttpRequest protectedRequest = new MockHttpRequest("GET /api/todos HTTP/1.1\r\n\r\n");
+
+    private final HttpRequest anonymousRequest = new MockHttpRequest("POST /api/login HTTP/1.1\r\n\r\n");
+
+    private final ExecutionContext context = new ExecutionContext();
+
+    private LoginCheckHandler handler;
+
+    @Setup
+    public void setUp() {
+        handler = new LoginCheckHandler();
+        handler.setBasePackage("com.example");
+        handler.setApplicationPath("/api");
+        handler.initialize();
+        ThreadContext.setUserId("1001");
+    }
+
+    @Benchmark
+    public Object protectedRoute() {
+        context.getHandlerQueue().add(NEXT);
+        return handler.handle(protectedRequest, context);
+    }
+
+    @Benchmark
+    public Object anonymousRoute() {
+        context.getHandlerQueue().add(NEXT);
+        return handler.handle(anonymousRequest, context);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.benchmarks;
+
+import com.example.authentication.application.password.Pbkdf2PasswordEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * パスワードのハッシュ計算のスループットを、反復回数ごとに計測する。
+ *
+ * 1スレッドで計測するため、結果はCPU1コアあたりの秒間ハッシュ数になる。
+ * ハッシュ計算はCPUだけを使うため、{@code password.hash.threads}に設定するスレッド数を掛けた値が、
+ * ログインとサインアップで処理できる秒間リクエスト数の目安になる。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class PasswordHashBenchmark {
+
+    @Param({"100000", "310000", "600000"})
+    public int iterations;
+
+    private Pbkdf2PasswordEncoder encoder;
+
+    private String encodedPassword;
+
+    @Setup
+    public void setUp() {
+        encoder = new Pbkdf2PasswordEncoder();
+        encoder.setIterations(iterations);
+        encodedPassword = encoder.encode("password");
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode("password");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("password", encodedPassword);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.benchmarks;
+
+import com.example.system.metrics.SqlMetrics;
+import com.example.system.nablarch.InstrumentedDaoContext;
+import nablarch.common.dao.DaoContext;
+import nablarch.common.dao.EntityList;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link InstrumentedDaoContext}でSQLの実行を記録する処理の、SQLの実行1回あたりのコストを計測する。
+ *
+ * 委譲先は固定の検索結果を返すだけにして、委譲先を直接呼び出した場合と比べる。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SqlMetricsBenchmark {
+
+    private static final EntityList<String> RESULT = new EntityList<>();
+
+    private DaoContext delegate;
+
+    private DaoContext instrumented;
+
+    private SqlMetrics sqlMetrics;
+
+    @Setup
+    public void setUp() {
+        delegate = (DaoContext) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DaoContext.class},
+                (proxy, method, args) -> RESULT);
+        sqlMetrics = new SqlMetrics();
+        instrumented = new InstrumentedDaoContext(delegate, sqlMetrics);
+        sqlMetrics.beginRequest();
+    }
+
+    @Benchmark
+    public EntityList<String> direct() {
+        return delegate.findAllBySqlFile(String.class, "FIND_BY_USERID", null);
+    }
+
+    @Benchmark
+    public EntityList<String> instrumented() {
+        return instrumented.findAllBySqlFile(String.class, "FIND_BY_USERID", null);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.benchmarks;
+
+import com.example.todo.api.TodosAction;
+import nablarch.core.validation.ee.ValidatorUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ValidatorUtil#validate}でリクエストをバリデーションする時間を計測する。
+ *
+ * バリデーションエラーにならないリクエストを対象とする。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    private final TodosAction.PostRequest postRequest = new TodosAction.PostRequest();
+
+    private final TodosAction.BulkPostRequest bulkPostRequest = new TodosAction.BulkPostRequest();
+
+    private final TodosAction.ListQuery listQuery = new TodosAction.ListQuery();
+
+    @Setup
+    public void setUp() {
+        postRequest.text = "やること";
+        bulkPostRequest.texts = Collections.nCopies(100, "やること");
+        listQuery.setLimit("100");
+        listQuery.setAfter("2001");
+    }
+
+    @Benchmark
+    public void postRequest(Blackhole blackhole) {
+        ValidatorUtil.validate(postRequest);
+        blackhole.consume(postRequest);
+    }
+
+    @Benchmark
+    public void bulkPostRequest(Blackhole blackhole) {
+        ValidatorUtil.validate(bulkPostRequest);
+        blackhole.consume(bulkPostRequest);
+    }
+
+    @Benchmark
+    public void listQuery(Blackhole blackhole) {
+        ValidatorUtil.validate(listQuery);
+        blackhole.consume(listQuery);
+    }
+}
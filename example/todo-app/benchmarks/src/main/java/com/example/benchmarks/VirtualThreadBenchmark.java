@@ -0,0 +1,142 @@
+package com.example.benchmarks;
+
+import com.example.system.nablarch.VirtualThreadWebFrontController;
+import com.zaxxer.hikari.HikariDataSource;
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.Handler;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.handler.HttpResponseHandler;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.FilterHolder;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.openjdk.jmh.annotations.*;
+
+import javax.servlet.DispatcherType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * データベースの待ち時間が大半を占めるリクエストを、Jettyのスレッドで処理した場合と仮想スレッドで処理した場合のスループットを比較する。
+ *
+ * {@link VirtualThreadWebFrontController}を組み込んだJetty（最大200スレッド）に、1回の処理で{@link #REQUESTS}件のHTTPリクエストを同時に送り、
+ * 全ての応答を受け取るまでを計測する（結果は秒間リクエスト数）。
+ * リクエストの処理では、バックエンドと同じPostgreSQLのJDBCドライバとHikariCPで開発環境のデータベースに接続し、
+ * {@code pg_sleep}でdbLatencyMillisだけ待つ。
+ * <ul>
+ *   <li>platform: enabledをfalseにして、Jettyのスレッドでハンドラキューを実行する</li>
+ *   <li>virtual: enabledをtrueにして、リクエストごとの仮想スレッドでハンドラキューを実行する</li>
+ * </ul>
+ * データベースの最大接続数（デフォルトは100）を超えないよう、poolSizeは100未満にすること。
+ * virtualは、JDK 21以降で-Pjava21を指定してビルドし、Java 21以降で実行した場合だけ計測できる。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VirtualThreadBenchmark {
+
+    private static final int REQUESTS = 1000;
+
+    private static final int JETTY_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    /** コネクションプールの大きさ（20はnablarch.db.adaptivePool.maxPoolSize） */
+    @Param({"20", "80"})
+    public int poolSize;
+
+    @Param({"10"})
+    public int dbLatencyMillis;
+
+    private HikariDataSource dataSource;
+
+    private Server server;
+
+    private HttpClient client;
+
+    private URI uri;
+
+    @Setup
+    public void setUp() throws Exception {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getProperty("benchmark.db.url", "jdbc:postgresql://localhost:5432/postgres"));
+        dataSource.setUsername(System.getProperty("benchmark.db.user", "postgres"));
+        dataSource.setPassword(System.getProperty("benchmark.db.password", "example"));
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setMinimumIdle(poolSize);
+
+        VirtualThreadWebFrontController controller = new VirtualThreadWebFrontController() {
+            @Override
+            protected void verifyJdbcDriver() {
+                // 42.6より前のドライバで仮想スレッドが遅くなることを計測するため、ドライバのバージョンを確認しない
+            }
+        };
+        controller.setEnabled(mode.equals("virtual"));
+        controller.setMaxConcurrency(1000);
+        List<Handler> handlerQueue = new ArrayList<>();
+        handlerQueue.add(new HttpResponseHandler());
+        handlerQueue.add((Handler<HttpRequest, HttpResponse>) this::query);
+        controller.setHandlerQueue(handlerQueue);
+
+        server = new Server(new QueuedThreadPool(JETTY_MAX_THREADS));
+        ServerConnector connector = new ServerConnector(server);
+        connector.setAcceptQueueSize(REQUESTS);
+        server.addConnector(connector);
+        ServletContextHandler context = new ServletContextHandler();
+        FilterHolder filter = new FilterHolder(controller);
+        filter.setAsyncSupported(true);
+        context.addFilter(filter, "/*", EnumSet.of(DispatcherType.REQUEST));
+        server.setHandler(context);
+        server.start();
+
+        uri = URI.create("http://localhost:" + connector.getLocalPort() + "/query");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        server.stop();
+        dataSource.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void handleRequests() {
+        java.net.http.HttpRequest request = java.net.http.HttpRequest.newBuilder(uri).build();
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            responses[i] = client.sendAsync(request, BodyHandlers.discarding()).thenAccept(response -> {
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("unexpected status code. status = " + response.statusCode());
+                }
+            });
+        }
+        CompletableFuture.allOf(responses).join();
+    }
+
+    private HttpResponse query(HttpRequest request, ExecutionContext context) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT pg_sleep(?)")) {
+            statement.setDouble(1, dbLatencyMillis / 1000.0);
+            statement.execute();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        return new HttpResponse(200);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.benchmarks;
+
+import com.example.todo.application.TodoRepository;
+import com.example.todo.domain.*;
+import nablarch.common.web.WebConfig;
+import nablarch.common.web.WebConfigFinder;
+import nablarch.common.web.session.SessionUtil;
+import nablarch.core.repository.SystemRepository;
+import nablarch.core.repository.di.DiContainer;
+import nablarch.core.repository.di.config.xml.XmlComponentDefinitionLoader;
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.Handler;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.HttpServer;
+import nablarch.fw.web.HttpServerFactory;
+import nablarch.fw.web.RestMockHttpRequest;
+import nablarch.fw.web.RestMockHttpRequestBuilder;
+import nablarch.fw.web.servlet.WebFrontController;
+import nablarch.test.core.http.HttpRequestTestSupportHandler;
+import nablarch.test.core.http.HttpTestConfiguration;
+import org.openjdk.jmh.annotations.*;
+
+import javax.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * リクエストがハンドラキューを通って処理されるまでの時間を計測する。
+ *
+ * バックエンドのコンポーネント設定をそのまま読み込み、データベースの代わりに{@link com.example.benchmarks.support.InMemoryTodoRepository}を使う。
+ * リクエストはテスティングフレームワークと同じく、組み込みのJettyにソケットを使わずに送る。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WebFrontControllerBenchmark {
+
+    private static final String USER_ID = "1001";
+
+    private static final String CSRF_TOKEN = "benchmark-csrf-token";
+
+    private static final int TODO_COUNT = 20;
+
+    private HttpServer server;
+
+    private HttpRequestTestSupportHandler sessionHandler;
+
+    private RestMockHttpRequest getTodosRequest;
+
+    private RestMockHttpRequest putTodoRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        SystemRepository.load(new DiContainer(new XmlComponentDefinitionLoader("benchmark-component-configuration.xml")));
+
+        TodoRepository todoRepository = SystemRepository.get("todoRepository");
+        for (int i = 0; i < TODO_COUNT; i++) {
+            todoRepository.add(new Todo(todoRepository.nextId(), new TodoText("やること" + i), TodoStatus.INCOMPLETE, new UserId(USER_ID)));
+        }
+
+        HttpServerFactory httpServerFactory = SystemRepository.get("httpServerFactory");
+        server = httpServerFactory.create();
+        server.setWarBasePath("file://" + Files.createTempDirectory("benchmark-war").toString());
+        server.startLocal();
+
+        // テスティングフレームワークと同じく、計測側で用意したセッションをリクエストに引き継ぐハンドラを先頭に追加する
+        WebFrontController controller = SystemRepository.get("webFrontController");
+        List<Handler> handlerQueue = new ArrayList<>(controller.getHandlerQueue());
+        sessionHandler = new HttpRequestTestSupportHandler(new HttpTestConfiguration());
+        handlerQueue.add(0, sessionHandler);
+        server.setHandlerQueue(handlerQueue);
+
+        RestMockHttpRequestBuilder requestBuilder = SystemRepository.get("restMockHttpRequestBuilder");
+        WebConfig webConfig = WebConfigFinder.getWebConfig();
+        getTodosRequest = requestBuilder.get("/api/todos");
+        putTodoRequest = requestBuilder.put("/api/todos/1")
+                .setHeader("Content-Type", MediaType.APPLICATION_JSON)
+                .setHeader(webConfig.getCsrfTokenHeaderName(), CSRF_TOKEN)
+                .setBody(Map.of("completed", true));
+    }
+
+    @Benchmark
+    public HttpResponse getTodos() {
+        return send(getTodosRequest);
+    }
+
+    @Benchmark
+    public HttpResponse putTodo() {
+        return send(putTodoRequest);
+    }
+
+    private HttpResponse send(RestMockHttpRequest request) {
+        ExecutionContext context = new ExecutionContext();
+        SessionUtil.put(context, "user.id", USER_ID);
+        SessionUtil.put(context, WebConfigFinder.getWebConfig().getCsrfTokenSessionStoredVarName(), CSRF_TOKEN);
+        sessionHandler.setContext(context);
+        HttpResponse response = server.handle(request, context);
+        if (response.getStatusCode() != HttpResponse.Status.OK.getStatusCode()) {
+            throw new IllegalStateException("unexpected status code. status = " + response.getStatusCode());
+        }
+        return response;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.benchmarks.support;
+
+import com.example.todo.application.TodoRepository;
+import com.example.todo.domain.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * データベースを使わずにToDoを保持する{@link TodoRepository}。
+ *
+ * ハンドラキューの処理にかかる時間だけを計測するために使う。
+ */
+public class InMemoryTodoRepository implements TodoRepository {
+
+    private final Map<UserId, NavigableMap<Long, Todo>> todos = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Map<UserId, Long> versions = new ConcurrentHashMap<>();
+
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    @Override
+    public List<Todo> list(UserId userId, TodoId after, int limit) {
+        NavigableMap<Long, Todo> userTodos = todos.getOrDefault(userId, Collections.emptyNavigableMap());
+        return userTodos.tailMap(after != null ? after.value() : Long.MIN_VALUE, false).values().stream()
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void forEach(UserId userId, Consumer<Todo> action) {
+        todos.getOrDefault(userId, Collections.emptyNavigableMap()).values().forEach(action);
+    }
+
+    @Override
+    public TodoId nextId() {
+        return new TodoId(sequence.incrementAndGet());
+    }
+
+    @Override
+    public List<TodoId> nextIds(int count) {
+        long last = sequence.addAndGet(count);
+        return LongStream.rangeClosed(last - count + 1, last).mapToObj(TodoId::new).collect(Collectors.toList());
+    }
+
+    @Override
+    public void add(Todo todo) {
+        todos.computeIfAbsent(todo.userId(), userId -> new ConcurrentSkipListMap<>()).put(todo.id().value(), todo);
+        incrementVersion(todo.userId());
+    }
+
+    @Override
+    public void addAll(List<Todo> todos) {
+        todos.forEach(this::add);
+    }
+
+    @Override
+    public Todo updateStatus(UserId userId, TodoId todoId, TodoStatus status) {
+        NavigableMap<Long, Todo> userTodos = todos.get(userId);
+        if (userTodos == null) {
+            return null;
+        }
+        Todo updated = userTodos.computeIfPresent(todoId.value(), (id, todo) -> todo.changeStatus(status));
+        if (updated != null) {
+            incrementVersion(userId);
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean delete(UserId userId, TodoId todoId) {
+        NavigableMap<Long, Todo> userTodos = todos.get(userId);
+        boolean deleted = userTodos != null && userTodos.remove(todoId.value()) != null;
+        if (deleted) {
+            incrementVersion(userId);
+        }
+        return deleted;
+    }
+
+    @Override
+    public long version(UserId userId) {
+        return versions.getOrDefault(userId, 0L);
+    }
+
+    private void incrementVersion(UserId userId) {
+        versions.put(userId, versionSequence.incrementAndGet());
+    }
+}
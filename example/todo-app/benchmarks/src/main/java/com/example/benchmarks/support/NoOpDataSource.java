@@ -0,0 +1,95 @@
+package com.example.benchmarks.support;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.logging.Logger;
+
+/**
+ * 何も行わないコネクションを返す{@link DataSource}。
+ *
+ * データベース接続管理ハンドラとトランザクション制御ハンドラを、データベースなしで動かすために使う。
+ * SQLを実行すると{@link UnsupportedOperationException}を送出する。
+ * バックエンドの設定で廃棄対象になっているため、{@link Closeable}を実装している。
+ */
+public class NoOpDataSource implements DataSource, Closeable {
+
+    private static final Connection CONNECTION = (Connection) Proxy.newProxyInstance(
+            NoOpDataSource.class.getClassLoader(), new Class<?>[]{Connection.class}, NoOpDataSource::invoke);
+
+    private static Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "prepareStatement":
+            case "prepareCall":
+            case "createStatement":
+                throw new UnsupportedOperationException("database access is not available in benchmarks.");
+            case "getTransactionIsolation":
+                return Connection.TRANSACTION_READ_COMMITTED;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "NoOpConnection";
+            default:
+                Class<?> returnType = method.getReturnType();
+                if (returnType == boolean.class) {
+                    return false;
+                }
+                if (returnType == int.class) {
+                    return 0;
+                }
+                return null;
+        }
+    }
+
+    @Override
+    public Connection getConnection() {
+        return CONNECTION;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) {
+        return CONNECTION;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return Logger.getGlobal();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return false;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.todo.infrastructure;
+
+import com.example.todo.domain.Todo;
+import com.example.todo.infrastructure.entity.TodoEntity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JdbcTodoRepository#createTodo}で、検索結果のエンティティをドメインオブジェクトに変換する時間を計測する。
+ *
+ * パッケージプライベートのメソッドを呼び出すため、JdbcTodoRepositoryと同じパッケージに配置している。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoMappingBenchmark {
+
+    private final JdbcTodoRepository repository = new JdbcTodoRepository(null);
+
+    private final TodoEntity entity = new TodoEntity();
+
+    @Setup
+    public void setUp() {
+        entity.setTodoId(2001L);
+        entity.setText("やること");
+        entity.setCompleted(false);
+        entity.setUserId("1001");
+    }
+
+    @Benchmark
+    public Todo createTodo() {
+        return repository.createTodo(entity);
+    }
+}
@@ -6,6 +6,8 @@ import {
   FetchParams,
   HTTPMethod,
   RequestContext,
+  ApiResponse,
+  Todo,
 } from './generated-rest-client';
 
 const requestLogger: Middleware = {
@@ -81,8 +83,19 @@ const logout = async () => {
   return usersApi.logout();
 };
 
+const nextCursorHeader = 'X-Next-Cursor';
+
 const getTodos = async () => {
-  return todosApi.getTodos();
+  // 1回に取得できる件数には上限があるため、X-Next-Cursorがなくなるまで続きのページを取得する
+  const todos: Todo[] = [];
+  let after: number | undefined = undefined;
+  do {
+    const response: ApiResponse<Todo[]> = await todosApi.getTodosRaw({after});
+    todos.push(...(await response.value()));
+    const nextCursor = response.raw.headers.get(nextCursorHeader);
+    after = nextCursor !== null ? Number(nextCursor) : undefined;
+  } while (after !== undefined);
+  return todos;
 };
 
 const postTodo = async (text: string) => {
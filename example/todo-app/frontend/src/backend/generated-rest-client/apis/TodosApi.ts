@@ -30,6 +30,12 @@ export interface DeleteTodoRequest {
     todoId: number;
 }
 
+export interface GetTodosRequest {
+    limit?: number;
+    after?: number;
+    ifNoneMatch?: string;
+}
+
 export interface PostTodoRequest {
     inlineObject: InlineObject;
 }
@@ -76,14 +82,26 @@ export class TodosApi extends runtime.BaseAPI {
     }
 
     /**
-     * 登録しているToDoを全て取得する。 
+     * 登録しているToDoをIDの昇順で取得する。 1回に取得する件数は`limit`で指定し、続きがある場合はレスポンスヘッダ`X-Next-Cursor`の値を `after`に指定して次のページを取得する。 レスポンスヘッダ`ETag`の値を`If-None-Match`に指定すると、前回の取得からToDoが変わっていない場合は 一覧を返さずに304を返す。 
      * ToDo一覧の取得
      */
-    async getTodosRaw(): Promise<runtime.ApiResponse<Array<Todo>>> {
+    async getTodosRaw(requestParameters: GetTodosRequest): Promise<runtime.ApiResponse<Array<Todo>>> {
         const queryParameters: any = {};
 
+        if (requestParameters.limit !== undefined) {
+            queryParameters['limit'] = requestParameters.limit;
+        }
+
+        if (requestParameters.after !== undefined) {
+            queryParameters['after'] = requestParameters.after;
+        }
+
         const headerParameters: runtime.HTTPHeaders = {};
 
+        if (requestParameters.ifNoneMatch !== undefined && requestParameters.ifNoneMatch !== null) {
+            headerParameters['If-None-Match'] = String(requestParameters.ifNoneMatch);
+        }
+
         const response = await this.request({
             path: `/api/todos`,
             method: 'GET',
@@ -95,11 +113,11 @@ export class TodosApi extends runtime.BaseAPI {
     }
 
     /**
-     * 登録しているToDoを全て取得する。 
+     * 登録しているToDoをIDの昇順で取得する。 1回に取得する件数は`limit`で指定し、続きがある場合はレスポンスヘッダ`X-Next-Cursor`の値を `after`に指定して次のページを取得する。 レスポンスヘッダ`ETag`の値を`If-None-Match`に指定すると、前回の取得からToDoが変わっていない場合は 一覧を返さずに304を返す。 
      * ToDo一覧の取得
      */
-    async getTodos(): Promise<Array<Todo>> {
-        const response = await this.getTodosRaw();
+    async getTodos(requestParameters: GetTodosRequest): Promise<Array<Todo>> {
+        const response = await this.getTodosRaw(requestParameters);
         return await response.value();
     }
 
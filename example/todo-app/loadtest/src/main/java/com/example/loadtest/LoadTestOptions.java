@@ -0,0 +1,122 @@
+package com.example.loadtest;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 負荷試験の設定。コマンドライン引数に「名前=値」の形式で指定する。
+ */
+final class LoadTestOptions {
+
+    /** 操作ごとの比率のデフォルト（一覧の取得が中心で、サインアップとログインはパスワードのハッシュ計算があるため少なめ） */
+    static final String DEFAULT_MIX = "getTodos=50,postTodo=15,putTodo=15,deleteTodo=10,getCsrfToken=5,login=4,signup=1";
+
+    static final Set<String> OPERATIONS = Set.of("getTodos", "postTodo", "putTodo", "deleteTodo", "getCsrfToken", "login", "signup");
+
+    private static final Set<String> NAMES = Set.of(
+            "rate", "duration", "warmup", "users", "mix", "target", "port", "seed", "timeout", "maxInFlight", "report");
+
+    /** 1秒あたりの操作の到着数 */
+    final double rate;
+
+    /** 計測する秒数（ウォームアップを除く） */
+    final int duration;
+
+    /** ウォームアップの秒数（計測結果に含めない） */
+    final int warmup;
+
+    /** 事前に登録してログインしておくユーザー数 */
+    final int users;
+
+    /** 操作ごとの比率 */
+    final Map<String, Integer> mix;
+
+    /** 負荷をかけるサーバーのURL（指定しない場合はプロセス内でバックエンドを起動する） */
+    final String target;
+
+    /** プロセス内で起動するバックエンドのポート */
+    final int port;
+
+    /** 到着間隔と操作の選択に使う乱数のシード */
+    final long seed;
+
+    /** 1リクエストのタイムアウト秒数 */
+    final int timeout;
+
+    /** 応答を待っている操作の上限（超えた到着は送信せずにdroppedとして数える） */
+    final int maxInFlight;
+
+    /** 結果を出力するファイル */
+    final String report;
+
+    private LoadTestOptions(Map<String, String> values) {
+        rate = Double.parseDouble(values.getOrDefault("rate", "100"));
+        duration = Integer.parseInt(values.getOrDefault("duration", "60"));
+        warmup = Integer.parseInt(values.getOrDefault("warmup", "10"));
+        users = Integer.parseInt(values.getOrDefault("users", "50"));
+        mix = parseMix(values.getOrDefault("mix", DEFAULT_MIX));
+        target = values.get("target");
+        port = Integer.parseInt(values.getOrDefault("port", "9090"));
+        seed = Long.parseLong(values.getOrDefault("seed", "1"));
+        timeout = Integer.parseInt(values.getOrDefault("timeout", "30"));
+        maxInFlight = Integer.parseInt(values.getOrDefault("maxInFlight", "10000"));
+        report = values.getOrDefault("report",
+                "loadtest-results/" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        if (rate <= 0 || duration <= 0 || warmup < 0 || users <= 0 || timeout <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("rate, duration, users, timeout and maxInFlight must be positive, warmup must not be negative.");
+        }
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            String name = separator < 0 ? arg : arg.substring(0, separator);
+            if (separator < 0 || !NAMES.contains(name)) {
+                throw new IllegalArgumentException("unknown option. option=[" + arg + "] available=" + NAMES);
+            }
+            values.put(name, arg.substring(separator + 1));
+        }
+        return new LoadTestOptions(values);
+    }
+
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String element : value.split(",")) {
+            String[] pair = element.trim().split("=");
+            if (pair.length != 2 || !OPERATIONS.contains(pair[0])) {
+                throw new IllegalArgumentException("invalid mix. element=[" + element + "] operations=" + OPERATIONS);
+            }
+            int weight = Integer.parseInt(pair[1]);
+            if (weight > 0) {
+                mix.put(pair[0], weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("mix must contain at least one operation.");
+        }
+        return Collections.unmodifiableMap(mix);
+    }
+
+    /**
+     * レポートに出力する設定。
+     */
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("rate", rate);
+        map.put("duration", duration);
+        map.put("warmup", warmup);
+        map.put("users", users);
+        map.put("mix", mix);
+        map.put("target", target != null ? target : "in-process");
+        map.put("seed", seed);
+        map.put("timeout", timeout);
+        map.put("maxInFlight", maxInFlight);
+        return map;
+    }
+}
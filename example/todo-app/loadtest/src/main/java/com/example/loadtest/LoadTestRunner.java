@@ -0,0 +1,242 @@
+package com.example.loadtest;
+
+import com.example.system.metrics.LatencyHistogram;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import nablarch.core.repository.SystemRepository;
+import nablarch.core.repository.di.DiContainer;
+import nablarch.core.repository.di.config.xml.XmlComponentDefinitionLoader;
+import nablarch.fw.web.HttpServer;
+import nablarch.fw.web.HttpServerFactory;
+import nablarch.fw.web.servlet.WebFrontController;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ToDoアプリに、サインアップ、ログイン、ToDoの操作を混ぜた負荷をかけて、operationIdごとの応答時間を計測する。
+ *
+ * 操作は、指定した秒間の到着数（rate）でポアソン到着させる（オープンモデル）。
+ * 前の操作の応答を待たずに送信するため、サーバーの処理が遅れても負荷は減らない。
+ * 応答時間は予定した送信時刻から計測するため、送信が遅れた分も応答時間に含まれる（Coordinated Omissionの補正）。
+ */
+public final class LoadTestRunner {
+
+    private static final String PASSWORD = "loadtest-password";
+
+    /** 事前準備で同時にサインアップする数（パスワードのハッシュ計算の同時実行数を超えないようにする） */
+    private static final int PREPARE_CONCURRENCY = 4;
+
+    /** 事前準備でユーザーごとに登録するToDoの数 */
+    private static final int PREPARE_TODOS = 5;
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        HttpServer server = null;
+        String baseUrl = options.target;
+        if (baseUrl == null) {
+            server = startServer(options.port);
+            baseUrl = "http://localhost:" + options.port;
+        }
+        try {
+            TodoApiClient client = new TodoApiClient(baseUrl, Duration.ofSeconds(options.timeout));
+            List<VirtualUser> users = prepare(client, options.users);
+            Map<String, Object> summary = run(client, users, options);
+            Map<String, Object> report = report(options, summary, client.stats());
+            File file = new File(options.report);
+            if (file.getParentFile() != null) {
+                Files.createDirectories(file.getParentFile().toPath());
+            }
+            new ObjectMapper()
+                    .enable(SerializationFeature.INDENT_OUTPUT)
+                    .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                    .writeValue(file, report);
+            print(summary, client.stats(), options.duration);
+            System.out.println("report: " + file.getAbsolutePath());
+        } finally {
+            // 組み込みのJettyは停止する手段がないため、プロセスを終了する
+            if (server != null) {
+                System.exit(0);
+            }
+        }
+    }
+
+    /**
+     * テスティングフレームワークの組み込みサーバと同じく、バックエンドのハンドラキューをプロセス内のJettyで起動する。
+     * データベースは開発環境と同じものを使う。
+     */
+    private static HttpServer startServer(int port) throws Exception {
+        SystemRepository.load(new DiContainer(new XmlComponentDefinitionLoader("loadtest-component-configuration.xml")));
+        HttpServerFactory httpServerFactory = SystemRepository.get("httpServerFactory");
+        HttpServer server = httpServerFactory.create();
+        server.setPort(port);
+        server.setWarBasePath("file://" + Files.createTempDirectory("loadtest-war").toString());
+        WebFrontController controller = SystemRepository.get("webFrontController");
+        server.setHandlerQueue(controller.getHandlerQueue());
+        server.start();
+        return server;
+    }
+
+    private static List<VirtualUser> prepare(TodoApiClient client, int count) throws Exception {
+        List<VirtualUser> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(new VirtualUser(client.newUserName(), PASSWORD));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(PREPARE_CONCURRENCY);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (VirtualUser user : users) {
+                futures.add(executor.submit(() -> {
+                    client.prepare(user, PREPARE_TODOS);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return users;
+    }
+
+    /**
+     * ウォームアップと計測の間、操作を到着させる。到着させ終えたら、応答を待っている操作の完了を待つ。
+     */
+    private static Map<String, Object> run(TodoApiClient client, List<VirtualUser> users, LoadTestOptions options) throws InterruptedException {
+        Random random = new Random(options.seed);
+        String[] operations = weightedOperations(options.mix);
+        Semaphore inFlight = new Semaphore(options.maxInFlight);
+        LongAdder dropped = new LongAdder();
+
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(options.warmup);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(options.duration);
+        client.recordBetween(measureFrom, end);
+
+        long intended = start;
+        while (true) {
+            intended += (long) (-Math.log(1 - random.nextDouble()) / options.rate * TimeUnit.SECONDS.toNanos(1));
+            if (intended >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            String operationId = operations[random.nextInt(operations.length)];
+            VirtualUser user = users.get(random.nextInt(users.size()));
+            if (!inFlight.tryAcquire()) {
+                if (intended >= measureFrom) {
+                    dropped.increment();
+                }
+                client.drop(operationId, intended);
+                continue;
+            }
+            client.execute(operationId, user, intended, random)
+                    .whenComplete((result, error) -> inFlight.release());
+        }
+        boolean completed = inFlight.tryAcquire(options.maxInFlight, options.timeout * 2L, TimeUnit.SECONDS);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("dropped", dropped.sum());
+        summary.put("incomplete", completed ? 0 : options.maxInFlight - inFlight.availablePermits());
+        return summary;
+    }
+
+    /**
+     * 比率の分だけ操作を並べた配列を作成する（配列から一様に選ぶと、比率どおりに選ばれる）。
+     */
+    private static String[] weightedOperations(Map<String, Integer> mix) {
+        List<String> operations = new ArrayList<>();
+        mix.forEach((operationId, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                operations.add(operationId);
+            }
+        });
+        return operations.toArray(new String[0]);
+    }
+
+    private static Map<String, Object> report(LoadTestOptions options, Map<String, Object> summary, Map<String, OperationStats> stats) {
+        long requests = stats.values().stream().mapToLong(OperationStats::sent).sum();
+        long errors = stats.values().stream().mapToLong(OperationStats::errors).sum();
+        summary.put("requests", requests);
+        summary.put("errors", errors);
+        summary.put("throughput", round((double) requests / options.duration));
+
+        Map<String, Object> operations = new LinkedHashMap<>();
+        stats.forEach((operationId, operation) -> {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("count", operation.count());
+            result.put("errors", operation.errors());
+            result.put("throughput", round((double) operation.sent() / options.duration));
+            Map<String, Long> statuses = new LinkedHashMap<>();
+            operation.results.forEach((status, count) -> statuses.put(status, count.sum()));
+            result.put("statuses", statuses);
+            result.put("latencyMillis", distribution(operation.latency));
+            result.put("serviceTimeMillis", distribution(operation.serviceTime));
+            operations.put(operationId, result);
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", options.toMap());
+        report.put("summary", summary);
+        report.put("operations", operations);
+        return report;
+    }
+
+    /**
+     * バックエンドのメトリクスと同じヒストグラムから、パーセンタイル、最大値、平均値を求める（ミリ秒）。
+     */
+    private static Map<String, Double> distribution(LatencyHistogram histogram) {
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        Map<String, Double> distribution = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            distribution.put("p" + (percentile % 1 == 0 ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+                    millis(snapshot.valueAtQuantile(percentile / 100)));
+        }
+        distribution.put("max", millis(snapshot.max()));
+        distribution.put("mean", round((double) snapshot.sum() / snapshot.count() / 1000));
+        return distribution;
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private static void print(Map<String, Object> summary, Map<String, OperationStats> stats, int duration) {
+        System.out.printf("%-14s %8s %8s %10s %10s %10s %10s %10s%n",
+                "operationId", "count", "errors", "req/s", "p50(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+        stats.keySet().stream().sorted().forEach(operationId -> {
+            OperationStats operation = stats.get(operationId);
+            LatencyHistogram.Snapshot latency = operation.latency.snapshot();
+            System.out.printf("%-14s %8d %8d %10.1f %10.3f %10.3f %10.3f %10.3f%n",
+                    operationId, latency.count(), operation.errors(), (double) operation.sent() / duration,
+                    millis(latency.valueAtQuantile(0.5)), millis(latency.valueAtQuantile(0.99)),
+                    millis(latency.valueAtQuantile(0.999)), millis(latency.max()));
+        });
+        System.out.println("summary: " + summary);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.loadtest;
+
+import com.example.system.metrics.LatencyHistogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * operationIdごとの計測結果。
+ *
+ * latencyは予定した送信時刻からの応答時間（Coordinated Omissionを補正した値）、
+ * serviceTimeは実際に送信してからの応答時間で、両者の差が負荷生成側やコネクションの待ちになる。
+ * 送信せずに破棄した到着はlatencyだけに記録するため、serviceTimeの件数が実際に送信した数になる。
+ */
+final class OperationStats {
+
+    /** 通信エラーやタイムアウトでステータスコードがない場合の結果 */
+    static final String IO_ERROR = "io_error";
+
+    /** 応答を待っている操作が上限を超えたため、送信せずに破棄した場合の結果 */
+    static final String DROPPED = "dropped";
+
+    final LatencyHistogram latency = new LatencyHistogram();
+
+    final LatencyHistogram serviceTime = new LatencyHistogram();
+
+    final Map<String, LongAdder> results = new ConcurrentHashMap<>();
+
+    void record(long latencyMicros, long serviceTimeMicros, String result) {
+        latency.record(latencyMicros);
+        serviceTime.record(serviceTimeMicros);
+        results.computeIfAbsent(result, key -> new LongAdder()).increment();
+    }
+
+    void recordDropped(long latencyMicros) {
+        latency.record(latencyMicros);
+        results.computeIfAbsent(DROPPED, key -> new LongAdder()).increment();
+    }
+
+    /** 破棄した到着も含めた数 */
+    long count() {
+        return latency.snapshot().count();
+    }
+
+    /** 実際に送信したリクエストの数 */
+    long sent() {
+        return serviceTime.snapshot().count();
+    }
+
+    long errors() {
+        return results.entrySet().stream()
+                .filter(entry -> !entry.getKey().startsWith("2") && !entry.getKey().startsWith("3"))
+                .mapToLong(entry -> entry.getValue().sum())
+                .sum();
+    }
+}
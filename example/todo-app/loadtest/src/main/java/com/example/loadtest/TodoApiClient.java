@@ -0,0 +1,265 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ToDoアプリのREST APIを呼び出し、operationIdごとに応答時間を記録する。
+ *
+ * 負荷をかける操作は{@link #execute}で待ち合わせずに送信する。
+ * ログインとサインアップは、ブラウザと同じくCSRFトークンを取得してから送信するため、2つのリクエストになる。
+ * 2つ目のリクエストは1つ目の応答を受けてすぐに送るため、予定した送信時刻は1つ目の応答を受けた時刻とする。
+ */
+final class TodoApiClient {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    private final String baseUrl;
+
+    private final Duration timeout;
+
+    private final Map<String, OperationStats> stats = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final String runId = Long.toString(System.currentTimeMillis() % 2_176_782_336L, 36);
+
+    /** 記録する範囲（予定した送信時刻で判定する） */
+    private volatile long recordFrom = Long.MAX_VALUE;
+
+    private volatile long recordUntil = Long.MAX_VALUE;
+
+    TodoApiClient(String baseUrl, Duration timeout) {
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+    }
+
+    /**
+     * 予定した送信時刻がこの範囲にあるリクエストだけを記録する。
+     */
+    void recordBetween(long fromNanos, long untilNanos) {
+        recordFrom = fromNanos;
+        recordUntil = untilNanos;
+    }
+
+    Map<String, OperationStats> stats() {
+        return stats;
+    }
+
+    /**
+     * サインアップに使う、実行ごとに一意なユーザー名を作成する（ユーザー名は20文字まで）。
+     */
+    String newUserName() {
+        return "lt" + runId + "-" + sequence.incrementAndGet();
+    }
+
+    /**
+     * 事前準備として、ユーザーを登録してログインし、ToDoを登録する。応答を待つため、記録はしない。
+     * パスワードのハッシュ計算が混み合って503になった場合は、Retry-Afterの秒数だけ待って再送する。
+     */
+    void prepare(VirtualUser user, int todos) throws IOException, InterruptedException {
+        fetchCsrfToken(user);
+        expect(sendWithRetry(user, post("/api/signup", credentials(user))), 204, "signup");
+        expect(sendWithRetry(user, post("/api/login", credentials(user))), 204, "login");
+        // ログインするとセッションが作り直されるため、CSRFトークンを取得し直す
+        fetchCsrfToken(user);
+        for (int i = 0; i < todos; i++) {
+            HttpResponse<String> response = send(user, post("/api/todos", "{\"text\":\"" + todoText() + "\"}"));
+            expect(response, 200, "postTodo");
+            user.addTodo(MAPPER.readTree(response.body()).get("id").asLong());
+        }
+    }
+
+    private void fetchCsrfToken(VirtualUser user) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(user, HttpRequest.newBuilder(uri("/api/csrf_token")).GET());
+        expect(response, 200, "getCsrfToken");
+        receiveCsrfToken(user, response);
+    }
+
+    private HttpResponse<String> sendWithRetry(VirtualUser user, HttpRequest.Builder builder) throws IOException, InterruptedException {
+        while (true) {
+            HttpResponse<String> response = send(user, builder);
+            if (response.statusCode() != 503) {
+                return response;
+            }
+            TimeUnit.SECONDS.sleep(response.headers().firstValueAsLong("Retry-After").orElse(1));
+        }
+    }
+
+    private HttpResponse<String> send(VirtualUser user, HttpRequest.Builder builder) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(user.apply(builder).timeout(timeout).build(), HttpResponse.BodyHandlers.ofString());
+        user.receive(response);
+        return response;
+    }
+
+    private static void expect(HttpResponse<String> response, int status, String operationId) {
+        if (response.statusCode() != status) {
+            throw new IllegalStateException(operationId + " failed. status=[" + response.statusCode() + "] body=[" + response.body() + "]");
+        }
+    }
+
+    /**
+     * 操作を送信する。
+     *
+     * @param operationId 操作
+     * @param user 操作するユーザー
+     * @param intendedNanos 予定した送信時刻
+     * @param random 操作の内容を決める乱数（送信するスレッドからだけ使う）
+     * @return 全てのリクエストの応答を受けると完了する
+     */
+    CompletableFuture<Void> execute(String operationId, VirtualUser user, long intendedNanos, Random random) {
+        switch (operationId) {
+            case "getTodos":
+                return call("getTodos", user, HttpRequest.newBuilder(uri("/api/todos")).GET(), intendedNanos)
+                        .thenAccept(response -> { });
+            case "postTodo":
+                return postTodo(user, intendedNanos);
+            case "putTodo": {
+                Long todoId = user.takeTodo(random);
+                if (todoId == null) {
+                    return postTodo(user, intendedNanos);
+                }
+                HttpRequest.Builder builder = HttpRequest.newBuilder(uri("/api/todos/" + todoId))
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString("{\"completed\":" + random.nextBoolean() + "}"));
+                return call("putTodo", user, builder, intendedNanos)
+                        .thenAccept(response -> user.addTodo(todoId));
+            }
+            case "deleteTodo": {
+                Long todoId = user.takeTodo(random);
+                if (todoId == null) {
+                    return postTodo(user, intendedNanos);
+                }
+                return call("deleteTodo", user, HttpRequest.newBuilder(uri("/api/todos/" + todoId)).DELETE(), intendedNanos)
+                        .thenAccept(response -> {
+                            if (response == null || response.statusCode() != 204 && response.statusCode() != 404) {
+                                user.addTodo(todoId);
+                            }
+                        });
+            }
+            case "getCsrfToken":
+                return call("getCsrfToken", user, HttpRequest.newBuilder(uri("/api/csrf_token")).GET(), intendedNanos)
+                        .thenAccept(response -> receiveCsrfToken(user, response));
+            case "login":
+                return withCsrfToken(new VirtualUser(user.userName, user.password), "login", "/api/login", intendedNanos);
+            case "signup":
+                return withCsrfToken(new VirtualUser(newUserName(), user.password), "signup", "/api/signup", intendedNanos);
+            default:
+                throw new IllegalArgumentException("unknown operation. operationId=[" + operationId + "]");
+        }
+    }
+
+    private CompletableFuture<Void> postTodo(VirtualUser user, long intendedNanos) {
+        return call("postTodo", user, post("/api/todos", "{\"text\":\"" + todoText() + "\"}"), intendedNanos)
+                .thenAccept(response -> {
+                    if (response != null && response.statusCode() == 200) {
+                        user.addTodo(readTree(response).get("id").asLong());
+                    }
+                });
+    }
+
+    /**
+     * ログインしていないブラウザと同じく、新しいセッションでCSRFトークンを取得してから送信する。
+     */
+    private CompletableFuture<Void> withCsrfToken(VirtualUser anonymous, String operationId, String path, long intendedNanos) {
+        return call("getCsrfToken", anonymous, HttpRequest.newBuilder(uri("/api/csrf_token")).GET(), intendedNanos)
+                .thenCompose(response -> {
+                    if (!receiveCsrfToken(anonymous, response)) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return call(operationId, anonymous, post(path, credentials(anonymous)), System.nanoTime());
+                })
+                .thenAccept(response -> { });
+    }
+
+    /**
+     * 送信せずに破棄した到着を記録する。
+     *
+     * 応答時間は分からないため、送信していればタイムアウトになったものとして記録し、
+     * 破棄した到着を応答時間の分布から除かないようにする（除くとCoordinated Omissionと同じく遅延を小さく計測してしまう）。
+     */
+    void drop(String operationId, long intendedNanos) {
+        if (intendedNanos >= recordFrom && intendedNanos < recordUntil) {
+            stats.computeIfAbsent(operationId, key -> new OperationStats()).recordDropped(timeout.toNanos() / 1000);
+        }
+    }
+
+    /**
+     * リクエストを送信し、応答を受けた時点で記録する。
+     *
+     * @return 応答。通信エラーやタイムアウトの場合はnull
+     */
+    private CompletableFuture<HttpResponse<String>> call(String operationId, VirtualUser user, HttpRequest.Builder builder, long intendedNanos) {
+        HttpRequest request = user.apply(builder).timeout(timeout).build();
+        long sentNanos = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> {
+                    long receivedNanos = System.nanoTime();
+                    if (response != null) {
+                        user.receive(response);
+                    }
+                    if (intendedNanos >= recordFrom && intendedNanos < recordUntil) {
+                        stats.computeIfAbsent(operationId, key -> new OperationStats()).record(
+                                TimeUnit.NANOSECONDS.toMicros(receivedNanos - intendedNanos),
+                                TimeUnit.NANOSECONDS.toMicros(receivedNanos - sentNanos),
+                                response != null ? String.valueOf(response.statusCode()) : OperationStats.IO_ERROR);
+                    }
+                    return response;
+                });
+    }
+
+    private static boolean receiveCsrfToken(VirtualUser user, HttpResponse<String> response) {
+        if (response == null || response.statusCode() != 200) {
+            return false;
+        }
+        JsonNode token = readTree(response);
+        user.csrfToken(token.get("csrfTokenHeaderName").asText(), token.get("csrfTokenValue").asText());
+        return true;
+    }
+
+    private static JsonNode readTree(HttpResponse<String> response) {
+        try {
+            return MAPPER.readTree(response.body());
+        } catch (IOException e) {
+            throw new IllegalStateException("invalid response. body=[" + response.body() + "]", e);
+        }
+    }
+
+    private HttpRequest.Builder post(String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static String credentials(VirtualUser user) {
+        return "{\"userName\":\"" + user.userName + "\",\"password\":\"" + user.password + "\"}";
+    }
+
+    /**
+     * ToDoの本文（20文字まで）。
+     */
+    private String todoText() {
+        return "load test " + sequence.incrementAndGet();
+    }
+}
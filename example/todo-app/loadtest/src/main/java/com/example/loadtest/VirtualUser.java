@@ -0,0 +1,107 @@
+package com.example.loadtest;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 負荷をかけるユーザー。ブラウザと同じく、クッキーとCSRFトークンを保持してREST APIを呼び出す。
+ *
+ * 到着した操作は待ち合わせずに送信するため、同じユーザーの操作が同時に実行されることがある。
+ * 更新と削除が同じToDoに重ならないよう、対象のToDoは操作中だけ一覧から取り除く。
+ */
+final class VirtualUser {
+
+    final String userName;
+
+    final String password;
+
+    private final Map<String, String> cookies = new ConcurrentHashMap<>();
+
+    private final List<Long> todoIds = new ArrayList<>();
+
+    private volatile String csrfTokenHeaderName;
+
+    private volatile String csrfTokenValue;
+
+    VirtualUser(String userName, String password) {
+        this.userName = userName;
+        this.password = password;
+    }
+
+    /**
+     * 保持しているクッキーとCSRFトークンをリクエストに設定する。
+     */
+    HttpRequest.Builder apply(HttpRequest.Builder builder) {
+        if (!cookies.isEmpty()) {
+            StringBuilder cookie = new StringBuilder();
+            cookies.forEach((name, value) -> cookie.append(cookie.length() == 0 ? "" : "; ").append(name).append('=').append(value));
+            builder.header("Cookie", cookie.toString());
+        }
+        if (csrfTokenHeaderName != null) {
+            builder.header(csrfTokenHeaderName, csrfTokenValue);
+        }
+        return builder;
+    }
+
+    /**
+     * レスポンスのSet-Cookieをクッキーに反映する。値が空か、Max-Ageが0のクッキーは削除する。
+     */
+    void receive(HttpResponse<?> response) {
+        for (String setCookie : response.headers().allValues("Set-Cookie")) {
+            String[] attributes = setCookie.split(";");
+            int separator = attributes[0].indexOf('=');
+            if (separator <= 0) {
+                continue;
+            }
+            String name = attributes[0].substring(0, separator).trim();
+            String value = attributes[0].substring(separator + 1).trim();
+            boolean expired = value.isEmpty();
+            for (int i = 1; i < attributes.length; i++) {
+                expired |= attributes[i].trim().equalsIgnoreCase("Max-Age=0");
+            }
+            if (expired) {
+                cookies.remove(name);
+            } else {
+                cookies.put(name, value);
+            }
+        }
+    }
+
+    void csrfToken(String headerName, String value) {
+        csrfTokenValue = value;
+        csrfTokenHeaderName = headerName;
+    }
+
+    boolean hasCsrfToken() {
+        return csrfTokenHeaderName != null;
+    }
+
+    void addTodo(long todoId) {
+        synchronized (todoIds) {
+            todoIds.add(todoId);
+        }
+    }
+
+    /**
+     * 操作するToDoを一覧から取り除いて返す。
+     *
+     * @return ToDoのID。ToDoがない場合はnull
+     */
+    Long takeTodo(Random random) {
+        synchronized (todoIds) {
+            if (todoIds.isEmpty()) {
+                return null;
+            }
+            int index = random.nextInt(todoIds.size());
+            Long todoId = todoIds.get(index);
+            todoIds.set(index, todoIds.get(todoIds.size() - 1));
+            todoIds.remove(todoIds.size() - 1);
+            return todoId;
+        }
+    }
+}